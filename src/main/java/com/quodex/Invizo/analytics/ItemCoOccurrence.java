@@ -0,0 +1,189 @@
+package com.quodex.Invizo.analytics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse, decaying item-to-item co-occurrence matrix for "customers also buy" suggestions.
+ *
+ * Each item has a row holding the items it was bought together with and a weight per pair
+ * (how many baskets contained both, with older baskets counting less after {@link #decay}).
+ * A row also keeps the item's own basket weight, so confidence = pair weight / item weight.
+ *
+ * Rows are bounded: once a row holds twice its target number of neighbours, it is pruned back to
+ * the target by dropping the weakest pairs. The strongest neighbours therefore always survive,
+ * while newcomers still have room to build up weight before they are compared.
+ *
+ * Writers lock one row at a time. Readers get an immutable ranked list that is cached per row and
+ * rebuilt only after the row changed, so a lookup is normally a map get plus a sublist.
+ */
+public class ItemCoOccurrence {
+
+    // Pairs lighter than this after decay are forgotten
+    private static final double MIN_WEIGHT = 0.05;
+
+    private final int neighbours;
+    private final int maxBasket;
+    private final Map<String, Row> rows = new ConcurrentHashMap<>();
+
+    /**
+     * @param neighbours how many neighbours each item keeps for certain
+     * @param maxBasket  distinct items considered per basket; pairs grow quadratically with it
+     */
+    public ItemCoOccurrence(int neighbours, int maxBasket) {
+        if (neighbours <= 0 || maxBasket <= 1) {
+            throw new IllegalArgumentException("neighbours must be positive and maxBasket above 1");
+        }
+        this.neighbours = neighbours;
+        this.maxBasket = maxBasket;
+    }
+
+    public record Related(String itemId, String name, double weight, double confidence) {
+    }
+
+    /**
+     * Records one basket, given as itemId to item name. Items beyond maxBasket are ignored, and so
+     * are lines without an itemId (free-text items), which have no row to live in.
+     */
+    public void addBasket(Map<String, String> items) {
+        List<Map.Entry<String, String>> basket = new ArrayList<>(items.size());
+        for (Map.Entry<String, String> item : items.entrySet()) {
+            if (item.getKey() != null) {
+                basket.add(item);
+            }
+        }
+        if (basket.isEmpty()) {
+            return;
+        }
+        if (basket.size() > maxBasket) {
+            basket = basket.subList(0, maxBasket);
+        }
+        for (Map.Entry<String, String> item : basket) {
+            Row row = rows.computeIfAbsent(item.getKey(), id -> new Row());
+            synchronized (row) {
+                row.name = item.getValue();
+                row.weight += 1;
+                for (Map.Entry<String, String> other : basket) {
+                    if (other != item) {
+                        row.pairs.merge(other.getKey(), 1.0, Double::sum);
+                    }
+                }
+                if (row.pairs.size() > 2 * neighbours) {
+                    row.prune(neighbours);
+                }
+                row.changed();
+            }
+        }
+    }
+
+    /**
+     * The strongest neighbours of an item, best first; empty when the item was never sold.
+     */
+    public List<Related> related(String itemId, int limit) {
+        Row row = rows.get(itemId);
+        if (row == null) {
+            return List.of();
+        }
+        List<Related> ranked = row.ranked;
+        if (ranked == null) {
+            ranked = rank(row);
+        }
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    /**
+     * Multiplies every weight by factor (0 < factor < 1) and forgets pairs and items that became
+     * negligible. Called once per day by the owner with the factor for its half-life.
+     */
+    public void decay(double factor) {
+        for (Iterator<Map.Entry<String, Row>> it = rows.entrySet().iterator(); it.hasNext(); ) {
+            Row row = it.next().getValue();
+            synchronized (row) {
+                row.weight *= factor;
+                row.pairs.replaceAll((id, weight) -> weight * factor);
+                row.pairs.values().removeIf(weight -> weight < MIN_WEIGHT);
+                row.changed();
+                if (row.weight < MIN_WEIGHT) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        rows.clear();
+    }
+
+    public int items() {
+        return rows.size();
+    }
+
+    public long pairs() {
+        long pairs = 0;
+        for (Row row : rows.values()) {
+            synchronized (row) {
+                pairs += row.pairs.size();
+            }
+        }
+        return pairs;
+    }
+
+    private List<Related> rank(Row row) {
+        List<Map.Entry<String, Double>> pairs;
+        double weight;
+        long version;
+        synchronized (row) {
+            if (row.ranked != null) {
+                return row.ranked;
+            }
+            pairs = new ArrayList<>(row.pairs.size());
+            for (Map.Entry<String, Double> pair : row.pairs.entrySet()) {
+                pairs.add(Map.entry(pair.getKey(), pair.getValue()));
+            }
+            weight = row.weight;
+            version = row.version;
+        }
+        pairs.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        List<Related> ranked = new ArrayList<>(Math.min(pairs.size(), neighbours));
+        for (Map.Entry<String, Double> pair : pairs) {
+            if (ranked.size() == neighbours) {
+                break;
+            }
+            Row other = rows.get(pair.getKey());
+            String name = other != null ? other.name : null;
+            ranked.add(new Related(pair.getKey(), name, pair.getValue(), Math.min(1.0, pair.getValue() / weight)));
+        }
+        List<Related> result = List.copyOf(ranked);
+        synchronized (row) {
+            // Only cache if nothing changed while ranking
+            if (row.version == version) {
+                row.ranked = result;
+            }
+        }
+        return result;
+    }
+
+    private static final class Row {
+        // Guarded by this
+        final Map<String, Double> pairs = new HashMap<>();
+        String name;
+        double weight;
+        long version;
+        // Cached answer for readers; null after any change
+        volatile List<Related> ranked;
+
+        void changed() {
+            version++;
+            ranked = null;
+        }
+
+        // Keeps the strongest pairs only
+        void prune(int keep) {
+            List<Map.Entry<String, Double>> entries = new ArrayList<>(pairs.entrySet());
+            entries.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+            for (Map.Entry<String, Double> weakest : entries.subList(keep, entries.size())) {
+                pairs.remove(weakest.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.quodex.Invizo.analytics;
+
+import com.quodex.Invizo.util.Hashing;
+import com.quodex.Invizo.util.PaymentMethod;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Order facts kept column by column in primitive arrays, for ad-hoc analytics scans.
+ *
+ * One row per order: creation time (minutes since the epoch, local time), bill total and
+ * refunded amount in paise, payment method code, units sold and a voided flag. Order lines are
+ * stored in separate columns (item dictionary id, quantity, line value in paise); each order
+ * points at its first line.
+ *
+ * There is a single writer (appends and in-place updates, all synchronized). Readers scan the
+ * last published {@link Columns} without locking: rows beyond its size are invisible to them,
+ * and growing the arrays publishes copies. Scans are split across the common fork-join pool.
+ */
+public class OrderColumnStore {
+
+    private static final int INITIAL_ROWS = 1 << 12;
+    // Rows per fork-join leaf
+    private static final int SPLIT_THRESHOLD = 1 << 16;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+
+    // Column arrays plus how much of them is visible; replaced, never modified in size, by the writer
+    private record Columns(int[] minute, long[] totalPaise, long[] refundedPaise, byte[] paymentMethod,
+                          int[] units, boolean[] voided, int[] firstLine,
+                          int[] lineItem, int[] lineQuantity, long[] linePaise,
+                          int rows, int lines) {
+    }
+
+    public enum GroupBy {
+        NONE, HOUR_OF_DAY, DAY_OF_WEEK, HOUR_OF_WEEK, DAY, PAYMENT_METHOD, ITEM
+    }
+
+    /**
+     * A scan: filters (all optional) and one grouping. DAY grouping needs both from and to.
+     */
+    public record Query(LocalDateTime from, LocalDateTime to, Set<PaymentMethod> paymentMethods,
+                        String itemId, GroupBy groupBy) {
+    }
+
+    // Totals per group; money in paise
+    public record Group(int key, String label, long orders, long grossPaise, long refundedPaise, long units) {
+    }
+
+    private volatile Columns columns = new Columns(new int[INITIAL_ROWS], new long[INITIAL_ROWS], new long[INITIAL_ROWS],
+            new byte[INITIAL_ROWS], new int[INITIAL_ROWS], new boolean[INITIAL_ROWS], new int[INITIAL_ROWS],
+            new int[INITIAL_ROWS], new int[INITIAL_ROWS], new long[INITIAL_ROWS], 0, 0);
+
+    // Writer-side lookups, guarded by this. Rows are found by a 64-bit hash of the orderId so
+    // no order ID strings are kept (collisions are negligible at millions of orders)
+    private final LongIntMap rowByOrderId = new LongIntMap();
+    private final Map<String, Integer> itemIds = new HashMap<>();
+    private final List<String> itemNames = new ArrayList<>();
+
+    /**
+     * Appends one order. Lines are (itemId, name, quantity, line value in paise).
+     * @return false if the order is already stored
+     */
+    public synchronized boolean append(String orderId, LocalDateTime createdAt, PaymentMethod paymentMethod,
+                                       long totalPaise, long refundedPaise, List<Line> lines) {
+        long key = Hashing.hash64(orderId);
+        if (rowByOrderId.get(key) >= 0) {
+            return false;
+        }
+        Columns c = ensureCapacity(columns, 1, lines.size());
+        int row = c.rows;
+        c.minute[row] = toMinute(createdAt);
+        c.totalPaise[row] = totalPaise;
+        c.refundedPaise[row] = refundedPaise;
+        c.paymentMethod[row] = (byte) (paymentMethod != null ? paymentMethod.ordinal() : 0);
+        c.firstLine[row] = c.lines;
+        int units = 0;
+        int line = c.lines;
+        for (Line l : lines) {
+            c.lineItem[line] = itemId(l.itemId(), l.name());
+            c.lineQuantity[line] = l.quantity();
+            c.linePaise[line] = l.paise();
+            units += l.quantity();
+            line++;
+        }
+        c.units[row] = units;
+        rowByOrderId.put(key, row);
+        // Publishing the new sizes makes the row visible to scans
+        columns = new Columns(c.minute, c.totalPaise, c.refundedPaise, c.paymentMethod, c.units, c.voided, c.firstLine,
+                c.lineItem, c.lineQuantity, c.linePaise, row + 1, line);
+        return true;
+    }
+
+    public synchronized void setRefunded(String orderId, long refundedPaise) {
+        int row = rowByOrderId.get(Hashing.hash64(orderId));
+        if (row >= 0) {
+            Columns c = columns;
+            c.refundedPaise[row] = refundedPaise;
+            republish(c);
+        }
+    }
+
+    public synchronized void markVoided(String orderId) {
+        int row = rowByOrderId.get(Hashing.hash64(orderId));
+        if (row >= 0) {
+            Columns c = columns;
+            c.voided[row] = true;
+            republish(c);
+        }
+    }
+
+    // A volatile write after an in-place update, so scans that read columns afterwards see it
+    private void republish(Columns c) {
+        columns = new Columns(c.minute, c.totalPaise, c.refundedPaise, c.paymentMethod, c.units, c.voided, c.firstLine,
+                c.lineItem, c.lineQuantity, c.linePaise, c.rows, c.lines);
+    }
+
+    public int size() {
+        return columns.rows;
+    }
+
+    /**
+     * Runs a filter / group-by / aggregate scan over all stored orders in parallel.
+     * Voided orders are skipped. Groups with no orders are left out.
+     */
+    public List<Group> query(Query query) {
+        Columns c = columns;
+        int fromMinute = query.from() != null ? toMinute(query.from()) : Integer.MIN_VALUE;
+        int toMinute = query.to() != null ? toMinute(query.to()) : Integer.MAX_VALUE;
+        int methodMask = 0;
+        if (query.paymentMethods() == null || query.paymentMethods().isEmpty()) {
+            methodMask = -1;
+        } else {
+            for (PaymentMethod method : query.paymentMethods()) {
+                methodMask |= 1 << method.ordinal();
+            }
+        }
+        int item = -1;
+        List<String> names;
+        synchronized (this) {
+            if (query.itemId() != null) {
+                Integer id = itemIds.get(query.itemId());
+                if (id == null) {
+                    return List.of();
+                }
+                item = id;
+            }
+            names = List.copyOf(itemNames);
+        }
+
+        int firstDay = query.groupBy() == GroupBy.DAY ? Math.floorDiv(fromMinute, MINUTES_PER_DAY) : 0;
+        int groups = switch (query.groupBy()) {
+            case NONE -> 1;
+            case HOUR_OF_DAY -> 24;
+            case DAY_OF_WEEK -> 7;
+            case HOUR_OF_WEEK -> 7 * 24;
+            case DAY -> Math.floorDiv(toMinute - 1, MINUTES_PER_DAY) - firstDay + 1;
+            case PAYMENT_METHOD -> PAYMENT_METHODS.length;
+            case ITEM -> names.size();
+        };
+
+        Scan scan = new Scan(c, fromMinute, toMinute, methodMask, item, query.groupBy(), firstDay, groups);
+        long[] totals = ForkJoinPool.commonPool().invoke(new ScanTask(scan, 0, c.rows));
+
+        List<Group> result = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            int at = g * Scan.WIDTH;
+            if (totals[at] > 0) {
+                result.add(new Group(g, label(query.groupBy(), g, firstDay, names),
+                        totals[at], totals[at + 1], totals[at + 2], totals[at + 3]));
+            }
+        }
+        return result;
+    }
+
+    public record Line(String itemId, String name, int quantity, long paise) {
+    }
+
+    private int itemId(String itemId, String name) {
+        String key = itemId != null ? itemId : "";
+        Integer id = itemIds.get(key);
+        if (id == null) {
+            id = itemNames.size();
+            itemIds.put(key, id);
+            itemNames.add(name);
+        }
+        return id;
+    }
+
+    // Grows the arrays (by copying) if they cannot take the given number of extra rows and lines
+    private Columns ensureCapacity(Columns c, int extraRows, int extraLines) {
+        int rowCapacity = c.minute.length;
+        int lineCapacity = c.lineItem.length;
+        if (c.rows + extraRows <= rowCapacity && c.lines + extraLines <= lineCapacity) {
+            return c;
+        }
+        int rowsNeeded = Math.max(rowCapacity, Integer.highestOneBit(c.rows + extraRows) << 1);
+        int linesNeeded = Math.max(lineCapacity, Integer.highestOneBit(c.lines + extraLines) << 1);
+        Columns grown = new Columns(
+                Arrays.copyOf(c.minute, rowsNeeded), Arrays.copyOf(c.totalPaise, rowsNeeded),
+                Arrays.copyOf(c.refundedPaise, rowsNeeded), Arrays.copyOf(c.paymentMethod, rowsNeeded),
+                Arrays.copyOf(c.units, rowsNeeded), Arrays.copyOf(c.voided, rowsNeeded), Arrays.copyOf(c.firstLine, rowsNeeded),
+                Arrays.copyOf(c.lineItem, linesNeeded), Arrays.copyOf(c.lineQuantity, linesNeeded),
+                Arrays.copyOf(c.linePaise, linesNeeded), c.rows, c.lines);
+        columns = grown;
+        return grown;
+    }
+
+    private static String label(GroupBy groupBy, int group, int firstDay, List<String> names) {
+        return switch (groupBy) {
+            case NONE -> "all";
+            case HOUR_OF_DAY -> String.format("%02d:00", group);
+            case DAY_OF_WEEK -> DayOfWeek.of(group + 1).name();
+            case HOUR_OF_WEEK -> DayOfWeek.of(group / 24 + 1).name() + String.format(" %02d:00", group % 24);
+            case DAY -> LocalDate.ofEpochDay(firstDay + group).toString();
+            case PAYMENT_METHOD -> PAYMENT_METHODS[group].name();
+            case ITEM -> names.get(group);
+        };
+    }
+
+    // Local date-time as minutes since 1970-01-01T00:00 (no time zone involved)
+    private static int toMinute(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    // Everything a leaf needs to scan a row range
+    private record Scan(Columns c, int fromMinute, int toMinute, int methodMask, int item,
+                        GroupBy groupBy, int firstDay, int groups) {
+        // Accumulators per group: orders, gross paise, refunded paise, units
+        static final int WIDTH = 4;
+
+        long[] scan(int start, int end) {
+            long[] acc = new long[groups * WIDTH];
+            // Locals let the JIT keep the hot loop free of field loads
+            int[] minute = c.minute;
+            long[] total = c.totalPaise;
+            long[] refunded = c.refundedPaise;
+            byte[] method = c.paymentMethod;
+            int[] units = c.units;
+            boolean[] voided = c.voided;
+            boolean byLine = item >= 0 || groupBy == GroupBy.ITEM;
+            for (int r = start; r < end; r++) {
+                int m = minute[r];
+                if (m < fromMinute || m >= toMinute || voided[r] || (methodMask & (1 << method[r])) == 0) {
+                    continue;
+                }
+                if (byLine) {
+                    int lineStart = c.firstLine[r];
+                    int lineEnd = r + 1 < c.rows ? c.firstLine[r + 1] : c.lines;
+                    if (item >= 0 && !contains(lineStart, lineEnd)) {
+                        continue;
+                    }
+                    if (groupBy == GroupBy.ITEM) {
+                        for (int l = lineStart; l < lineEnd; l++) {
+                            int at = c.lineItem[l] * WIDTH;
+                            if (at < acc.length) {
+                                acc[at]++;
+                                acc[at + 1] += c.linePaise[l];
+                                acc[at + 3] += c.lineQuantity[l];
+                            }
+                        }
+                        continue;
+                    }
+                }
+                int at = group(method[r], m) * WIDTH;
+                acc[at]++;
+                acc[at + 1] += total[r];
+                acc[at + 2] += refunded[r];
+                acc[at + 3] += units[r];
+            }
+            return acc;
+        }
+
+        private boolean contains(int lineStart, int lineEnd) {
+            for (int l = lineStart; l < lineEnd; l++) {
+                if (c.lineItem[l] == item) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Minutes are non-negative for any date after 1970, so plain division is enough
+        private int group(byte method, int m) {
+            return switch (groupBy) {
+                case NONE, ITEM -> 0;
+                case HOUR_OF_DAY -> m % MINUTES_PER_DAY / 60;
+                // 1970-01-01 was a Thursday; Monday = 0
+                case DAY_OF_WEEK -> (m / MINUTES_PER_DAY + 3) % 7;
+                case HOUR_OF_WEEK -> (m / MINUTES_PER_DAY + 3) % 7 * 24 + m % MINUTES_PER_DAY / 60;
+                case DAY -> m / MINUTES_PER_DAY - firstDay;
+                case PAYMENT_METHOD -> method;
+            };
+        }
+    }
+
+    // Open-addressing map from long keys to non-negative ints; get() returns -1 when absent
+    private static final class LongIntMap {
+        private long[] keys = new long[1 << 12];
+        private int[] values = new int[1 << 12];
+        private boolean[] used = new boolean[1 << 12];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (used[i] && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (!used[i]) {
+                used[i] = true;
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<long[]> {
+        private final Scan scan;
+        private final int start;
+        private final int end;
+
+        ScanTask(Scan scan, int start, int end) {
+            this.scan = scan;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (end - start <= SPLIT_THRESHOLD) {
+                return scan.scan(start, end);
+            }
+            int middle = (start + end) >>> 1;
+            ScanTask left = new ScanTask(scan, start, middle);
+            left.fork();
+            long[] right = new ScanTask(scan, middle, end).compute();
+            long[] result = left.join();
+            for (int i = 0; i < result.length; i++) {
+                result[i] += right[i];
+            }
+            return result;
+        }
+    }
+}
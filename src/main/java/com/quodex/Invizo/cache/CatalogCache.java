@@ -0,0 +1,73 @@
+package com.quodex.Invizo.cache;
+
+import com.quodex.Invizo.entity.CatalogChangeEntity.ChangeType;
+import com.quodex.Invizo.entity.CatalogChangeEntity.EntityType;
+import com.quodex.Invizo.entity.CategoryEntity;
+import com.quodex.Invizo.io.CategoryResponse;
+import com.quodex.Invizo.io.ItemResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-through caches for single item and category lookups: GET /items/{id}, GET /categories/{id}
+ * and the category an added item goes into.
+ *
+ * Invalidation is driven by the catalog change log: every catalog write records which items and
+ * categories it touched, and those keys are evicted once the write committed. The TTL only
+ * bounds how long a missed invalidation, e.g. a manual database edit, can be served.
+ */
+@Component
+public class CatalogCache {
+
+    private final ReadThroughCache<String, ItemResponse> items;
+    private final ReadThroughCache<String, CategoryResponse> categories;
+    // Detached entities holding only the category's own columns, used as the reference of new items
+    private final ReadThroughCache<String, CategoryEntity> categoryEntities;
+
+    public CatalogCache(@Value("${invizo.cache.items.max-size:5000}") int maxItems,
+                        @Value("${invizo.cache.categories.max-size:500}") int maxCategories,
+                        @Value("${invizo.cache.ttl-minutes:10}") long ttlMinutes) {
+        Duration ttl = Duration.ofMinutes(ttlMinutes);
+        this.items = new ReadThroughCache<>(maxItems, ttl);
+        this.categories = new ReadThroughCache<>(maxCategories, ttl);
+        this.categoryEntities = new ReadThroughCache<>(maxCategories, ttl);
+    }
+
+    public ReadThroughCache<String, ItemResponse> items() {
+        return items;
+    }
+
+    public ReadThroughCache<String, CategoryResponse> categories() {
+        return categories;
+    }
+
+    public ReadThroughCache<String, CategoryEntity> categoryEntities() {
+        return categoryEntities;
+    }
+
+    // Called after a catalog write committed, with the entities it recorded as changed
+    public void invalidate(EntityType entityType, Collection<String> entityIds, ChangeType changeType) {
+        if (entityType == EntityType.ITEM) {
+            items.invalidate(entityIds);
+            return;
+        }
+        // Category upserts from item writes only change the item count, which the entities do not hold
+        categories.invalidate(entityIds);
+        if (changeType == ChangeType.DELETE) {
+            categoryEntities.invalidate(entityIds);
+        }
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("items", items.getStats());
+        stats.put("categories", categories.getStats());
+        stats.put("categoryEntities", categoryEntities.getStats());
+        return stats;
+    }
+}
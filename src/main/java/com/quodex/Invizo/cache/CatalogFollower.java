@@ -0,0 +1,95 @@
+package com.quodex.Invizo.cache;
+
+import com.quodex.Invizo.io.CatalogChangesResponse;
+import com.quodex.Invizo.io.ItemResponse;
+import com.quodex.Invizo.service.CatalogChangeService;
+import com.quodex.Invizo.service.ItemService;
+
+import java.util.Set;
+
+/**
+ * Keeps an in-memory view of the items (a search index, a barcode map) up to date with the
+ * catalog.
+ *
+ * sync() is meant to be called before every read. While the items version is unchanged it is a
+ * single counter comparison. After a change it applies the catalog changes recorded since the
+ * last sequence it saw; only the first call, or a change log it cannot follow, loads every item.
+ * One thread syncs at a time, the others wait for it.
+ */
+public class CatalogFollower {
+
+    private static final int CHANGES_PER_PAGE = 1000;
+
+    /**
+     * The view being kept up to date.
+     */
+    public interface View {
+        // Adds or replaces an item
+        void put(ItemResponse item);
+
+        void remove(String itemId);
+
+        // Ids currently in the view, to drop the ones that are gone after a full load
+        Set<String> itemIds();
+    }
+
+    private final ItemService itemService;
+    private final CatalogChangeService catalogChangeService;
+    private final ResourceVersions resourceVersions;
+    private final View view;
+
+    // Items version the view is up to date with; -1 before the first load
+    private volatile long syncedVersion = -1;
+    // Last catalog change applied. Guarded by this
+    private long sequence;
+
+    public CatalogFollower(ItemService itemService, CatalogChangeService catalogChangeService,
+                           ResourceVersions resourceVersions, View view) {
+        this.itemService = itemService;
+        this.catalogChangeService = catalogChangeService;
+        this.resourceVersions = resourceVersions;
+        this.view = view;
+    }
+
+    public void sync() {
+        if (resourceVersions.version(ResourceVersions.Family.ITEMS) == syncedVersion) {
+            return;
+        }
+        synchronized (this) {
+            // Read the version before loading, so the view is never marked newer than its contents
+            long version = resourceVersions.version(ResourceVersions.Family.ITEMS);
+            if (version == syncedVersion) {
+                return;
+            }
+            if (syncedVersion < 0 || !catchUp()) {
+                reload();
+            }
+            syncedVersion = version;
+        }
+    }
+
+    // Applies the recorded changes; false when the change log cannot be followed from here
+    private boolean catchUp() {
+        CatalogChangesResponse changes;
+        do {
+            changes = catalogChangeService.getChanges(sequence, CHANGES_PER_PAGE);
+            if (changes.getResetRequired()) {
+                return false;
+            }
+            changes.getItems().forEach(view::put);
+            changes.getDeletedItemIds().forEach(view::remove);
+            sequence = changes.getSequence();
+        } while (changes.getHasMore());
+        return true;
+    }
+
+    private void reload() {
+        sequence = catalogChangeService.getLatestSequence();
+        Set<String> gone = view.itemIds();
+        for (ItemResponse item : itemService.getItems()) {
+            view.put(item);
+            gone.remove(item.getItemId());
+        }
+        gone.forEach(view::remove);
+    }
+}
@@ -0,0 +1,87 @@
+package com.quodex.Invizo.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A catalog response (the JSON body of /items or /categories) serialized once and kept as bytes,
+ * plain and gzip-compressed, under the ETag of the version it was built from.
+ *
+ * Snapshots are immutable; a catalog change produces a new one.
+ */
+public record CatalogSnapshot(String etag, byte[] json, byte[] gzip, LocalDateTime builtAt) {
+
+    public static CatalogSnapshot of(String etag, byte[] json) {
+        return new CatalogSnapshot(etag, json, gzip(json), LocalDateTime.now());
+    }
+
+    /**
+     * The response body for a request: the gzip bytes when the client accepts gzip, plain JSON
+     * otherwise. Either way the bytes are written as they are, with no serialization.
+     */
+    public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return response.body(json);
+    }
+
+    // "gzip" or "*" listed without q=0; a q-value that does not parse refuses nothing
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].replace(" ", "");
+                if (param.startsWith("q=") && isZero(param.substring(2))) {
+                    refused = true;
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String qValue) {
+        try {
+            return Double.parseDouble(qValue) == 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Built rarely and served many times, so spend the CPU on the best compression
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
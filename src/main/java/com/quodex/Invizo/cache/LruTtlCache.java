@@ -0,0 +1,140 @@
+package com.quodex.Invizo.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A small in-process cache bounded by entry count, with per-entry TTL and LRU eviction.
+ *
+ * Entries pushed out because the cache is full are handed to the eviction listener
+ * (outside the lock) so callers can spill them somewhere durable. Expired entries are
+ * dropped silently.
+ */
+public class LruTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final BiConsumer<K, V> evictionListener;
+
+    // accessOrder = true keeps the least recently used entry first
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public LruTtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, (key, value) -> { }, Clock.systemUTC());
+    }
+
+    public LruTtlCache(int maxSize, Duration ttl, BiConsumer<K, V> evictionListener) {
+        this(maxSize, ttl, evictionListener, Clock.systemUTC());
+    }
+
+    public LruTtlCache(int maxSize, Duration ttl, BiConsumer<K, V> evictionListener, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.evictionListener = evictionListener;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(clock.millis())) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        List<Map.Entry<K, V>> evicted = new ArrayList<>();
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                Map.Entry<K, Entry<V>> eldest = it.next();
+                it.remove();
+                if (!eldest.getValue().isExpired(clock.millis())) {
+                    evicted.add(Map.entry(eldest.getKey(), eldest.getValue().value));
+                }
+            }
+        }
+        evicted.forEach(e -> evictionListener.accept(e.getKey(), e.getValue()));
+    }
+
+    public V remove(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.remove(key);
+            return entry == null || entry.isExpired(clock.millis()) ? null : entry.value;
+        }
+    }
+
+    // Live (non-expired) values, least recently used first; does not touch access order
+    public List<V> values() {
+        synchronized (entries) {
+            long now = clock.millis();
+            List<V> values = new ArrayList<>(entries.size());
+            for (Entry<V> entry : entries.values()) {
+                if (!entry.isExpired(now)) {
+                    values.add(entry.value);
+                }
+            }
+            return values;
+        }
+    }
+
+    // Removes every live entry and returns it, e.g. to spill the cache on shutdown
+    public Map<K, V> drain() {
+        synchronized (entries) {
+            long now = clock.millis();
+            Map<K, V> live = new LinkedHashMap<>();
+            entries.forEach((key, entry) -> {
+                if (!entry.isExpired(now)) {
+                    live.put(key, entry.value);
+                }
+            });
+            entries.clear();
+            return live;
+        }
+    }
+
+    // Drops expired entries; meant to be called periodically
+    public int purgeExpired() {
+        synchronized (entries) {
+            long now = clock.millis();
+            int before = entries.size();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            return before - entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
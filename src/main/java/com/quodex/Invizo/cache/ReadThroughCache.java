@@ -0,0 +1,201 @@
+package com.quodex.Invizo.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded read-through cache with per-entry TTL, LRU eviction and a frequency-based admission
+ * policy, for lookups by key that are read far more often than they change.
+ *
+ * Once the cache is full, a newly loaded value only gets in if its key was asked for more often
+ * than the least recently used entry it would push out (TinyLFU). Frequencies come from a small
+ * count-min sketch that is halved periodically, so a scan over many keys that are looked up once
+ * cannot flush the entries that are actually busy.
+ *
+ * Writers call invalidate after their change committed. Every invalidation also bumps a
+ * generation, and a load only stores its value if no invalidation happened while it ran, so a
+ * value read before a commit can never be cached after the commit's invalidation.
+ */
+public class ReadThroughCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final FrequencySketch sketch;
+
+    // accessOrder = true keeps the least recently used entry first; everything below is guarded by it
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+    private long hits;
+    private long misses;
+    private long rejected;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public ReadThroughCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public ReadThroughCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    /**
+     * Returns the cached value, or loads it. Null values and exceptions from the loader are not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (entries) {
+            sketch.increment(key);
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(clock.millis())) {
+                    hits++;
+                    return entry.value;
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            admit(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    public void invalidate(Collection<K> keys) {
+        synchronized (entries) {
+            generation++;
+            for (K key : keys) {
+                if (entries.remove(key) != null) {
+                    invalidations++;
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            invalidations += entries.size();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (entries) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", entries.size());
+            stats.put("maxSize", maxSize);
+            stats.put("ttlSeconds", ttlMillis / 1000);
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+            stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            stats.put("rejected", rejected);
+            stats.put("evictions", evictions);
+            stats.put("expirations", expirations);
+            stats.put("invalidations", invalidations);
+            return stats;
+        }
+    }
+
+    private void admit(K key, V value, long loadGeneration) {
+        synchronized (entries) {
+            if (generation != loadGeneration) {
+                // Something changed while loading; the value may predate it
+                return;
+            }
+            long now = clock.millis();
+            if (!entries.containsKey(key) && entries.size() >= maxSize) {
+                Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+                Map.Entry<K, Entry<V>> victim = it.next();
+                if (victim.getValue().isExpired(now)) {
+                    expirations++;
+                } else if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+                    evictions++;
+                } else {
+                    rejected++;
+                    return;
+                }
+                it.remove();
+            }
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    // Count-min sketch of recent key frequencies: four counters per key, capped at 15, halved every 10 * maxSize lookups
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final int[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(64, Math.min(maxSize, 1 << 24) * 4 - 1) << 1);
+            this.counters = new int[width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * maxSize;
+        }
+
+        void increment(Object key) {
+            int hash = key.hashCode();
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                if (counters[index] < 15) {
+                    counters[index]++;
+                }
+            }
+            if (++additions >= sampleSize) {
+                // Ageing, so keys that were busy an hour ago make room for the ones busy now
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>>= 1;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = Integer.MAX_VALUE;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, counters[index(hash, seed)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int seed) {
+            int h = hash * seed;
+            h ^= h >>> 16;
+            return h & mask;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.quodex.Invizo.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Version counters for read endpoints that clients poll, used as ETags.
+ *
+ * Writers bump a family's version after their change is visible to readers; readers take
+ * the version before loading data. A response can therefore only ever be tagged with a version
+ * that is older than its data, so a client never keeps stale data under a current tag.
+ *
+ * Tags include the startup time, so a restart never produces a false 304.
+ */
+@Component
+public class ResourceVersions {
+
+    public enum Family {
+        DASHBOARD, CATEGORIES, ITEMS
+    }
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Family, AtomicLong> versions = new EnumMap<>(Family.class);
+    private final Map<Family, LongAdder> notModified = new EnumMap<>(Family.class);
+    private final Map<Family, LongAdder> served = new EnumMap<>(Family.class);
+
+    public ResourceVersions() {
+        for (Family family : Family.values()) {
+            versions.put(family, new AtomicLong());
+            notModified.put(family, new LongAdder());
+            served.put(family, new LongAdder());
+        }
+    }
+
+    public void bump(Family... families) {
+        for (Family family : families) {
+            versions.get(family).incrementAndGet();
+        }
+    }
+
+    // Raw counter, for in-memory followers that only need to know whether something changed
+    public long version(Family family) {
+        return versions.get(family).get();
+    }
+
+    public String etag(Family family) {
+        return "\"" + family.name().toLowerCase() + "-" + epoch + "-" + versions.get(family).get() + "\"";
+    }
+
+    /**
+     * Sets the ETag on the response and checks If-None-Match against it.
+     * @return true if the client's copy is current; the response is then already a 304
+     */
+    public boolean checkNotModified(Family family, WebRequest request) {
+        return checkNotModified(family, etag(family), request);
+    }
+
+    /**
+     * Same, for a body that was built earlier under the given ETag (e.g. a cached snapshot).
+     */
+    public boolean checkNotModified(Family family, String etag, WebRequest request) {
+        if (request.checkNotModified(etag)) {
+            notModified.get(family).increment();
+            return true;
+        }
+        served.get(family).increment();
+        return false;
+    }
+
+    // Per family: current version, 304s, full responses and the share of requests answered with a 304
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (Family family : Family.values()) {
+            long hits = notModified.get(family).sum();
+            long misses = served.get(family).sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("version", versions.get(family).get());
+            entry.put("notModified", hits);
+            entry.put("served", misses);
+            entry.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            stats.put(family.name().toLowerCase(), entry);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,10 @@
+package com.quodex.Invizo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled jobs (dashboard reconciliation, background aggregation, ...)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
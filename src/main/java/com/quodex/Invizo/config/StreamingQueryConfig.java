@@ -0,0 +1,29 @@
+package com.quodex.Invizo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// MySQL Connector/J ignores the fetch size and buffers a whole result set unless cursor fetch is on.
+// With it, the streaming scans in OrderRepository (HINT_FETCH_SIZE) really read that many rows per
+// round trip, and other statements can still run on the connection while a stream is open.
+// Queries without a fetch size are unaffected.
+@Configuration
+public class StreamingQueryConfig {
+
+    @Bean
+    public static BeanPostProcessor mysqlCursorFetch() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && dataSource.getJdbcUrl() != null
+                        && dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+                    dataSource.addDataSourceProperty("useCursorFetch", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
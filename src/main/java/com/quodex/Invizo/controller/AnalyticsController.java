@@ -0,0 +1,33 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.AnalyticsResponse;
+import com.quodex.Invizo.service.AnalyticsService;
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+// Only present when the in-memory analytics engine is enabled (invizo.analytics.enabled=true)
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/analytics")
+@ConditionalOnProperty(name = "invizo.analytics.enabled", havingValue = "true")
+public class AnalyticsController {
+    private final AnalyticsService analyticsService;
+
+    // e.g. /admin/analytics/orders?from=2025-01-01&to=2025-03-31&groupBy=hour_of_week&paymentMethod=UPI
+    // groupBy: none, hour_of_day, day_of_week, hour_of_week, day, payment_method, item
+    @GetMapping("/orders")
+    public AnalyticsResponse queryOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<PaymentMethod> paymentMethod,
+            @RequestParam(required = false) String itemId,
+            @RequestParam(required = false) String groupBy){
+        return analyticsService.query(from, to, paymentMethod, itemId, groupBy);
+    }
+}
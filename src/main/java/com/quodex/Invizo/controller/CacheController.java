@@ -0,0 +1,46 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.cache.CatalogCache;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.service.BarcodeLookupService;
+import com.quodex.Invizo.service.CatalogSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/caches")
+public class CacheController {
+    private final ResourceVersions resourceVersions;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final BarcodeLookupService barcodeLookupService;
+    private final CatalogCache catalogCache;
+
+    // ETag versions and 304 hit ratios for /dashboard, /categories and /items
+    @GetMapping("/etags")
+    public Map<String, Map<String, Object>> getEtagStats(){
+        return resourceVersions.getStats();
+    }
+
+    // Pre-serialized /items and /categories bodies: version, sizes and rebuild count
+    @GetMapping("/catalog")
+    public Map<String, Map<String, Object>> getCatalogStats(){
+        return catalogSnapshotService.getStats();
+    }
+
+    // In-memory barcode and SKU maps behind /items/by-barcode
+    @GetMapping("/barcodes")
+    public Map<String, Object> getBarcodeStats(){
+        return barcodeLookupService.getStats();
+    }
+
+    // Read-through caches behind /items/{itemId}, /categories/{categoryId} and adding items
+    @GetMapping("/lookups")
+    public Map<String, Map<String, Object>> getLookupStats(){
+        return catalogCache.getStats();
+    }
+}
@@ -0,0 +1,50 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.io.ParkCartRequest;
+import com.quodex.Invizo.io.ParkedCartResponse;
+import com.quodex.Invizo.service.ParkedCartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/carts")
+public class CartController {
+    private final ParkedCartService parkedCartService;
+
+    // Terminals identify themselves with this header; carts are listed per user and terminal
+    private static final String TERMINAL_HEADER = "X-Terminal-Id";
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ParkedCartResponse parkCart(@RequestHeader(value = TERMINAL_HEADER, defaultValue = "default") String terminalId,
+                                       @RequestBody ParkCartRequest request){
+        return parkedCartService.parkCart(terminalId, request);
+    }
+
+    @GetMapping
+    public List<ParkedCartResponse> getParkedCarts(@RequestHeader(value = TERMINAL_HEADER, defaultValue = "default") String terminalId){
+        return parkedCartService.getParkedCarts(terminalId);
+    }
+
+    @GetMapping("/{cartId}")
+    public ParkedCartResponse getParkedCart(@PathVariable String cartId){
+        return parkedCartService.getParkedCart(cartId);
+    }
+
+    @PostMapping("/{cartId}/resume")
+    @ResponseStatus(HttpStatus.CREATED)
+    public OrderResponse resumeCart(@PathVariable String cartId){
+        return parkedCartService.resumeCart(cartId);
+    }
+
+    @DeleteMapping("/{cartId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void discardCart(@PathVariable String cartId){
+        parkedCartService.discardCart(cartId);
+    }
+}
@@ -0,0 +1,21 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.CatalogChangesResponse;
+import com.quodex.Invizo.service.CatalogChangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class CatalogChangeController {
+    private final CatalogChangeService catalogChangeService;
+
+    // Items and categories changed after the given sequence number; since=0 returns the whole catalog
+    @GetMapping("/catalog/changes")
+    public CatalogChangesResponse getChanges(@RequestParam(defaultValue = "0") long since,
+                                             @RequestParam(defaultValue = "500") int limit){
+        return catalogChangeService.getChanges(since, limit);
+    }
+}
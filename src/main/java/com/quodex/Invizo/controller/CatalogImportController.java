@@ -0,0 +1,38 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.CatalogImportResponse;
+import com.quodex.Invizo.service.CatalogImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/catalog/import")
+public class CatalogImportController {
+    private final CatalogImportService catalogImportService;
+
+    /**
+     * Starts a bulk import of items from a CSV, with an optional zip of their images.
+     * Returns at once; poll GET /admin/catalog/import/{importId} for progress and row errors.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public CatalogImportResponse startImport(@RequestPart("file") MultipartFile file,
+                                             @RequestPart(value = "images", required = false) MultipartFile images){
+        return catalogImportService.startImport(file, images);
+    }
+
+    @GetMapping("/{importId}")
+    public CatalogImportResponse getImport(@PathVariable String importId){
+        return catalogImportService.getImport(importId);
+    }
+
+    @GetMapping
+    public List<CatalogImportResponse> getImports(){
+        return catalogImportService.getImports();
+    }
+}
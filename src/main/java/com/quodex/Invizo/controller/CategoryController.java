@@ -2,22 +2,28 @@ package com.quodex.Invizo.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quodex.Invizo.cache.CatalogSnapshot;
+import com.quodex.Invizo.cache.ResourceVersions;
 import com.quodex.Invizo.io.CategoryRequest;
 import com.quodex.Invizo.io.CategoryResponse;
+import com.quodex.Invizo.service.CatalogSnapshotService;
 import com.quodex.Invizo.service.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-
 @RestController
 @RequiredArgsConstructor
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ResourceVersions resourceVersions;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     /**
      * API endpoint to add a new category along with an image file.
@@ -55,8 +61,14 @@ public class CategoryController {
 
 
     @GetMapping("/categories")
-    public List<CategoryResponse> getCategories(){
-        return categoryService.getCategories();
+    public ResponseEntity<byte[]> getCategories(WebRequest request){
+        // Pre-serialized categories; rebuilt only when an admin changed them
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot(ResourceVersions.Family.CATEGORIES);
+        // Unchanged since the client's copy: 304 with no body at all
+        if (resourceVersions.checkNotModified(ResourceVersions.Family.CATEGORIES, snapshot.etag(), request)) {
+            return null;
+        }
+        return snapshot.toResponse(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
     }
 
     @GetMapping("/admin/categories/{categoryId}")
@@ -0,0 +1,20 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.CustomerOrderSummary;
+import com.quodex.Invizo.service.CustomerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/customers")
+public class CustomerController {
+    private final CustomerService customerService;
+
+    @GetMapping("/{mobile}/orders")
+    public List<CustomerOrderSummary> getCustomerOrders(@PathVariable String mobile){
+        return customerService.getRecentOrders(mobile);
+    }
+}
@@ -1,35 +1,84 @@
 package com.quodex.Invizo.controller;
 
+import com.quodex.Invizo.cache.ResourceVersions;
 import com.quodex.Invizo.io.DashboardResponse;
-import com.quodex.Invizo.io.OrderResponse;
-import com.quodex.Invizo.repository.OrderRepository;
-import com.quodex.Invizo.service.OrderService;
+import com.quodex.Invizo.io.SalesSeriesResponse;
+import com.quodex.Invizo.io.StreamTokenResponse;
+import com.quodex.Invizo.io.TopItemsResponse;
+import com.quodex.Invizo.jwt.JwtUtil;
+import com.quodex.Invizo.service.DashboardService;
+import com.quodex.Invizo.service.DashboardStreamService;
+import com.quodex.Invizo.service.SalesSeriesService;
+import com.quodex.Invizo.service.TopItemsService;
+import com.quodex.Invizo.util.CurrentUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
-import java.util.List;
 
 @RestController
 @RequestMapping("/dashboard")
 @RequiredArgsConstructor
 public class DashboardController {
 
-    private final OrderService orderService;
+    private final DashboardService dashboardService;
+    private final SalesSeriesService salesSeriesService;
+    private final TopItemsService topItemsService;
+    private final DashboardStreamService dashboardStreamService;
+    private final ResourceVersions resourceVersions;
+    private final JwtUtil jwtUtil;
 
+    // Served from in-memory aggregates; see DashboardServiceImpl
     @GetMapping
-    public DashboardResponse getDashboardData() {
-        LocalDate today = LocalDate.now();
-        Double todaySale = orderService.sumSalesByDate(today);
-        Long todayOrderCount = orderService.countByOrderDate(today);
-        List<OrderResponse> recentOrders =  orderService.findRecentOrders();
-        return new DashboardResponse(
-                todaySale != null ? todaySale:0.0,
-                todayOrderCount != null ? todayOrderCount: 0,
-                recentOrders
-        );
+    public DashboardResponse getDashboardData(WebRequest request) {
+        if (resourceVersions.checkNotModified(ResourceVersions.Family.DASHBOARD, request)) {
+            return null;
+        }
+        return dashboardService.getDashboard();
+    }
+
+    // Server-Sent Events: a SNAPSHOT first, then one delta per order change.
+    // Browsers connect with new EventSource("/dashboard/stream?token=" + streamToken)
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return dashboardStreamService.subscribe();
+    }
+
+    // A short-lived token for the stream URL; fetch a new one before each (re)connect
+    @PostMapping("/stream-token")
+    public StreamTokenResponse createStreamToken() {
+        return new StreamTokenResponse(jwtUtil.generateStreamToken(CurrentUser.email()), jwtUtil.getStreamExpiration() / 1000);
+    }
+
+    // Bucketed sales, e.g. /dashboard/series?from=2025-01-01&to=2025-12-31&bucket=day&groupBy=paymentMethod
+    @GetMapping("/series")
+    public SalesSeriesResponse getSeries(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(defaultValue = "day") String bucket,
+                                         @RequestParam(required = false) String groupBy) {
+        return salesSeriesService.getSeries(from, to, bucket, groupBy);
+    }
+
+    // Approximate best sellers (period = today | week) from the in-memory sketches
+    @GetMapping("/top-items")
+    public TopItemsResponse getTopItems(@RequestParam(defaultValue = "today") String period,
+                                        @RequestParam(defaultValue = "10") int limit) {
+        return topItemsService.getTopItems(period, limit);
+    }
+
+    // Same board computed exactly from the orders table, to check the sketch's accuracy
+    @GetMapping("/top-items/exact")
+    public TopItemsResponse getExactTopItems(@RequestParam(defaultValue = "today") String period,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        return topItemsService.getExactTopItems(period, limit);
     }
 
 }
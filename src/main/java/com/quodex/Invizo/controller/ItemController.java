@@ -2,12 +2,24 @@ package com.quodex.Invizo.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quodex.Invizo.cache.CatalogSnapshot;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.io.ItemCodesRequest;
 import com.quodex.Invizo.io.ItemRequest;
 import com.quodex.Invizo.io.ItemResponse;
+import com.quodex.Invizo.io.ItemSearchResponse;
+import com.quodex.Invizo.io.RelatedItemResponse;
+import com.quodex.Invizo.service.BarcodeLookupService;
+import com.quodex.Invizo.service.CatalogSnapshotService;
+import com.quodex.Invizo.service.ItemSearchService;
 import com.quodex.Invizo.service.ItemService;
+import com.quodex.Invizo.service.RelatedItemsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -18,6 +30,11 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ResourceVersions resourceVersions;
+    private final RelatedItemsService relatedItemsService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ItemSearchService itemSearchService;
+    private final BarcodeLookupService barcodeLookupService;
 
 
     @PostMapping("/admin/items")
@@ -41,8 +58,32 @@ public class ItemController {
     }
 
     @GetMapping("/items")
-    public List<ItemResponse> getItems(){
-        return itemService.getItems();
+    public ResponseEntity<byte[]> getItems(WebRequest request){
+        // Pre-serialized catalog; rebuilt only when an admin changed it
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot(ResourceVersions.Family.ITEMS);
+        // Unchanged since the client's copy: 304 with no body at all
+        if (resourceVersions.checkNotModified(ResourceVersions.Family.ITEMS, snapshot.etag(), request)) {
+            return null;
+        }
+        return snapshot.toResponse(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    // Search-as-you-type by name, category and description; tolerates typos, best match first
+    @GetMapping("/items/search")
+    public ItemSearchResponse searchItems(@RequestParam String q,
+                                          @RequestParam(defaultValue = "10") int limit){
+        return itemSearchService.search(q, limit);
+    }
+
+    // Scanner lookup by barcode (EAN/UPC/custom) or SKU
+    @GetMapping("/items/by-barcode/{code}")
+    public ItemResponse getItemByBarcode(@PathVariable String code){
+        return barcodeLookupService.findByBarcode(code);
+    }
+
+    @PutMapping("/admin/items/{itemId}/codes")
+    public ItemResponse updateItemCodes(@PathVariable String itemId, @RequestBody ItemCodesRequest request){
+        return itemService.updateCodes(itemId, request);
     }
 
     @GetMapping("items/{itemId}")
@@ -50,6 +91,13 @@ public class ItemController {
         return itemService.getItemById(itemId);
     }
 
+    // "Customers also buy" suggestions for the cart, strongest first
+    @GetMapping("/items/{itemId}/related")
+    public List<RelatedItemResponse> getRelatedItems(@PathVariable String itemId,
+                                                     @RequestParam(defaultValue = "5") int limit){
+        return relatedItemsService.getRelatedItems(itemId, limit);
+    }
+
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/admin/item/{itemId}")
     public void deleteItemById(@PathVariable String itemId){
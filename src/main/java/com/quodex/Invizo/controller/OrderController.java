@@ -28,6 +28,12 @@ public class OrderController {
         orderService.deleteOrder(orderId);
     }
 
+    // Single order, e.g. for reprinting a receipt
+    @GetMapping("/{orderId}")
+    public OrderResponse getOrder(@PathVariable String orderId){
+        return orderService.getOrder(orderId);
+    }
+
     @GetMapping("/latest")
     public List<OrderResponse> getLatestOrders(){
         return orderService.getLatestOrders();
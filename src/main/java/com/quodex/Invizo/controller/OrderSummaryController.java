@@ -0,0 +1,46 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.OrderSummaryResponse;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.service.OrderSummaryService;
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderSummaryController {
+    private final OrderSummaryService orderSummaryService;
+
+    // Order list screen; defaults to today's orders
+    @GetMapping("/orders/summaries")
+    public List<OrderSummaryResponse> listOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            @RequestParam(required = false) PaymentDetails.PaymentStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size){
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start;
+        return orderSummaryService.listOrders(start, end, paymentMethod, status, page, size);
+    }
+
+    // Search by customer mobile number or order ID
+    @GetMapping("/orders/summaries/search")
+    public List<OrderSummaryResponse> searchOrders(@RequestParam String q,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "50") int size){
+        return orderSummaryService.searchOrders(q, page, size);
+    }
+
+    @PostMapping("/admin/order-summaries/rebuild")
+    public Map<String, Long> rebuild(){
+        return Map.of("rebuilt", orderSummaryService.rebuild());
+    }
+}
@@ -0,0 +1,28 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.RefundRequest;
+import com.quodex.Invizo.io.RefundResponse;
+import com.quodex.Invizo.service.RefundService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/orders/{orderId}/refunds")
+public class RefundController {
+    private final RefundService refundService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public RefundResponse createRefund(@PathVariable String orderId, @RequestBody RefundRequest request){
+        return refundService.createRefund(orderId, request);
+    }
+
+    @GetMapping
+    public List<RefundResponse> getRefunds(@PathVariable String orderId){
+        return refundService.getRefunds(orderId);
+    }
+}
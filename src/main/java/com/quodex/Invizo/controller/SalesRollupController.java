@@ -0,0 +1,42 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.entity.SalesRollupEntity;
+import com.quodex.Invizo.io.SalesRollupResponse;
+import com.quodex.Invizo.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/rollups")
+public class SalesRollupController {
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/daily")
+    public List<SalesRollupResponse> getDailyRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "TOTAL") SalesRollupEntity.Dimension dimension){
+        return salesRollupService.getDailyRollups(from, to, dimension);
+    }
+
+    @GetMapping("/hourly")
+    public List<SalesRollupResponse> getHourlyRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "TOTAL") SalesRollupEntity.Dimension dimension){
+        return salesRollupService.getHourlyRollups(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), dimension);
+    }
+
+    // Idempotent re-aggregation of a date range, e.g. after correcting old orders
+    @PostMapping("/reaggregate")
+    public Map<String, Integer> reaggregate(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return Map.of("hours", salesRollupService.reaggregate(from, to));
+    }
+}
@@ -0,0 +1,50 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.ShiftRequest;
+import com.quodex.Invizo.io.ShiftResponse;
+import com.quodex.Invizo.service.ShiftService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class ShiftController {
+    private final ShiftService shiftService;
+
+    // Opens a shift for the logged-in cashier, e.g. {"openingCash": 2000}
+    @PostMapping("/shifts/open")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ShiftResponse openShift(@RequestBody(required = false) ShiftRequest request){
+        return shiftService.openShift(request);
+    }
+
+    // Closes the logged-in cashier's shift, e.g. {"countedCash": 8450}
+    @PostMapping("/shifts/close")
+    public ShiftResponse closeShift(@RequestBody(required = false) ShiftRequest request){
+        return shiftService.closeCurrentShift(request);
+    }
+
+    @GetMapping("/shifts/current")
+    public ShiftResponse getCurrentShift(){
+        return shiftService.getCurrentShift();
+    }
+
+    @GetMapping("/admin/shifts/open")
+    public List<ShiftResponse> getOpenShifts(){
+        return shiftService.getOpenShifts();
+    }
+
+    @GetMapping("/admin/shifts/{shiftId}")
+    public ShiftResponse getShift(@PathVariable String shiftId){
+        return shiftService.getShift(shiftId);
+    }
+
+    // For shifts a cashier forgot to close
+    @PostMapping("/admin/shifts/{shiftId}/close")
+    public ShiftResponse closeShift(@PathVariable String shiftId, @RequestBody(required = false) ShiftRequest request){
+        return shiftService.closeShift(shiftId, request);
+    }
+}
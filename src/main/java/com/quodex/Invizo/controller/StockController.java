@@ -0,0 +1,38 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.StockRequest;
+import com.quodex.Invizo.io.StockResponse;
+import com.quodex.Invizo.service.StockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class StockController {
+    private final StockService stockService;
+
+    @GetMapping("/items/{itemId}/stock")
+    public StockResponse getStock(@PathVariable String itemId){
+        return stockService.getStock(itemId);
+    }
+
+    // Stock take: sets the counted units on hand and the low-stock threshold
+    @PutMapping("/admin/items/{itemId}/stock")
+    public StockResponse setStock(@PathVariable String itemId, @RequestBody StockRequest request){
+        return stockService.setStock(itemId, request);
+    }
+
+    // Tracked items at or below their low-stock threshold
+    @GetMapping("/admin/stock/low")
+    public List<StockResponse> getLowStock(){
+        return stockService.getLowStock();
+    }
+
+    // Items currently sold from an in-memory allotment
+    @GetMapping("/admin/stock/hot")
+    public List<StockResponse> getHotItems(){
+        return stockService.getHotItems();
+    }
+}
@@ -0,0 +1,32 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.UniqueCustomersResponse;
+import com.quodex.Invizo.service.UniqueCustomerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class UniqueCustomerController {
+    private final UniqueCustomerService uniqueCustomerService;
+
+    // Approximate distinct customers, e.g. /customers/unique?from=2025-01-01&to=2025-06-30&bucket=month
+    @GetMapping("/customers/unique")
+    public UniqueCustomersResponse countUniqueCustomers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket){
+        return uniqueCustomerService.countUniqueCustomers(from, to, bucket);
+    }
+
+    // Recomputes the daily sketches from the orders table, e.g. to backfill older days
+    @PostMapping("/admin/customers/unique/rebuild")
+    public Map<String, Integer> rebuild(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to){
+        return Map.of("days", uniqueCustomerService.rebuild(from, to));
+    }
+}
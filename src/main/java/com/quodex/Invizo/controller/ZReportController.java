@@ -0,0 +1,36 @@
+package com.quodex.Invizo.controller;
+
+import com.quodex.Invizo.io.ZReportResponse;
+import com.quodex.Invizo.service.ZReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/reports/z")
+public class ZReportController {
+    private final ZReportService zReportService;
+
+    // Closes the current period now instead of waiting for the scheduled closing time
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ZReportResponse generate(){
+        return zReportService.generate();
+    }
+
+    @GetMapping("/{reportNumber}")
+    public ZReportResponse getReport(@PathVariable Long reportNumber){
+        return zReportService.getReport(reportNumber);
+    }
+
+    // Reports closed on a day, e.g. /admin/reports/z?date=2025-06-30
+    @GetMapping
+    public List<ZReportResponse> getReports(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date){
+        return zReportService.getReports(date);
+    }
+}
@@ -0,0 +1,46 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// The latest change to one item or category; the id is the catalog change sequence number
+@Entity
+@Table(name = "catalog_changes", indexes = @Index(name = "idx_catalog_changes_entity", columnList = "entity_type, entity_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChangeEntity {
+
+    public enum EntityType {
+        ITEM, CATEGORY
+    }
+
+    public enum ChangeType {
+        UPSERT, DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+    // itemId or categoryId
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeType changeType;
+    private LocalDateTime changedAt;
+
+    @PrePersist
+    protected void onCreate(){
+        this.changedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One HyperLogLog sketch of the distinct customers (mobile numbers) seen on a day
+@Entity
+@Table(name = "customer_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerSketchEntity {
+    @Id
+    @Column(name = "sketch_day")
+    private LocalDate day;
+    // Packed HyperLogLog registers, see HyperLogLog.toBytes()
+    @Column(nullable = false, length = 6144)
+    private byte[] registers;
+    private LocalDateTime updatedAt;
+}
@@ -6,12 +6,16 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "items")
@@ -34,6 +38,24 @@ public class ItemEntity {
    @UpdateTimestamp
    private Timestamp updatedAt;
    private String imgUrl;
+   // Units on hand; null when the item's stock is not tracked. Only changed with conditional updates
+   // (ItemRepository); saving the entity must never write back a stale level over a sale
+   @Column(updatable = false)
+   private Integer stockOnHand;
+   // Stock at or below this level is reported as low; set with the stock take, like stockOnHand
+   @Column(updatable = false)
+   private Integer lowStockThreshold;
+   // Stock keeping unit, normalized by Barcodes.normalizeSku
+   @Column(unique = true)
+   private String sku;
+   // EAN/UPC/custom codes, normalized by Barcodes.normalize; a code belongs to one item only
+   @ElementCollection(fetch = FetchType.EAGER)
+   @Fetch(FetchMode.SUBSELECT)
+   @CollectionTable(name = "item_barcodes", joinColumns = @JoinColumn(name = "item_id"),
+           uniqueConstraints = @UniqueConstraint(name = "uk_item_barcodes_code", columnNames = "code"))
+   @Column(name = "code", nullable = false, length = 64)
+   @Builder.Default
+   private Set<String> barcodes = new LinkedHashSet<>();
    @ManyToOne()
    @JoinColumn(name = "category_id", nullable = false)
    @OnDelete(action = OnDeleteAction.RESTRICT)
@@ -1,6 +1,8 @@
 package com.quodex.Invizo.entity;
 
 import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.util.DocumentNumbers;
+import com.quodex.Invizo.util.MobileNumbers;
 import com.quodex.Invizo.util.PaymentMethod;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -13,7 +15,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created", columnList = "created_at"),
+        @Index(name = "idx_orders_mobile_created", columnList = "mobile_number, created_at"),
+        @Index(name = "idx_orders_shift", columnList = "shift_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,12 +28,15 @@ public class OrderEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Column(unique = true, nullable = false, updatable = false)
     private String orderId;
     private String customerName;
     private String mobileNumber;
     private Double subtotal;
     private Double tax;
     private Double grandTotal;
+    // Running total of refunds issued against this order, adjusted by each refund
+    private Double refundedAmount;
     private LocalDateTime createdAt;
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "order_id")
@@ -36,11 +45,22 @@ public class OrderEntity {
     private PaymentDetails paymentDetails;
     @Enumerated(EnumType.STRING)
     private PaymentMethod paymentMethod;
+    // Email of the user who rang up the order, and the shift it belongs to (null if none was open)
+    @Column(updatable = false)
+    private String createdBy;
+    @Column(name = "shift_id", updatable = false)
+    private String shiftId;
 
 
     @PrePersist
     protected void onCreate(){
-        this.orderId = "ORD"+System.currentTimeMillis();
+        this.orderId = DocumentNumbers.next("ORD");
         this.createdAt = LocalDateTime.now();
+        this.mobileNumber = MobileNumbers.normalize(this.mobileNumber);
+    }
+
+    @PreUpdate
+    protected void onUpdate(){
+        this.mobileNumber = MobileNumbers.normalize(this.mobileNumber);
     }
 }
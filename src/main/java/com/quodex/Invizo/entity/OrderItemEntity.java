@@ -23,4 +23,5 @@ public class OrderItemEntity {
     private String name;
     private Double price;
     private Integer quantity;
+    private Integer refundedQuantity;
 }
@@ -0,0 +1,42 @@
+package com.quodex.Invizo.entity;
+
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.util.PaymentMethod;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Denormalized, one-row-per-order read model used by list, search and dashboard screens
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_created", columnList = "created_at"),
+        @Index(name = "idx_order_summary_method_created", columnList = "payment_method, created_at"),
+        @Index(name = "idx_order_summary_mobile_created", columnList = "mobile_number, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryEntity {
+    @Id
+    private String orderId;
+    private String customerName;
+    @Column(name = "mobile_number")
+    private String mobileNumber;
+    private Integer itemCount;
+    private Double subtotal;
+    private Double tax;
+    private Double grandTotal;
+    private Double refundedAmount;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method")
+    private PaymentMethod paymentMethod;
+    @Enumerated(EnumType.STRING)
+    private PaymentDetails.PaymentStatus paymentStatus;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
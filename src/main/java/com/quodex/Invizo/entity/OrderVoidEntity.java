@@ -0,0 +1,38 @@
+package com.quodex.Invizo.entity;
+
+import com.quodex.Invizo.util.PaymentMethod;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// What is left of a deleted (voided) order, so closing reports can still account for it
+@Entity
+@Table(name = "order_voids", indexes = @Index(name = "idx_order_voids_voided", columnList = "voided_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderVoidEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private String orderId;
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod paymentMethod;
+    // Orders with refunds cannot be voided, so this is the whole amount taken back
+    private Double grandTotal;
+    private LocalDateTime orderCreatedAt;
+    private String voidedBy;
+    @Column(name = "voided_at")
+    private LocalDateTime voidedAt;
+
+    @PrePersist
+    protected void onCreate(){
+        this.voidedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,34 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Parked carts that were spilled out of the in-memory store (evicted or on shutdown)
+@Entity
+@Table(name = "parked_carts", indexes = @Index(name = "idx_parked_carts_user_terminal", columnList = "user_email, terminal_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkedCartEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(unique = true, nullable = false)
+    private String cartId;
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+    @Column(name = "terminal_id", nullable = false)
+    private String terminalId;
+    private String label;
+    // The cart (an OrderRequest) serialized as JSON
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    private LocalDateTime parkedAt;
+}
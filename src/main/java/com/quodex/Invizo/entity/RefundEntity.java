@@ -0,0 +1,58 @@
+package com.quodex.Invizo.entity;
+
+import com.quodex.Invizo.util.DocumentNumbers;
+import com.quodex.Invizo.util.PaymentMethod;
+import com.quodex.Invizo.util.RefundStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "refunds", indexes = {
+        @Index(name = "idx_refunds_shift", columnList = "shift_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(unique = true, nullable = false)
+    private String refundId;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_ref", nullable = false)
+    private OrderEntity order;
+    private Double amount;
+    private String reason;
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod paymentMethod;
+    private String razorpayRefundId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RefundStatus status;
+    // Razorpay calls that failed so far while PENDING
+    private Integer attempts;
+    // Email of the user who issued the refund, and the shift whose drawer paid it out
+    private String createdBy;
+    @Column(name = "shift_id")
+    private String shiftId;
+    private LocalDateTime createdAt;
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "refund_id")
+    @Builder.Default
+    private List<RefundItemEntity> items = new ArrayList<>();
+
+    @PrePersist
+    protected void onCreate(){
+        this.refundId = DocumentNumbers.next("REF");
+        this.createdAt = LocalDateTime.now();
+    }
+}
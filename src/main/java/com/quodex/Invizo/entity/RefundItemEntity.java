@@ -0,0 +1,26 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "refund_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundItemEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_item_id", nullable = false)
+    private OrderItemEntity orderItem;
+    private String itemId;
+    private String name;
+    private Double price;
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// How far (by orders.created_at) a background aggregator has processed
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupWatermarkEntity {
+    @Id
+    private String name;
+    private LocalDateTime watermark;
+}
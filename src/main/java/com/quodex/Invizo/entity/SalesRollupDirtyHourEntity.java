@@ -0,0 +1,24 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// An hour bucket whose orders were refunded or voided after it was aggregated; re-aggregated on the next run
+@Entity
+@Table(name = "sales_rollup_dirty_hours")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollupDirtyHourEntity {
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+    // Last time the hour was marked; a run only clears the mark it read
+    private LocalDateTime markedAt;
+}
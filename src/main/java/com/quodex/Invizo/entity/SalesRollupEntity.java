@@ -0,0 +1,50 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pre-aggregated sales for one hour or one day, broken down by a single dimension
+@Entity
+@Table(name = "sales_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollups_bucket",
+                columnNames = {"grain", "bucket_start", "dimension", "dimension_key"}),
+        indexes = @Index(name = "idx_sales_rollups_lookup", columnList = "grain, dimension, bucket_start"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollupEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Grain grain;
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Dimension dimension;
+    // Payment method name, categoryId or itemId; empty for TOTAL
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+    private String dimensionLabel;
+    private Long orderCount;
+    private Long quantity;
+    // For TOTAL / PAYMENT_METHOD these are bill totals (incl. tax); for CATEGORY / ITEM, line values
+    private Double grossAmount;
+    private Double refundedAmount;
+
+    public enum Grain {
+        HOUR, DAY
+    }
+
+    public enum Dimension {
+        TOTAL, PAYMENT_METHOD, CATEGORY, ITEM
+    }
+}
@@ -0,0 +1,49 @@
+package com.quodex.Invizo.entity;
+
+import com.quodex.Invizo.util.DocumentNumbers;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One cashier's shift; the totals are written when the shift closes (void counters as they happen)
+@Entity
+@Table(name = "shifts", indexes = {
+        @Index(name = "idx_shifts_closed", columnList = "closed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(unique = true, nullable = false, updatable = false)
+    private String shiftId;
+    // Email of the cashier who opened the shift
+    @Column(nullable = false)
+    private String cashier;
+    private LocalDateTime openedAt;
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+    private Double openingCash;
+    // Cash the cashier counted in the drawer at close, if given
+    private Double countedCash;
+    private Long orderCount;
+    private Double cashSales;
+    private Double upiSales;
+    private Double cashRefunds;
+    private Double upiRefunds;
+    private Long voidCount;
+    private Double voidAmount;
+
+    @PrePersist
+    protected void onCreate(){
+        this.shiftId = DocumentNumbers.next("SHF");
+        this.openedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,35 @@
+package com.quodex.Invizo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// A closing (Z) report as it was generated; never updated afterwards
+@Entity
+@Immutable
+@Table(name = "z_reports", indexes = @Index(name = "idx_z_reports_period_to", columnList = "period_to"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ZReportEntity {
+    // Doubles as the Z number printed on the report
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    // Orders created in [periodFrom, periodTo) are covered; the next report starts at periodTo
+    @Column(name = "period_from", nullable = false)
+    private LocalDateTime periodFrom;
+    @Column(name = "period_to", nullable = false)
+    private LocalDateTime periodTo;
+    private LocalDateTime generatedAt;
+    // The full ZReportResponse serialized as JSON
+    @Lob
+    @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
+    private String payload;
+}
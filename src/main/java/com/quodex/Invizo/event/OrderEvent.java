@@ -0,0 +1,29 @@
+package com.quodex.Invizo.event;
+
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.io.RefundResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after every order write so caches and read models can follow along
+ * without the order services knowing about each of them.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderEvent {
+
+    public enum Type {
+        CREATED, PAYMENT_COMPLETED, REFUNDED, DELETED
+    }
+
+    private final Type type;
+    // State of the order after the change (the last known state for DELETED)
+    private final OrderResponse order;
+    // The refund that was just issued; only set for REFUNDED
+    private final RefundResponse refund;
+
+    public OrderEvent(Type type, OrderResponse order) {
+        this(type, order, null);
+    }
+}
@@ -0,0 +1,168 @@
+package com.quodex.Invizo.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stock of one hot item, claimed from the database in blocks and handed out from memory.
+ *
+ * With a plain conditional UPDATE every sale of an item locks the same row until its order
+ * commits, so concurrent tills selling a best seller queue behind each other. An allotment moves
+ * a block of units out of the row in one short transaction of its own, then sells them from a
+ * few independent counters (stripes), each changed with a compare-and-set. A sale normally never
+ * touches the database row; only a refill does, once per block.
+ *
+ * Units are never created: they are only moved between the row and the stripes, so the item can
+ * not be oversold. Units in an allotment are lost if the process dies before giving them back;
+ * stock is then under-counted until the next stock take, never over-counted.
+ */
+public class StripedAllotment {
+
+    // Ints between two stripes, so that each stripe has a cache line of its own
+    private static final int SPACING = 16;
+
+    /**
+     * Where refills come from, e.g. a conditional UPDATE on the item row.
+     */
+    public interface Source {
+        /**
+         * Takes up to wanted units from the backing store.
+         * @return the number of units taken, 0 when there are none left
+         */
+        int claim(int wanted);
+    }
+
+    private final int stripes;
+    private final int block;
+    private final AtomicIntegerArray units;
+    private final Object refillLock = new Object();
+    // Guarded by refillLock
+    private boolean retired;
+
+    /**
+     * @param stripes independent counters; about the number of tills selling at the same moment
+     * @param block   units claimed from the source per refill, on top of what the sale needs
+     */
+    public StripedAllotment(int stripes, int block) {
+        if (stripes <= 0 || block < 0) {
+            throw new IllegalArgumentException("stripes must be positive and block not negative");
+        }
+        this.stripes = stripes;
+        this.block = block;
+        this.units = new AtomicIntegerArray(stripes * SPACING);
+    }
+
+    /**
+     * Takes quantity units, refilling from the source when the stripes run short.
+     * @return false when not enough stock is left, or the allotment was retired
+     */
+    public boolean reserve(int quantity, Source source) {
+        if (quantity <= 0) {
+            return true;
+        }
+        if (takeFromOneStripe(quantity)) {
+            return true;
+        }
+        synchronized (refillLock) {
+            if (retired) {
+                return false;
+            }
+            if (takeAcrossStripes(quantity)) {
+                return true;
+            }
+            int claimed = source.claim(quantity - available() + block);
+            spread(claimed);
+            return takeAcrossStripes(quantity);
+        }
+    }
+
+    /**
+     * Returns units, e.g. of an order that rolled back.
+     * @return false when the allotment was retired; the caller must return them to the source
+     */
+    public boolean giveBack(int quantity) {
+        synchronized (refillLock) {
+            if (retired) {
+                return false;
+            }
+            spread(quantity);
+            return true;
+        }
+    }
+
+    /**
+     * Stops the allotment and empties it.
+     * @return the units it still held, to be returned to the source
+     */
+    public int retire() {
+        synchronized (refillLock) {
+            retired = true;
+            int drained = 0;
+            for (int i = 0; i < stripes; i++) {
+                drained += units.getAndSet(i * SPACING, 0);
+            }
+            return drained;
+        }
+    }
+
+    public boolean isRetired() {
+        synchronized (refillLock) {
+            return retired;
+        }
+    }
+
+    // Units held in memory right now
+    public int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += units.get(i * SPACING);
+        }
+        return total;
+    }
+
+    // Fast path: one stripe, chosen by thread, holds enough
+    private boolean takeFromOneStripe(int quantity) {
+        int start = (int) (Thread.currentThread().threadId() % stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * SPACING;
+            int current;
+            while ((current = units.get(index)) >= quantity) {
+                if (units.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Collects the quantity from several stripes; puts it all back when they hold too little
+    private boolean takeAcrossStripes(int quantity) {
+        int taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            int index = i * SPACING;
+            int current;
+            while ((current = units.get(index)) > 0) {
+                int part = Math.min(current, quantity - taken);
+                if (units.compareAndSet(index, current, current - part)) {
+                    taken += part;
+                    break;
+                }
+            }
+        }
+        if (taken < quantity) {
+            spread(taken);
+            return false;
+        }
+        return true;
+    }
+
+    private void spread(int quantity) {
+        int share = quantity / stripes;
+        int rest = quantity % stripes;
+        for (int i = 0; i < stripes; i++) {
+            int add = share + (i < rest ? 1 : 0);
+            if (add > 0) {
+                units.addAndGet(i * SPACING, add);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsResponse {
+    private String groupBy;
+    private List<AnalyticsRow> rows;
+    // Orders held by the column store, all of which the scan looked at
+    private Integer scannedOrders;
+    private Double elapsedMillis;
+}
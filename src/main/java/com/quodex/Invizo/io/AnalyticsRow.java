@@ -0,0 +1,23 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsRow {
+    private String key;
+    private String label;
+    // Orders (for item grouping: orders containing the item)
+    private Long orders;
+    private Double grossSales;
+    private Double refundedAmount;
+    private Double netSales;
+    // Net sales per order
+    private Double averageBasket;
+    private Long units;
+}
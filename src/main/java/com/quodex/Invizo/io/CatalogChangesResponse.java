@@ -0,0 +1,28 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChangesResponse {
+    private Long since;
+    // Pass this as since on the next sync
+    private Long sequence;
+    // More changes are waiting; sync again right away with the new sequence
+    private Boolean hasMore;
+    // The terminal's sequence is unknown to the server (e.g. ahead of it): reload the full catalog
+    private Boolean resetRequired;
+    // Current state of items and categories added or changed since then
+    private List<ItemResponse> items;
+    private List<CategoryResponse> categories;
+    // Tombstones: remove these from the local cache
+    private List<String> deletedItemIds;
+    private List<String> deletedCategoryIds;
+}
@@ -0,0 +1,17 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportError {
+    // Row in the CSV as a spreadsheet shows it; the header is row 1
+    private Long row;
+    private String name;
+    private String message;
+}
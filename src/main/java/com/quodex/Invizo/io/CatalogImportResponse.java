@@ -0,0 +1,34 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportResponse {
+    private String importId;
+    // QUEUED, RUNNING, COMPLETED or FAILED
+    private String status;
+    private String fileName;
+    // Share of the CSV read so far, 0 to 1
+    private Double progress;
+    private Long rowsRead;
+    private Long imported;
+    private Long failed;
+    private Long imagesUploaded;
+    // Why the whole import stopped, when it did
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // Rows that were not imported and why; only the first ones when there are very many
+    private List<CatalogImportError> errors;
+    private Boolean errorsTruncated;
+}
@@ -0,0 +1,24 @@
+package com.quodex.Invizo.io;
+
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerOrderSummary {
+    private String orderId;
+    private String customerName;
+    private LocalDateTime createdAt;
+    private Double grandTotal;
+    private Double refundedAmount;
+    private PaymentMethod paymentMethod;
+    private PaymentDetails.PaymentStatus paymentStatus;
+    private Integer itemCount;
+}
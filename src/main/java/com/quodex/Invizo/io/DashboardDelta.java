@@ -0,0 +1,43 @@
+package com.quodex.Invizo.io;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One message on the dashboard event stream; fields that do not apply to a type are left out
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDelta {
+
+    public enum Type {
+        // Full dashboard state; sent first and whenever a slow client has missed deltas
+        SNAPSHOT,
+        ORDER_CREATED,
+        PAYMENT_COMPLETED,
+        ORDER_REFUNDED,
+        ORDER_VOIDED
+    }
+
+    private Type type;
+    // Increases with every delta; a gap means the client should expect a SNAPSHOT
+    private Long sequence;
+    private String orderId;
+    private String customerName;
+    private Double grandTotal;
+    private Double refundedAmount;
+    private PaymentMethod paymentMethod;
+    private PaymentDetails.PaymentStatus paymentStatus;
+    private LocalDateTime createdAt;
+    // Today's figures after the change
+    private Double todaySales;
+    private Long todayOrderCount;
+    private DashboardResponse snapshot;
+}
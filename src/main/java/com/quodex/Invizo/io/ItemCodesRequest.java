@@ -0,0 +1,19 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemCodesRequest {
+    // Replaces the item's SKU; null or blank removes it
+    private String sku;
+    // Replaces all of the item's barcodes
+    private List<String> barcodes;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Builder
 @Data
@@ -16,4 +17,6 @@ public class ItemRequest {
     private String description;
     private BigDecimal price;
     private String categoryId;
+    private String sku;
+    private List<String> barcodes;
 }
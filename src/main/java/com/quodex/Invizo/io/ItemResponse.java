@@ -2,6 +2,7 @@ package com.quodex.Invizo.io;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,8 @@ public class ItemResponse {
     private String imgUrl;
     private String categoryId;
     private String categoryName;
+    private String sku;
+    private List<String> barcodes;
     private Timestamp createdAt;
     private Timestamp updatedAt;
 }
@@ -0,0 +1,20 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemSearchResponse {
+    private String query;
+    // Matching items in total; items holds the best of them, best first
+    private Integer total;
+    private List<ItemResponse> items;
+    private Double elapsedMillis;
+}
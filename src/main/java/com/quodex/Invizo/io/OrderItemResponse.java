@@ -14,4 +14,5 @@ public class OrderItemResponse {
     private String name;
     private Double price;
     private Integer quantity;
+    private Integer refundedQuantity;
 }
@@ -13,7 +13,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class OrderResponse {
     private String orderId;
     private String customerName;
@@ -22,9 +22,14 @@ public class OrderResponse {
     private Double subtotal;
     private Double tax;
     private Double grandTotal;
+    private Double refundedAmount;
     private PaymentMethod paymentMethod;
     private LocalDateTime createdAt;
     private PaymentDetails paymentDetails;
+    private String createdBy;
+    private String shiftId;
+    // Items whose stock ran low with this sale; only set on the response to createOrder
+    private List<StockResponse> lowStock;
 
 
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.quodex.Invizo.io;
+
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryResponse {
+    private String orderId;
+    private String customerName;
+    private String mobileNumber;
+    private Integer itemCount;
+    private Double subtotal;
+    private Double tax;
+    private Double grandTotal;
+    private Double refundedAmount;
+    private PaymentMethod paymentMethod;
+    private PaymentDetails.PaymentStatus paymentStatus;
+    private LocalDateTime createdAt;
+}
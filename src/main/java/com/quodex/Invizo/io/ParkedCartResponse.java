@@ -0,0 +1,20 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkedCartResponse {
+    private String cartId;
+    private String terminalId;
+    private String label;
+    private OrderRequest cart;
+    private LocalDateTime parkedAt;
+}
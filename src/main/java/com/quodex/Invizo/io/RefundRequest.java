@@ -0,0 +1,18 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundRequest {
+    private String reason;
+    // Lines to return; when empty, everything not yet refunded is returned (full refund)
+    private List<RefundItemRequest> items;
+}
@@ -0,0 +1,30 @@
+package com.quodex.Invizo.io;
+
+import com.quodex.Invizo.util.PaymentMethod;
+import com.quodex.Invizo.util.RefundStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundResponse {
+    private String refundId;
+    private String orderId;
+    private Double amount;
+    private String reason;
+    private PaymentMethod paymentMethod;
+    private String razorpayRefundId;
+    // PENDING while Razorpay has not confirmed a UPI refund yet; it is retried in the background
+    private RefundStatus status;
+    private List<OrderItemResponse> items;
+    private LocalDateTime createdAt;
+    private String createdBy;
+    private String shiftId;
+}
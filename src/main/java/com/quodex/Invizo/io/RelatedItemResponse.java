@@ -0,0 +1,19 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelatedItemResponse {
+    private String itemId;
+    private String name;
+    // Baskets that contained both items, older baskets counting less
+    private Double score;
+    // Share of the requested item's baskets that also contained this item (0..1)
+    private Double confidence;
+}
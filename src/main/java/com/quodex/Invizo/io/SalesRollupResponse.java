@@ -0,0 +1,26 @@
+package com.quodex.Invizo.io;
+
+import com.quodex.Invizo.entity.SalesRollupEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollupResponse {
+    private SalesRollupEntity.Grain grain;
+    private LocalDateTime bucketStart;
+    private SalesRollupEntity.Dimension dimension;
+    private String dimensionKey;
+    private String dimensionLabel;
+    private Long orderCount;
+    private Long quantity;
+    private Double grossAmount;
+    private Double refundedAmount;
+    private Double netAmount;
+}
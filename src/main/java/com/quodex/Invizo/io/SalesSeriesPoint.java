@@ -0,0 +1,23 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesSeriesPoint {
+    private LocalDateTime bucketStart;
+    // Group key (payment method / categoryId); null when not grouped
+    private String key;
+    private String label;
+    private Long orderCount;
+    private Double grossAmount;
+    private Double refundedAmount;
+    private Double netAmount;
+}
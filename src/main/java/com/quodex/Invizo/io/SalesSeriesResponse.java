@@ -0,0 +1,21 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesSeriesResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private String bucket;
+    private String groupBy;
+    private List<SalesSeriesPoint> points;
+}
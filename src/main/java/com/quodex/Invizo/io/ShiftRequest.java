@@ -0,0 +1,17 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftRequest {
+    // Float in the drawer when opening
+    private Double openingCash;
+    // Cash counted in the drawer when closing
+    private Double countedCash;
+}
@@ -0,0 +1,34 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShiftResponse {
+    private String shiftId;
+    private String cashier;
+    private LocalDateTime openedAt;
+    private LocalDateTime closedAt;
+    private Boolean open;
+    private Long orderCount;
+    // Paid sales by payment method; pending UPI orders are not included until paid
+    private Double cashSales;
+    private Double upiSales;
+    private Double cashRefunds;
+    private Double upiRefunds;
+    private Long voidCount;
+    private Double voidAmount;
+    private Double openingCash;
+    // openingCash + cashSales - cashRefunds
+    private Double expectedCash;
+    private Double countedCash;
+    // countedCash - expectedCash; negative when the drawer is short
+    private Double cashDifference;
+}
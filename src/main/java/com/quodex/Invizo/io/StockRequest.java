@@ -0,0 +1,16 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockRequest {
+    // Counted units on hand; null stops tracking the item's stock
+    private Integer onHand;
+    private Integer lowStockThreshold;
+}
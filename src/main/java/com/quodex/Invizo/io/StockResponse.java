@@ -0,0 +1,22 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockResponse {
+    private String itemId;
+    private String name;
+    // Null when the item's stock is not tracked
+    private Integer onHand;
+    private Integer lowStockThreshold;
+    private Boolean low;
+    // Sold from an in-memory allotment because it sells fast; allotted units are part of onHand
+    private Boolean hot;
+    private Integer allotted;
+}
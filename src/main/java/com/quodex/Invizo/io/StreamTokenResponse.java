@@ -0,0 +1,16 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Short-lived token for GET /dashboard/stream?token=..., valid for expiresInSeconds to connect
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamTokenResponse {
+    private String token;
+    private long expiresInSeconds;
+}
@@ -0,0 +1,20 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopItemEntry {
+    private String itemId;
+    private String name;
+    // Units sold; for sketch estimates the true figure is within [quantity - maxError, quantity]
+    private Long quantity;
+    private Long maxError;
+    // True when the item is certainly among the top N despite the estimation error
+    private Boolean guaranteed;
+}
@@ -0,0 +1,26 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopItemsResponse {
+    private String period;
+    private LocalDate from;
+    private LocalDate to;
+    // False for the sketch-based leaderboard, true for the exact recomputation
+    private Boolean exact;
+    // Units sold across all items in the period
+    private Long totalQuantity;
+    // Most any item missing from the list can have sold
+    private Long unlistedMaxQuantity;
+    private List<TopItemEntry> items;
+}
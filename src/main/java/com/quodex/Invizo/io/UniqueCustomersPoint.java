@@ -0,0 +1,18 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UniqueCustomersPoint {
+    // First day of the bucket (the day itself, or the 1st of the month)
+    private LocalDate start;
+    private Long uniqueCustomers;
+}
@@ -0,0 +1,24 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UniqueCustomersResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private String bucket;
+    // Distinct customers over the whole range (not the sum of the buckets)
+    private Long uniqueCustomers;
+    // Standard error of every estimate, e.g. 0.0115 for 1.15%
+    private Double relativeError;
+    private List<UniqueCustomersPoint> points;
+}
@@ -0,0 +1,18 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ZReportItemLine {
+    private String itemId;
+    private String name;
+    private Long quantity;
+    // Line value before tax
+    private Double amount;
+}
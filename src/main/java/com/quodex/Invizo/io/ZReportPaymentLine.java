@@ -0,0 +1,17 @@
+package com.quodex.Invizo.io;
+
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ZReportPaymentLine {
+    private PaymentMethod paymentMethod;
+    private Long count;
+    private Double amount;
+}
@@ -0,0 +1,38 @@
+package com.quodex.Invizo.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ZReportResponse {
+    private Long reportNumber;
+    // Orders created in [from, to)
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private LocalDateTime generatedAt;
+    private Long orderCount;
+    private String firstBillNumber;
+    private String lastBillNumber;
+    // Paid orders only; UPI orders still awaiting payment are listed separately
+    private Double grossSales;
+    private Double taxCollected;
+    private List<ZReportPaymentLine> payments;
+    private Long pendingOrders;
+    private Double pendingAmount;
+    // Refunds issued during the period, whichever day the order was from
+    private List<ZReportPaymentLine> refunds;
+    // grossSales minus refunds
+    private Double netSales;
+    private Long voidCount;
+    private Double voidAmount;
+    // Units sold per item, best sellers first
+    private List<ZReportItemLine> items;
+}
@@ -19,6 +19,9 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    // A browser EventSource cannot set headers, so this endpoint also takes ?token=<stream token>
+    private static final String STREAM_PATH = "/dashboard/stream";
+
     private final AppUserDetailService appUserDetailService;
     private final JwtUtil jwtUtil;
 
@@ -39,12 +42,24 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             jwt = authorizationHeader.substring(7);
 
             try {
-                // 3. Extract username/email from the token
-                username = jwtUtil.extractUsername(jwt);
+                // 3. Extract username/email from the token; stream tokens are not accepted here
+                if (!jwtUtil.isStreamToken(jwt)) {
+                    username = jwtUtil.extractUsername(jwt);
+                }
             } catch (Exception e) {
                 // If token is invalid or expired
                 System.out.println("Invalid JWT: " + e.getMessage());
             }
+        } else if (STREAM_PATH.equals(request.getServletPath()) && request.getParameter("token") != null) {
+            // Only a short-lived stream token may travel in the URL, never a login token
+            jwt = request.getParameter("token");
+            try {
+                if (jwtUtil.isStreamToken(jwt)) {
+                    username = jwtUtil.extractUsername(jwt);
+                }
+            } catch (Exception e) {
+                System.out.println("Invalid stream token: " + e.getMessage());
+            }
         }
 
         // 4. If username is valid and SecurityContext is not already set
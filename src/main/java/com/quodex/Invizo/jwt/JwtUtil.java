@@ -15,6 +15,10 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    // Claim marking a stream token: it only opens GET /dashboard/stream, see JwtRequestFilter
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String STREAM_SCOPE = "dashboard-stream";
+
     // Secret key from application.properties
     @Value("${jwt.secret}")
     private String secret;
@@ -23,6 +27,10 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    // Lifetime of a stream token in milliseconds; only checked when the stream connects
+    @Value("${jwt.stream-expiration:60000}")
+    private long streamExpiration;
+
     // Create a signing key from the secret string
 
     private Key getSignKey() {
@@ -40,14 +48,34 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    // Short-lived token for an EventSource, which cannot send the Authorization header
+
+    public String generateStreamToken(String username) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SCOPE_CLAIM, STREAM_SCOPE);
+        return createToken(claims, username, streamExpiration);
+    }
+
+    public boolean isStreamToken(String token) {
+        return STREAM_SCOPE.equals(extractClaim(token, claims -> claims.get(SCOPE_CLAIM, String.class)));
+    }
+
+    public long getStreamExpiration() {
+        return streamExpiration;
+    }
+
     // Build the JWT token
 
     private String createToken(Map<String, Object> claims, String username) {
+        return createToken(claims, username, expiration);
+    }
+
+    private String createToken(Map<String, Object> claims, String username, long validForMillis) {
         return Jwts.builder()
                 .setClaims(claims)                                 // Set custom claims (optional)
                 .setSubject(username)                              // Main subject of token (username/email)
                 .setIssuedAt(new Date(System.currentTimeMillis())) // Token issue time
-                .setExpiration(new Date(System.currentTimeMillis() + expiration)) // Expiry time
+                .setExpiration(new Date(System.currentTimeMillis() + validForMillis)) // Expiry time
                 .signWith(getSignKey(), SignatureAlgorithm.HS256)  // Sign using HS256
                 .compact();                                        // Return the final token string
     }
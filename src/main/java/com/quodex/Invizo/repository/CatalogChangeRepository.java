@@ -0,0 +1,33 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.CatalogChangeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChangeEntity, Long> {
+
+    // Changes after a sequence number, oldest first; limited through the Pageable
+    List<CatalogChangeEntity> findByIdGreaterThanOrderByIdAsc(Long since, Pageable pageable);
+
+    @Query("SELECT MAX(c.id) FROM CatalogChangeEntity c")
+    Long findLatestSequence();
+
+    // Drops the earlier changes of an entity once a newer one is recorded; only the latest matters for sync
+    @Modifying
+    @Query("DELETE FROM CatalogChangeEntity c WHERE c.entityType = :entityType AND c.entityId = :entityId AND c.id < :before")
+    void deleteSuperseded(@Param("entityType") CatalogChangeEntity.EntityType entityType,
+                          @Param("entityId") String entityId,
+                          @Param("before") Long before);
+
+    // Same for many entities at once, before their new changes are inserted
+    @Modifying
+    @Query("DELETE FROM CatalogChangeEntity c WHERE c.entityType = :entityType AND c.entityId IN :entityIds")
+    void deleteByEntityIds(@Param("entityType") CatalogChangeEntity.EntityType entityType,
+                           @Param("entityIds") Collection<String> entityIds);
+}
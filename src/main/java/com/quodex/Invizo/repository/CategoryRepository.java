@@ -2,11 +2,33 @@ package com.quodex.Invizo.repository;
 
 import com.quodex.Invizo.entity.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
 
     Optional<CategoryEntity> findByCategoryId(String categoryId);
 
+    // Every category paired with its number of items, in one statement
+    @Query("SELECT c, (SELECT COUNT(i) FROM ItemEntity i WHERE i.category = c) FROM CategoryEntity c")
+    List<Object[]> findAllWithItemCount();
+
+    // One category paired with its number of items; empty when it does not exist
+    @Query("SELECT c, (SELECT COUNT(i) FROM ItemEntity i WHERE i.category = c) FROM CategoryEntity c " +
+            "WHERE c.categoryId = :categoryId")
+    List<Object[]> findByCategoryIdWithItemCount(@Param("categoryId") String categoryId);
+
+    // Several categories paired with their number of items
+    @Query("SELECT c, (SELECT COUNT(i) FROM ItemEntity i WHERE i.category = c) FROM CategoryEntity c " +
+            "WHERE c.categoryId IN :categoryIds")
+    List<Object[]> findByCategoryIdInWithItemCount(@Param("categoryIds") Collection<String> categoryIds);
+
+    // Categories by categoryId or by name, ignoring case; keys must be given lower-cased for names
+    @Query("SELECT c FROM CategoryEntity c WHERE c.categoryId IN :keys OR LOWER(c.name) IN :lowerKeys")
+    List<CategoryEntity> findByCategoryIdOrNameIn(@Param("keys") Collection<String> keys,
+                                                  @Param("lowerKeys") Collection<String> lowerKeys);
 }
@@ -0,0 +1,11 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.CustomerSketchEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CustomerSketchRepository extends JpaRepository<CustomerSketchEntity, LocalDate> {
+    List<CustomerSketchEntity> findByDayBetween(LocalDate from, LocalDate to);
+}
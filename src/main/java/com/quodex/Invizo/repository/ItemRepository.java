@@ -2,11 +2,62 @@ package com.quodex.Invizo.repository;
 
 import com.quodex.Invizo.entity.ItemEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<ItemEntity, Long> {
     Optional<ItemEntity> findByItemId(String itemId);
 
-    Integer countByCategoryId(Long id);
+    // Several items with their categories, in one statement
+    @Query("SELECT i FROM ItemEntity i JOIN FETCH i.category WHERE i.itemId IN :itemIds")
+    List<ItemEntity> findByItemIdIn(@Param("itemIds") Collection<String> itemIds);
+
+    // Database ids of the given items, as (itemId, id) pairs
+    @Query("SELECT i.itemId, i.id FROM ItemEntity i WHERE i.itemId IN :itemIds")
+    List<Object[]> findIdsByItemIdIn(@Param("itemIds") Collection<String> itemIds);
+
+    // Items already using any of these codes as SKU or as barcode
+    @Query("SELECT i.itemId FROM ItemEntity i WHERE i.sku IN :codes")
+    List<String> findItemIdsBySkuIn(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT i.itemId FROM ItemEntity i JOIN i.barcodes b WHERE b IN :codes")
+    List<String> findItemIdsByBarcodeIn(@Param("codes") Collection<String> codes);
+
+    // Which of these codes are taken, as SKU or as barcode
+    @Query("SELECT i.sku FROM ItemEntity i WHERE i.sku IN :codes")
+    List<String> findSkusIn(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT b FROM ItemEntity i JOIN i.barcodes b WHERE b IN :codes")
+    List<String> findBarcodesIn(@Param("codes") Collection<String> codes);
+
+    // Takes quantity off the stock only if that much is there; 0 rows when it is not, or stock is not tracked
+    @Modifying
+    @Query("UPDATE ItemEntity i SET i.stockOnHand = i.stockOnHand - :quantity " +
+            "WHERE i.itemId = :itemId AND i.stockOnHand >= :quantity")
+    int decrementStock(@Param("itemId") String itemId, @Param("quantity") int quantity);
+
+    // Puts units back, for tracked items only
+    @Modifying
+    @Query("UPDATE ItemEntity i SET i.stockOnHand = i.stockOnHand + :quantity " +
+            "WHERE i.itemId = :itemId AND i.stockOnHand IS NOT NULL")
+    int incrementStock(@Param("itemId") String itemId, @Param("quantity") int quantity);
+
+    // Stock take: sets the level outright; null stops tracking
+    @Modifying
+    @Query("UPDATE ItemEntity i SET i.stockOnHand = :onHand, i.lowStockThreshold = :threshold WHERE i.itemId = :itemId")
+    int setStock(@Param("itemId") String itemId, @Param("onHand") Integer onHand, @Param("threshold") Integer threshold);
+
+    // (itemId, name, stockOnHand, lowStockThreshold) rows
+    @Query("SELECT i.itemId, i.name, i.stockOnHand, i.lowStockThreshold FROM ItemEntity i WHERE i.itemId IN :itemIds")
+    List<Object[]> findStockLevels(@Param("itemIds") Collection<String> itemIds);
+
+    // Tracked items at or below their threshold, plus hot items whose row alone is (their allotments hold the rest)
+    @Query("SELECT i.itemId, i.name, i.stockOnHand, i.lowStockThreshold FROM ItemEntity i " +
+            "WHERE i.lowStockThreshold IS NOT NULL AND (i.stockOnHand <= i.lowStockThreshold OR i.itemId IN :hotItemIds)")
+    List<Object[]> findLowStockLevels(@Param("hotItemIds") Collection<String> hotItemIds);
 }
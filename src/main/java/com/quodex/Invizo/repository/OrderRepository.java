@@ -5,14 +5,24 @@
 package com.quodex.Invizo.repository;
 
 import com.quodex.Invizo.entity.OrderEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import com.quodex.Invizo.io.CustomerOrderSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.awt.print.Pageable;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
@@ -21,13 +31,32 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     // Returns Optional to handle cases where the orderId might not exist
     Optional<OrderEntity> findByOrderId(String orderId);
 
+    // Marks an order as paid without loading it first; returns the number of rows updated (0 or 1)
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderEntity o SET o.paymentDetails.razorpayOrderId = :razorpayOrderId, " +
+            "o.paymentDetails.razorpayPaymentId = :razorpayPaymentId, " +
+            "o.paymentDetails.razorpaySignature = :razorpaySignature, " +
+            "o.paymentDetails.status = com.quodex.Invizo.io.PaymentDetails.PaymentStatus.COMPLETED " +
+            "WHERE o.orderId = :orderId")
+    int markPaymentCompleted(@Param("orderId") String orderId,
+                             @Param("razorpayOrderId") String razorpayOrderId,
+                             @Param("razorpayPaymentId") String razorpayPaymentId,
+                             @Param("razorpaySignature") String razorpaySignature);
+
+    // Same lookup, but locks the row so concurrent refunds cannot over-refund an order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OrderEntity o WHERE o.orderId = :orderId")
+    Optional<OrderEntity> findByOrderIdForUpdate(@Param("orderId") String orderId);
+
     // Retrieves all orders sorted by 'createdAt' in descending order
     // Most recent orders will be at the top
     List<OrderEntity> findAllByOrderByCreatedAtDesc();
 
     // Custom query using JPQL to calculate the total sales (sum of grandTotal) for a specific date
     // DATE() function extracts the date from 'createdAt' timestamp
-    @Query("SELECT SUM(o.grandTotal) FROM OrderEntity o WHERE DATE(o.createdAt) = :date")
+    // Refunds are netted out through the refundedAmount kept on each order
+    @Query("SELECT SUM(o.grandTotal - COALESCE(o.refundedAmount, 0)) FROM OrderEntity o WHERE DATE(o.createdAt) = :date")
     Double sumSalesByDate(@Param("date") LocalDate date);
 
     // Custom query to count the number of orders placed on a specific date
@@ -37,4 +66,116 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     @Query(value = "SELECT * FROM orders ORDER BY created_at DESC LIMIT 5", nativeQuery = true)
     List<OrderEntity> findTop5RecentOrdersNative();
 
+    // --- Dashboard query path: two statements per dashboard load ---
+
+    // One row: net sales and order count for [from, to), plus the createdAt of the 5th most recent order
+    // (null when there are fewer than 5), which bounds the recent-orders query below
+    @Query("SELECT SUM(o.grandTotal - COALESCE(o.refundedAmount, 0)), COUNT(o), " +
+            "(SELECT r.createdAt FROM OrderEntity r ORDER BY r.createdAt DESC LIMIT 1 OFFSET 4) " +
+            "FROM OrderEntity o WHERE o.createdAt >= :from AND o.createdAt < :to")
+    List<Object[]> findDashboardTotals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Orders created at or after :since, newest first, with their items fetched in the same statement
+    @Query("SELECT o FROM OrderEntity o LEFT JOIN FETCH o.items WHERE o.createdAt >= :since ORDER BY o.createdAt DESC")
+    List<OrderEntity> findRecentWithItems(@Param("since") LocalDateTime since);
+
+    // A customer's most recent orders as narrow summaries, served by the (mobile_number, created_at) index
+    @Query("SELECT new com.quodex.Invizo.io.CustomerOrderSummary(o.orderId, o.customerName, o.createdAt, o.grandTotal, " +
+            "o.refundedAmount, o.paymentMethod, o.paymentDetails.status, SIZE(o.items)) " +
+            "FROM OrderEntity o WHERE o.mobileNumber = :mobileNumber ORDER BY o.createdAt DESC")
+    List<CustomerOrderSummary> findRecentSummariesByMobileNumber(@Param("mobileNumber") String mobileNumber, Pageable pageable);
+
+    // --- Aggregation queries used by the sales rollup aggregator ---
+
+    // Distinct hours (year, month, day, hour) that have orders in [from, to)
+    @Query("SELECT DISTINCT YEAR(o.createdAt), MONTH(o.createdAt), DAY(o.createdAt), HOUR(o.createdAt) " +
+            "FROM OrderEntity o WHERE o.createdAt >= :from AND o.createdAt < :to")
+    List<Object[]> findActiveHours(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Per payment method: order count, gross bill total, refunded amount
+    @Query("SELECT o.paymentMethod, COUNT(o), SUM(o.grandTotal), SUM(COALESCE(o.refundedAmount, 0)) " +
+            "FROM OrderEntity o WHERE o.createdAt >= :from AND o.createdAt < :to GROUP BY o.paymentMethod")
+    List<Object[]> aggregateByPaymentMethod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Per item: name, order count, net quantity, gross line value, refunded line value
+    @Query("SELECT i.itemId, MAX(i.name), COUNT(DISTINCT o.id), SUM(i.quantity - COALESCE(i.refundedQuantity, 0)), " +
+            "SUM(i.price * i.quantity), SUM(i.price * COALESCE(i.refundedQuantity, 0)) " +
+            "FROM OrderEntity o JOIN o.items i WHERE o.createdAt >= :from AND o.createdAt < :to GROUP BY i.itemId")
+    List<Object[]> aggregateByItem(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Per category (via the catalog item): name, order count, net quantity, gross line value, refunded line value
+    @Query("SELECT c.categoryId, MAX(c.name), COUNT(DISTINCT o.id), SUM(i.quantity - COALESCE(i.refundedQuantity, 0)), " +
+            "SUM(i.price * i.quantity), SUM(i.price * COALESCE(i.refundedQuantity, 0)) " +
+            "FROM OrderEntity o JOIN o.items i LEFT JOIN ItemEntity it ON it.itemId = i.itemId LEFT JOIN it.category c " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to GROUP BY c.categoryId")
+    List<Object[]> aggregateByCategory(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // --- Streaming scans for ranges the rollups do not cover yet (must run inside a transaction) ---
+    // On MySQL the fetch sizes below rely on useCursorFetch, see StreamingQueryConfig
+
+    // One row per order: createdAt, payment method, grand total, refunded amount
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.createdAt, o.paymentMethod, o.grandTotal, COALESCE(o.refundedAmount, 0) " +
+            "FROM OrderEntity o WHERE o.createdAt >= :from AND o.createdAt < :to")
+    Stream<Object[]> streamOrderTotals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // One row per order line: createdAt, order id, categoryId, category name, line value, refunded line value
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.createdAt, o.id, c.categoryId, c.name, i.price * i.quantity, i.price * COALESCE(i.refundedQuantity, 0) " +
+            "FROM OrderEntity o JOIN o.items i LEFT JOIN ItemEntity it ON it.itemId = i.itemId LEFT JOIN it.category c " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to")
+    Stream<Object[]> streamCategoryLines(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // One row per order line: createdAt, itemId, item name, quantity sold
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.createdAt, i.itemId, i.name, i.quantity " +
+            "FROM OrderEntity o JOIN o.items i WHERE o.createdAt >= :from AND o.createdAt < :to")
+    Stream<Object[]> streamItemLines(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // One row per order with a customer number: createdAt, normalized mobile number
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.createdAt, o.mobileNumber FROM OrderEntity o " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to AND o.mobileNumber IS NOT NULL")
+    Stream<Object[]> streamMobileNumbers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Every order line (orders without lines once, with null item columns), grouped by order:
+    // orderId, createdAt, payment method, grand total, refunded amount, itemId, item name, quantity, price
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.orderId, o.createdAt, o.paymentMethod, o.grandTotal, COALESCE(o.refundedAmount, 0), " +
+            "i.itemId, i.name, i.quantity, i.price FROM OrderEntity o LEFT JOIN o.items i ORDER BY o.id")
+    Stream<Object[]> streamOrderFacts();
+
+    // One row per order line in [from, to), grouped by order in creation order: order id, createdAt, itemId, item name
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.id, o.createdAt, i.itemId, i.name FROM OrderEntity o JOIN o.items i " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    Stream<Object[]> streamBasketLines(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Exact best sellers by units sold in [from, to): itemId, item name, quantity; limited through the Pageable
+    @Query("SELECT i.itemId, MAX(i.name), SUM(i.quantity) FROM OrderEntity o JOIN o.items i " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to GROUP BY i.itemId ORDER BY SUM(i.quantity) DESC")
+    List<Object[]> findTopItemsByQuantity(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Total units sold in [from, to)
+    @Query("SELECT SUM(i.quantity) FROM OrderEntity o JOIN o.items i WHERE o.createdAt >= :from AND o.createdAt < :to")
+    Long sumQuantity(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Orders created in [from, to) with their lines (orders without lines once, null item columns), grouped by order:
+    // id, orderId, payment method, payment status, tax, grand total, itemId, item name, quantity, price
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.id, o.orderId, o.paymentMethod, o.paymentDetails.status, o.tax, o.grandTotal, " +
+            "i.itemId, i.name, i.quantity, i.price FROM OrderEntity o LEFT JOIN o.items i " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    Stream<Object[]> streamOrderLines(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Orders of the given shifts: shiftId, orderId, payment method, grand total, payment status.
+    // Only read on startup to restore the counters of shifts that were open when the app stopped
+    @Query("SELECT o.shiftId, o.orderId, o.paymentMethod, o.grandTotal, o.paymentDetails.status " +
+            "FROM OrderEntity o WHERE o.shiftId IN :shiftIds")
+    List<Object[]> findShiftOrders(@Param("shiftIds") List<String> shiftIds);
+
+    // Orders paired with their line count, page by page; used to rebuild the order_summary read model
+    @Query("SELECT o, SIZE(o.items) FROM OrderEntity o ORDER BY o.id")
+    List<Object[]> findAllWithItemCount(Pageable pageable);
+
 }
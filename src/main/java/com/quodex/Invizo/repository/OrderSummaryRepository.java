@@ -0,0 +1,37 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.OrderSummaryEntity;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.util.PaymentMethod;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummaryEntity, String> {
+
+    // Orders in a time window, optionally narrowed by payment method / status, newest first
+    @Query("SELECT s FROM OrderSummaryEntity s WHERE s.createdAt >= :from AND s.createdAt < :to " +
+            "AND (:paymentMethod IS NULL OR s.paymentMethod = :paymentMethod) " +
+            "AND (:status IS NULL OR s.paymentStatus = :status) " +
+            "ORDER BY s.createdAt DESC")
+    List<OrderSummaryEntity> search(@Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("paymentMethod") PaymentMethod paymentMethod,
+                                    @Param("status") PaymentDetails.PaymentStatus status,
+                                    Pageable pageable);
+
+    // Lookup by (normalized) mobile number or an exact order ID
+    @Query("SELECT s FROM OrderSummaryEntity s WHERE s.mobileNumber = :term OR s.orderId = :term ORDER BY s.createdAt DESC")
+    List<OrderSummaryEntity> findByMobileNumberOrOrderId(@Param("term") String term, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrderSummaryEntity s")
+    void deleteAllInBulk();
+}
@@ -0,0 +1,17 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.OrderVoidEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderVoidRepository extends JpaRepository<OrderVoidEntity, Long> {
+
+    // Voids in [from, to): one row of count, amount voided (orders with refunds cannot be voided)
+    @Query("SELECT COUNT(v), SUM(v.grandTotal) FROM OrderVoidEntity v " +
+            "WHERE v.voidedAt >= :from AND v.voidedAt < :to")
+    List<Object[]> sumVoids(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
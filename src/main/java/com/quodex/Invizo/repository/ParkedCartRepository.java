@@ -0,0 +1,30 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.ParkedCartEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ParkedCartRepository extends JpaRepository<ParkedCartEntity, Long> {
+
+    Optional<ParkedCartEntity> findByCartId(String cartId);
+
+    List<ParkedCartEntity> findByUserEmailAndTerminalIdOrderByParkedAtAsc(String userEmail, String terminalId);
+
+    // 1 if this call removed the cart, 0 if it was already gone (e.g. resumed by a concurrent request)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ParkedCartEntity c WHERE c.cartId = :cartId")
+    int deleteByCartId(@Param("cartId") String cartId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ParkedCartEntity c WHERE c.parkedAt < :before")
+    int deleteParkedBefore(@Param("before") LocalDateTime before);
+}
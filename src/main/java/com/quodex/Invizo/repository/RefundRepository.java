@@ -0,0 +1,42 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.RefundEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface RefundRepository extends JpaRepository<RefundEntity, Long> {
+
+    // All refunds issued against an order, oldest first
+    List<RefundEntity> findByOrderOrderIdOrderByCreatedAtAsc(String orderId);
+
+    boolean existsByOrderOrderId(String orderId);
+
+    // Locks the refund, so two attempts cannot both complete or fail it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RefundEntity r WHERE r.refundId = :refundId")
+    Optional<RefundEntity> findByRefundIdForUpdate(@Param("refundId") String refundId);
+
+    // UPI refunds recorded before the given time that Razorpay has not confirmed yet, oldest first
+    @Query("SELECT r.refundId FROM RefundEntity r WHERE r.status = com.quodex.Invizo.util.RefundStatus.PENDING " +
+            "AND r.createdAt < :before ORDER BY r.id")
+    List<String> findPendingRefundIds(@Param("before") LocalDateTime before);
+
+    // Refunds paid out per shift and payment method: shiftId, payment method, total amount
+    @Query("SELECT r.shiftId, r.paymentMethod, SUM(r.amount) FROM RefundEntity r " +
+            "WHERE r.shiftId IN :shiftIds AND r.status <> com.quodex.Invizo.util.RefundStatus.FAILED " +
+            "GROUP BY r.shiftId, r.paymentMethod")
+    List<Object[]> sumByShift(@Param("shiftIds") List<String> shiftIds);
+
+    // Refunds issued in [from, to) per payment method: payment method, count, total amount
+    @Query("SELECT r.paymentMethod, COUNT(r), SUM(r.amount) FROM RefundEntity r " +
+            "WHERE r.createdAt >= :from AND r.createdAt < :to " +
+            "AND r.status <> com.quodex.Invizo.util.RefundStatus.FAILED GROUP BY r.paymentMethod")
+    List<Object[]> sumByPaymentMethod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
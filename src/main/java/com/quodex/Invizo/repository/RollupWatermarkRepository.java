@@ -0,0 +1,7 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.RollupWatermarkEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermarkEntity, String> {
+}
@@ -0,0 +1,19 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.SalesRollupDirtyHourEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface SalesRollupDirtyHourRepository extends JpaRepository<SalesRollupDirtyHourEntity, LocalDateTime> {
+
+    // Clears a mark a finished run has covered, unless the hour was marked again meanwhile
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SalesRollupDirtyHourEntity d WHERE d.bucketStart = :bucketStart AND d.markedAt = :markedAt")
+    int deleteIfUnchanged(@Param("bucketStart") LocalDateTime bucketStart, @Param("markedAt") LocalDateTime markedAt);
+}
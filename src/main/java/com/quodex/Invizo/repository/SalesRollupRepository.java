@@ -0,0 +1,31 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.SalesRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollupEntity, Long> {
+
+    // Rollups of one grain and dimension in [from, to), oldest first
+    @Query("SELECT r FROM SalesRollupEntity r WHERE r.grain = :grain AND r.dimension = :dimension " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart, r.dimensionKey")
+    List<SalesRollupEntity> findRollups(@Param("grain") SalesRollupEntity.Grain grain,
+                                        @Param("dimension") SalesRollupEntity.Dimension dimension,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    // All dimensions of one grain in [from, to); used to derive day rows from hour rows
+    @Query("SELECT r FROM SalesRollupEntity r WHERE r.grain = :grain AND r.bucketStart >= :from AND r.bucketStart < :to")
+    List<SalesRollupEntity> findAllInRange(@Param("grain") SalesRollupEntity.Grain grain,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollupEntity r WHERE r.grain = :grain AND r.bucketStart = :bucketStart")
+    void deleteBucket(@Param("grain") SalesRollupEntity.Grain grain, @Param("bucketStart") LocalDateTime bucketStart);
+}
@@ -0,0 +1,42 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.ShiftEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ShiftRepository extends JpaRepository<ShiftEntity, Long> {
+
+    Optional<ShiftEntity> findByShiftId(String shiftId);
+
+    List<ShiftEntity> findByClosedAtIsNull();
+
+    // Voided orders leave no row behind, so voids are counted on the shift as they happen.
+    // Called from an after-commit listener, where the finished transaction cannot be joined
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE ShiftEntity s SET s.voidCount = COALESCE(s.voidCount, 0) + 1, " +
+            "s.voidAmount = COALESCE(s.voidAmount, 0) + :amount WHERE s.shiftId = :shiftId")
+    int recordVoid(@Param("shiftId") String shiftId, @Param("amount") Double amount);
+
+    // An order that arrived after its shift was closed, added to the closed row
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE ShiftEntity s SET s.orderCount = COALESCE(s.orderCount, 0) + 1, " +
+            "s.cashSales = COALESCE(s.cashSales, 0) + :cash, s.upiSales = COALESCE(s.upiSales, 0) + :upi " +
+            "WHERE s.shiftId = :shiftId AND s.closedAt IS NOT NULL")
+    int recordLateOrder(@Param("shiftId") String shiftId, @Param("cash") Double cash, @Param("upi") Double upi);
+
+    // A refund that completed after its shift was closed, added to the closed row
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE ShiftEntity s SET s.cashRefunds = COALESCE(s.cashRefunds, 0) + :cash, " +
+            "s.upiRefunds = COALESCE(s.upiRefunds, 0) + :upi WHERE s.shiftId = :shiftId AND s.closedAt IS NOT NULL")
+    int recordLateRefund(@Param("shiftId") String shiftId, @Param("cash") Double cash, @Param("upi") Double upi);
+}
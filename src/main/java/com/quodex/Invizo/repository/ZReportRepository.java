@@ -0,0 +1,16 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.ZReportEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ZReportRepository extends JpaRepository<ZReportEntity, Long> {
+
+    // The latest report, whose periodTo is where the next one starts
+    Optional<ZReportEntity> findTopByOrderByIdDesc();
+
+    List<ZReportEntity> findByPeriodToGreaterThanEqualAndPeriodToLessThanOrderByIdAsc(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,475 @@
+package com.quodex.Invizo.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search-as-you-type index over item name, category and description.
+ *
+ * Every distinct word (term) in the catalog is indexed by its grams: the first letter, the first
+ * two letters and every trigram, each anchored with a leading '$'. A query word finds the terms
+ * sharing its grams, which covers exact words, prefixes of words still being typed, and - for
+ * query words of four letters or more - words within one edit (two from eight letters), checked
+ * with a bounded edit distance on the few candidates.
+ *
+ * A document matches when every query word matches one of its words. Its quality is the average
+ * over query words of the best (word similarity x field weight), where exact beats prefix beats
+ * typo and name beats category beats description. Popularity, kept per document by the owner,
+ * adds a bounded boost so that among equally good matches the best seller comes first.
+ *
+ * Updates are incremental: put() replaces a document, remove() drops it. Removed documents
+ * leave dead slots that queries skip; once they make up a quarter of the index it is compacted.
+ * Queries share a read lock, updates take the write lock.
+ */
+public class ItemSearchIndex<T> {
+
+    private static final float NAME = 1.0f;
+    private static final float CATEGORY = 0.6f;
+    private static final float DESCRIPTION = 0.4f;
+
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.9f;
+    private static final float ONE_TYPO = 0.7f;
+    private static final float TWO_TYPOS = 0.6f;
+
+    // Popularity adds at most this much to a quality between 0 and 1
+    private static final double POPULARITY_BOOST = 0.2;
+    private static final int MAX_QUERY_WORDS = 6;
+    private static final int MIN_DEAD_FOR_COMPACTION = 64;
+
+    public record Hit<T>(String id, T payload, double quality, double score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Everything below is guarded by lock
+    private final List<Document<T>> documents = new ArrayList<>();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<Term> terms = new ArrayList<>();
+    private final Map<String, Term> termsByText = new HashMap<>();
+    private final Map<String, IntList> termsByGram = new HashMap<>();
+    private float[] popularity = new float[64];
+    private float maxPopularity;
+    private int dead;
+
+    /**
+     * Adds a document, or replaces the one with the same id (keeping its popularity).
+     */
+    public void put(String id, String name, String category, String description, T payload) {
+        lock.writeLock().lock();
+        try {
+            float kept = 0;
+            Integer old = slots.get(id);
+            if (old != null) {
+                kept = popularity[old];
+                kill(old);
+            }
+            add(new Document<>(id, name, category, description, payload), kept);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                kill(slot);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            slots.clear();
+            terms.clear();
+            termsByText.clear();
+            termsByGram.clear();
+            popularity = new float[64];
+            maxPopularity = 0;
+            dead = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds to a document's popularity, e.g. units sold. Unknown ids are ignored.
+     */
+    public void addPopularity(String id, double amount) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                popularity[slot] += (float) amount;
+                maxPopularity = Math.max(maxPopularity, popularity[slot]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Multiplies every popularity by factor (0 < factor < 1), so recent sales count more.
+     */
+    public void decayPopularity(double factor) {
+        lock.writeLock().lock();
+        try {
+            maxPopularity = 0;
+            for (int slot = 0; slot < documents.size(); slot++) {
+                popularity[slot] *= (float) factor;
+                maxPopularity = Math.max(maxPopularity, popularity[slot]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<String> ids() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(slots.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best matches for a query, best first; empty when a query word matches nothing.
+     *
+     * @param total receives the number of matching documents when not null
+     */
+    public List<Hit<T>> search(String query, int limit, int[] total) {
+        List<String> words = words(query);
+        if (words.size() > MAX_QUERY_WORDS) {
+            words = words.subList(0, MAX_QUERY_WORDS);
+        }
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            float[] sum = new float[n];
+            float[] best = new float[n];
+            // How many query words each slot matched so far; only slots that matched all go on
+            byte[] matched = new byte[n];
+            IntList touched = new IntList();
+            for (int w = 0; w < words.size(); w++) {
+                touched.size = 0;
+                for (TermMatch match : match(words.get(w))) {
+                    Term term = match.term;
+                    for (int p = 0; p < term.slots.size; p++) {
+                        int slot = term.slots.values[p];
+                        if (matched[slot] != w || documents.get(slot) == null) {
+                            continue;
+                        }
+                        float score = match.similarity * term.weights[p];
+                        if (best[slot] == 0) {
+                            touched.add(slot);
+                        }
+                        if (score > best[slot]) {
+                            best[slot] = score;
+                        }
+                    }
+                }
+                if (touched.size == 0) {
+                    if (total != null) {
+                        total[0] = 0;
+                    }
+                    return List.of();
+                }
+                for (int i = 0; i < touched.size; i++) {
+                    int slot = touched.values[i];
+                    sum[slot] += best[slot];
+                    best[slot] = 0;
+                    matched[slot] = (byte) (w + 1);
+                }
+            }
+            if (total != null) {
+                total[0] = touched.size;
+            }
+            return rank(touched, sum, words.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keeps the best limit slots in a min-heap on score
+    private List<Hit<T>> rank(IntList slots, float[] sum, int words, int limit) {
+        double popularityScale = maxPopularity > 0 ? POPULARITY_BOOST / Math.log1p(maxPopularity) : 0;
+        PriorityQueue<Hit<T>> heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        for (int i = 0; i < slots.size; i++) {
+            int slot = slots.values[i];
+            double quality = sum[slot] / words;
+            double score = quality + Math.log1p(popularity[slot]) * popularityScale;
+            if (heap.size() < limit) {
+                heap.add(hit(slot, quality, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(hit(slot, quality, score));
+            }
+        }
+        List<Hit<T>> ranked = new ArrayList<>(heap);
+        ranked.sort(Comparator.comparingDouble(Hit<T>::score).reversed());
+        return ranked;
+    }
+
+    private Hit<T> hit(int slot, double quality, double score) {
+        Document<T> document = documents.get(slot);
+        return new Hit<>(document.id, document.payload, quality, score);
+    }
+
+    private record TermMatch(Term term, float similarity) {
+    }
+
+    // Vocabulary terms similar enough to one query word
+    private List<TermMatch> match(String word) {
+        List<String> grams = grams(word);
+        int allowedEdits = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+        // One edit breaks at most three grams
+        int minShared = Math.max(1, grams.size() - 3 * allowedEdits);
+
+        int[] shared = new int[terms.size()];
+        IntList candidates = new IntList();
+        for (String gram : grams) {
+            IntList ids = termsByGram.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                if (shared[id]++ == 0) {
+                    candidates.add(id);
+                }
+            }
+        }
+
+        List<TermMatch> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size; i++) {
+            Term term = terms.get(candidates.values[i]);
+            int count = shared[term.id];
+            if (count == grams.size() && term.text.startsWith(word)) {
+                matches.add(new TermMatch(term, term.text.length() == word.length() ? EXACT : PREFIX));
+            } else if (allowedEdits > 0 && count >= minShared) {
+                // Typo in a whole word, or in the part of a word typed so far
+                int edits = Math.min(distance(word, term.text, allowedEdits),
+                        term.text.length() > word.length()
+                                ? distance(word, term.text.substring(0, word.length()), allowedEdits)
+                                : Integer.MAX_VALUE);
+                if (edits <= allowedEdits) {
+                    matches.add(new TermMatch(term, edits == 1 ? ONE_TYPO : TWO_TYPOS));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void add(Document<T> document, float documentPopularity) {
+        int slot = documents.size();
+        documents.add(document);
+        slots.put(document.id, slot);
+        if (slot == popularity.length) {
+            popularity = Arrays.copyOf(popularity, slot * 2);
+        }
+        popularity[slot] = documentPopularity;
+        maxPopularity = Math.max(maxPopularity, documentPopularity);
+
+        // Each word once per document, with the weight of the best field it appears in
+        Map<String, Float> words = new LinkedHashMap<>();
+        for (String word : words(document.name)) {
+            words.merge(word, NAME, Math::max);
+        }
+        for (String word : words(document.category)) {
+            words.merge(word, CATEGORY, Math::max);
+        }
+        for (String word : words(document.description)) {
+            words.merge(word, DESCRIPTION, Math::max);
+        }
+        words.forEach((word, weight) -> term(word).add(slot, weight));
+    }
+
+    private Term term(String word) {
+        Term term = termsByText.get(word);
+        if (term == null) {
+            term = new Term(terms.size(), word);
+            terms.add(term);
+            termsByText.put(word, term);
+            for (String gram : grams(word)) {
+                termsByGram.computeIfAbsent(gram, g -> new IntList()).add(term.id);
+            }
+        }
+        return term;
+    }
+
+    private void kill(int slot) {
+        slots.remove(documents.get(slot).id);
+        documents.set(slot, null);
+        popularity[slot] = 0;
+        dead++;
+    }
+
+    // Rebuilds from the live documents once dead slots make up a quarter of the index
+    private void compactIfNeeded() {
+        if (dead < MIN_DEAD_FOR_COMPACTION || dead * 4 < documents.size()) {
+            return;
+        }
+        List<Document<T>> live = new ArrayList<>(slots.size());
+        float[] livePopularity = new float[slots.size()];
+        for (int slot = 0; slot < documents.size(); slot++) {
+            if (documents.get(slot) != null) {
+                livePopularity[live.size()] = popularity[slot];
+                live.add(documents.get(slot));
+            }
+        }
+        documents.clear();
+        slots.clear();
+        terms.clear();
+        termsByText.clear();
+        termsByGram.clear();
+        popularity = new float[Math.max(64, live.size())];
+        maxPopularity = 0;
+        dead = 0;
+        for (int i = 0; i < live.size(); i++) {
+            add(live.get(i), livePopularity[i]);
+        }
+    }
+
+    /**
+     * Lower-case words without accents; anything but letters and digits separates words.
+     */
+    static List<String> words(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    // "$c", "$co" and the trigrams of "$" + word: "$cof" -> "$c", "$co", "cof"
+    static List<String> grams(String word) {
+        String anchored = "$" + word;
+        List<String> grams = new ArrayList<>(word.length() + 1);
+        grams.add(anchored.substring(0, 2));
+        for (int i = 0; i + 3 <= anchored.length(); i++) {
+            String gram = anchored.substring(i, i + 3);
+            if (!grams.contains(gram)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance (insertions, deletions, substitutions and adjacent
+     * swaps), or max + 1 as soon as it is certain to exceed max.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private record Document<T>(String id, String name, String category, String description, T payload) {
+    }
+
+    // A distinct word and the slots containing it, with the weight of the field it was found in
+    private static final class Term {
+        final int id;
+        final String text;
+        final IntList slots = new IntList();
+        float[] weights = new float[4];
+
+        Term(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+
+        void add(int slot, float weight) {
+            if (slots.size == weights.length) {
+                weights = Arrays.copyOf(weights, weights.length * 2);
+            }
+            weights[slots.size] = weight;
+            slots.add(slot);
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.AnalyticsResponse;
+import com.quodex.Invizo.util.PaymentMethod;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+public interface AnalyticsService {
+    AnalyticsResponse query(LocalDate from, LocalDate to, Set<PaymentMethod> paymentMethods, String itemId, String groupBy);
+}
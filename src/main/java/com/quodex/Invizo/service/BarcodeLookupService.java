@@ -0,0 +1,12 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.ItemResponse;
+
+import java.util.Map;
+
+public interface BarcodeLookupService {
+    // The item with this barcode or SKU, as scanned
+    ItemResponse findByBarcode(String code);
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,23 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.entity.CatalogChangeEntity;
+import com.quodex.Invizo.io.CatalogChangesResponse;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+public interface CatalogChangeService {
+    // Runs a catalog mutation and the changes it records in one transaction, one mutation at a time
+    <T> T write(Supplier<T> mutation);
+
+    // Records a change; only valid inside write()
+    void record(CatalogChangeEntity.EntityType entityType, String entityId, CatalogChangeEntity.ChangeType changeType);
+
+    // Records the same change for many entities with batched inserts; only valid inside write()
+    void recordAll(CatalogChangeEntity.EntityType entityType, Collection<String> entityIds, CatalogChangeEntity.ChangeType changeType);
+
+    CatalogChangesResponse getChanges(long since, int limit);
+
+    // Sequence number of the latest recorded change, 0 when there is none
+    long getLatestSequence();
+}
@@ -0,0 +1,16 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.CatalogImportResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface CatalogImportService {
+    // Queues an import of a CSV and an optional zip of the images it names
+    CatalogImportResponse startImport(MultipartFile csv, MultipartFile images);
+
+    CatalogImportResponse getImport(String importId);
+
+    // Recent imports, newest first, without their error lists
+    List<CatalogImportResponse> getImports();
+}
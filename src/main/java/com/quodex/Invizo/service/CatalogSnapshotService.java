@@ -0,0 +1,13 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.cache.CatalogSnapshot;
+import com.quodex.Invizo.cache.ResourceVersions;
+
+import java.util.Map;
+
+public interface CatalogSnapshotService {
+    // Current snapshot of ITEMS or CATEGORIES, rebuilt first if the catalog changed since the last one
+    CatalogSnapshot getSnapshot(ResourceVersions.Family family);
+
+    Map<String, Map<String, Object>> getStats();
+}
@@ -4,6 +4,7 @@ import com.quodex.Invizo.io.CategoryRequest;
 import com.quodex.Invizo.io.CategoryResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CategoryService {
@@ -14,4 +15,7 @@ public interface CategoryService {
     void deleteCategory(String categoryId);
 
     CategoryResponse getCategoryById(String categoryId);
+
+    // Categories that still exist among the given ids, in no particular order
+    List<CategoryResponse> getCategoriesByIds(Collection<String> categoryIds);
 }
@@ -0,0 +1,9 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.CustomerOrderSummary;
+
+import java.util.List;
+
+public interface CustomerService {
+    List<CustomerOrderSummary> getRecentOrders(String mobileNumber);
+}
@@ -0,0 +1,9 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.DashboardResponse;
+
+public interface DashboardService {
+    DashboardResponse getDashboard();
+
+    void reconcile();
+}
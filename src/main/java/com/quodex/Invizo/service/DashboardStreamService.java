@@ -0,0 +1,7 @@
+package com.quodex.Invizo.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface DashboardStreamService {
+    SseEmitter subscribe();
+}
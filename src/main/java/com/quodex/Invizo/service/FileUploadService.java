@@ -4,5 +4,6 @@ import org.springframework.web.multipart.MultipartFile;
 
 public interface FileUploadService {
     String uploadFile(MultipartFile file);
+    String uploadFile(byte[] bytes);
     boolean deleteFile(String imgUrl);
 }
@@ -0,0 +1,7 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.ItemSearchResponse;
+
+public interface ItemSearchService {
+    ItemSearchResponse search(String query, int limit);
+}
@@ -1,9 +1,11 @@
 package com.quodex.Invizo.service;
 
+import com.quodex.Invizo.io.ItemCodesRequest;
 import com.quodex.Invizo.io.ItemRequest;
 import com.quodex.Invizo.io.ItemResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemService {
@@ -14,5 +16,11 @@ public interface ItemService {
 
     ItemResponse getItemById(String itemId);
 
+    // Items that still exist among the given ids, in no particular order
+    List<ItemResponse> getItemsByIds(Collection<String> itemIds);
+
     void deleteItem(String itemId);
+
+    // Replaces an item's SKU and barcodes
+    ItemResponse updateCodes(String itemId, ItemCodesRequest request);
 }
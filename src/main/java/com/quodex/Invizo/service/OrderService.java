@@ -1,5 +1,6 @@
 package com.quodex.Invizo.service;
 
+import com.quodex.Invizo.io.DashboardResponse;
 import com.quodex.Invizo.io.OrderRequest;
 import com.quodex.Invizo.io.OrderResponse;
 import com.quodex.Invizo.io.PaymentVerificationRequest;
@@ -13,6 +14,8 @@ public interface OrderService {
 
     void deleteOrder(String orderId);
 
+    OrderResponse getOrder(String orderId);
+
     List<OrderResponse> getLatestOrders();
 
     OrderResponse verifyPayment(PaymentVerificationRequest request);
@@ -22,4 +25,6 @@ public interface OrderService {
     Long countByOrderDate(LocalDate date);
 
     List<OrderResponse> findRecentOrders();
+
+    DashboardResponse loadDashboard(LocalDate date);
 }
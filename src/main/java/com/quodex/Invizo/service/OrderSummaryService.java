@@ -0,0 +1,17 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.OrderSummaryResponse;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.util.PaymentMethod;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderSummaryService {
+    List<OrderSummaryResponse> listOrders(LocalDate from, LocalDate to, PaymentMethod paymentMethod,
+                                          PaymentDetails.PaymentStatus status, int page, int size);
+
+    List<OrderSummaryResponse> searchOrders(String query, int page, int size);
+
+    long rebuild();
+}
@@ -0,0 +1,19 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.io.ParkCartRequest;
+import com.quodex.Invizo.io.ParkedCartResponse;
+
+import java.util.List;
+
+public interface ParkedCartService {
+    ParkedCartResponse parkCart(String terminalId, ParkCartRequest request);
+
+    List<ParkedCartResponse> getParkedCarts(String terminalId);
+
+    ParkedCartResponse getParkedCart(String cartId);
+
+    OrderResponse resumeCart(String cartId);
+
+    void discardCart(String cartId);
+}
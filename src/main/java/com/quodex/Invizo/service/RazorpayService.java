@@ -5,4 +5,8 @@ import com.razorpay.RazorpayException;
 
 public interface RazorpayService {
     RazorpayOrderResponse createOrder(Double amount, String currency) throws RazorpayException;
+
+    String refundPayment(String razorpayPaymentId, Double amount, String receipt) throws RazorpayException;
+
+    String findRefund(String razorpayPaymentId, String receipt) throws RazorpayException;
 }
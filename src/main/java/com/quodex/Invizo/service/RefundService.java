@@ -0,0 +1,12 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.RefundRequest;
+import com.quodex.Invizo.io.RefundResponse;
+
+import java.util.List;
+
+public interface RefundService {
+    RefundResponse createRefund(String orderId, RefundRequest request);
+
+    List<RefundResponse> getRefunds(String orderId);
+}
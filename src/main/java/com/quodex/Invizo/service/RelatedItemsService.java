@@ -0,0 +1,9 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.RelatedItemResponse;
+
+import java.util.List;
+
+public interface RelatedItemsService {
+    List<RelatedItemResponse> getRelatedItems(String itemId, int limit);
+}
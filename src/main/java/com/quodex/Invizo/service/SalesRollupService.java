@@ -0,0 +1,22 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.entity.SalesRollupEntity;
+import com.quodex.Invizo.io.SalesRollupResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupService {
+    void aggregate();
+
+    int reaggregate(LocalDate from, LocalDate to);
+
+    List<SalesRollupResponse> getDailyRollups(LocalDate from, LocalDate to, SalesRollupEntity.Dimension dimension);
+
+    List<SalesRollupResponse> getHourlyRollups(LocalDateTime from, LocalDateTime to, SalesRollupEntity.Dimension dimension);
+
+    LocalDateTime getWatermark();
+
+    LocalDateTime getCoveredUntil();
+}
@@ -0,0 +1,9 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.SalesSeriesResponse;
+
+import java.time.LocalDate;
+
+public interface SalesSeriesService {
+    SalesSeriesResponse getSeries(LocalDate from, LocalDate to, String bucket, String groupBy);
+}
@@ -0,0 +1,23 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.ShiftRequest;
+import com.quodex.Invizo.io.ShiftResponse;
+
+import java.util.List;
+
+public interface ShiftService {
+    ShiftResponse openShift(ShiftRequest request);
+
+    ShiftResponse closeCurrentShift(ShiftRequest request);
+
+    ShiftResponse closeShift(String shiftId, ShiftRequest request);
+
+    ShiftResponse getCurrentShift();
+
+    ShiftResponse getShift(String shiftId);
+
+    List<ShiftResponse> getOpenShifts();
+
+    // Shift new orders and refunds by this cashier belong to; null when none is open
+    String findOpenShiftId(String cashier);
+}
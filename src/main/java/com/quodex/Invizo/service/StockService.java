@@ -0,0 +1,24 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.StockRequest;
+import com.quodex.Invizo.io.StockResponse;
+
+import java.util.List;
+import java.util.Map;
+
+public interface StockService {
+    // Takes the sold units (itemId to quantity) off the stock within the caller's transaction;
+    // 409 when an item has not enough left. Returns the items that are now low on stock
+    List<StockResponse> reserve(Map<String, Integer> quantities);
+
+    // Puts units back, e.g. for a voided order, within the caller's transaction
+    void release(Map<String, Integer> quantities);
+
+    StockResponse setStock(String itemId, StockRequest request);
+
+    StockResponse getStock(String itemId);
+
+    List<StockResponse> getLowStock();
+
+    List<StockResponse> getHotItems();
+}
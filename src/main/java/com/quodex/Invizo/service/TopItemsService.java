@@ -0,0 +1,9 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.TopItemsResponse;
+
+public interface TopItemsService {
+    TopItemsResponse getTopItems(String period, int limit);
+
+    TopItemsResponse getExactTopItems(String period, int limit);
+}
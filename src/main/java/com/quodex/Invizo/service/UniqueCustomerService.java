@@ -0,0 +1,11 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.UniqueCustomersResponse;
+
+import java.time.LocalDate;
+
+public interface UniqueCustomerService {
+    UniqueCustomersResponse countUniqueCustomers(LocalDate from, LocalDate to, String bucket);
+
+    int rebuild(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,16 @@
+package com.quodex.Invizo.service;
+
+import com.quodex.Invizo.io.ZReportResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ZReportService {
+    // Closes the period since the previous report and stores the report
+    ZReportResponse generate();
+
+    ZReportResponse getReport(Long reportNumber);
+
+    // Reports whose period ended on the given day
+    List<ZReportResponse> getReports(LocalDate date);
+}
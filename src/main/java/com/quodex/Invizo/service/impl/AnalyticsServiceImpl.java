@@ -0,0 +1,182 @@
+/**
+ * AnalyticsServiceImpl.java
+ *
+ * Optional in-memory analytics engine (invizo.analytics.enabled=true) for ad-hoc questions such as
+ * sales by hour of week, average basket or payment mix, without scanning the orders table.
+ *
+ * All orders are loaded into an OrderColumnStore at startup in one streaming pass; after that
+ * every created order is appended, refunds update the refunded column and voided orders are
+ * flagged. Events that arrive while the initial load is running are queued and applied after it.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.analytics.OrderColumnStore;
+import com.quodex.Invizo.analytics.OrderColumnStore.GroupBy;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.AnalyticsResponse;
+import com.quodex.Invizo.io.AnalyticsRow;
+import com.quodex.Invizo.io.OrderItemResponse;
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.service.AnalyticsService;
+import com.quodex.Invizo.util.PaymentMethod;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@ConditionalOnProperty(name = "invizo.analytics.enabled", havingValue = "true")
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    // Day grouping allocates one accumulator per day; keep it to a few years
+    private static final long MAX_DAYS = 3 * 366;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderColumnStore store = new OrderColumnStore();
+
+    // Events seen while the initial load runs; null once it has finished. Guarded by store
+    private List<OrderEvent> pendingEvents = new ArrayList<>();
+
+    public AnalyticsServiceImpl(OrderRepository orderRepository, TransactionTemplate transactionTemplate) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public AnalyticsResponse query(LocalDate from, LocalDate to, Set<PaymentMethod> paymentMethods, String itemId, String groupBy) {
+        GroupBy grouping;
+        try {
+            grouping = groupBy == null ? GroupBy.NONE : GroupBy.valueOf(groupBy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown groupBy: " + groupBy);
+        }
+        if (grouping == GroupBy.DAY && (from == null || to == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Grouping by day needs from and to");
+        }
+        if (from != null && to != null && (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+        }
+
+        long start = System.nanoTime();
+        List<OrderColumnStore.Group> groups = store.query(new OrderColumnStore.Query(
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                paymentMethods,
+                itemId,
+                grouping));
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        return AnalyticsResponse.builder()
+                .groupBy(grouping.name())
+                .rows(groups.stream().map(this::convertToRow).collect(Collectors.toList()))
+                .scannedOrders(store.size())
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = orderRepository.streamOrderFacts()) {
+                // Rows arrive grouped by order; collect one order's lines, then append it
+                String orderId = null;
+                Object[] order = null;
+                List<OrderColumnStore.Line> lines = new ArrayList<>();
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    if (!row[0].equals(orderId)) {
+                        appendRow(order, lines);
+                        orderId = (String) row[0];
+                        order = row;
+                        lines = new ArrayList<>();
+                    }
+                    if (row[5] != null) {
+                        int quantity = row[7] != null ? ((Number) row[7]).intValue() : 0;
+                        double price = row[8] != null ? ((Number) row[8]).doubleValue() : 0.0;
+                        lines.add(new OrderColumnStore.Line((String) row[5], (String) row[6], quantity, toPaise(price * quantity)));
+                    }
+                }
+                appendRow(order, lines);
+            }
+        });
+
+        // Applied under the lock, so a new event cannot overtake a queued one (a DELETED before its CREATED)
+        synchronized (store) {
+            pendingEvents.forEach(this::apply);
+            pendingEvents = null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        synchronized (store) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(OrderEvent event) {
+        OrderResponse order = event.getOrder();
+        switch (event.getType()) {
+            case CREATED -> {
+                List<OrderColumnStore.Line> lines = new ArrayList<>();
+                if (order.getItems() != null) {
+                    for (OrderItemResponse item : order.getItems()) {
+                        int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+                        double price = item.getPrice() != null ? item.getPrice() : 0.0;
+                        lines.add(new OrderColumnStore.Line(item.getItemId(), item.getName(), quantity, toPaise(price * quantity)));
+                    }
+                }
+                store.append(order.getOrderId(), order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now(),
+                        order.getPaymentMethod(), toPaise(order.getGrandTotal()), toPaise(order.getRefundedAmount()), lines);
+            }
+            case REFUNDED -> store.setRefunded(order.getOrderId(), toPaise(order.getRefundedAmount()));
+            case DELETED -> store.markVoided(order.getOrderId());
+            case PAYMENT_COMPLETED -> { }
+        }
+    }
+
+    private void appendRow(Object[] order, List<OrderColumnStore.Line> lines) {
+        if (order == null) {
+            return;
+        }
+        store.append((String) order[0], (LocalDateTime) order[1], (PaymentMethod) order[2],
+                toPaise((Double) order[3]), toPaise(((Number) order[4]).doubleValue()), lines);
+    }
+
+    private AnalyticsRow convertToRow(OrderColumnStore.Group group) {
+        long netPaise = group.grossPaise() - group.refundedPaise();
+        return AnalyticsRow.builder()
+                .key(String.valueOf(group.key()))
+                .label(group.label())
+                .orders(group.orders())
+                .grossSales(group.grossPaise() / 100.0)
+                .refundedAmount(group.refundedPaise() / 100.0)
+                .netSales(netPaise / 100.0)
+                .averageBasket(Math.round((double) netPaise / group.orders()) / 100.0)
+                .units(group.units())
+                .build();
+    }
+
+    private static long toPaise(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+}
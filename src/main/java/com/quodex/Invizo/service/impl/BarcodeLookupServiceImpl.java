@@ -0,0 +1,120 @@
+/**
+ * BarcodeLookupServiceImpl.java
+ *
+ * Resolves scanned codes (GET /items/by-barcode/{code}) from in-memory hash maps, so a scan
+ * costs a version check and a map lookup instead of a database round trip.
+ *
+ * Barcodes and SKUs are kept in separate maps, each under its own normalization; a code is
+ * looked up as a barcode first. The maps follow the catalog through a CatalogFollower. While an
+ * item is being replaced its codes briefly resolve to nothing, never to another item, because
+ * the item service keeps codes unique across barcodes and SKUs.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.CatalogFollower;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.io.ItemResponse;
+import com.quodex.Invizo.service.BarcodeLookupService;
+import com.quodex.Invizo.service.CatalogChangeService;
+import com.quodex.Invizo.service.ItemService;
+import com.quodex.Invizo.util.Barcodes;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class BarcodeLookupServiceImpl implements BarcodeLookupService {
+
+    private final Map<String, ItemResponse> byBarcode = new ConcurrentHashMap<>();
+    private final Map<String, ItemResponse> bySku = new ConcurrentHashMap<>();
+    // Each item as indexed, to unindex its old codes on change. Only written while syncing
+    private final Map<String, ItemResponse> byItemId = new ConcurrentHashMap<>();
+    private final CatalogFollower catalog;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public BarcodeLookupServiceImpl(ItemService itemService,
+                                    CatalogChangeService catalogChangeService,
+                                    ResourceVersions resourceVersions) {
+        this.catalog = new CatalogFollower(itemService, catalogChangeService, resourceVersions, new CatalogFollower.View() {
+            @Override
+            public void put(ItemResponse item) {
+                remove(item.getItemId());
+                byItemId.put(item.getItemId(), item);
+                if (item.getBarcodes() != null) {
+                    item.getBarcodes().forEach(code -> byBarcode.put(code, item));
+                }
+                if (item.getSku() != null) {
+                    bySku.put(item.getSku(), item);
+                }
+            }
+
+            @Override
+            public void remove(String itemId) {
+                ItemResponse old = byItemId.remove(itemId);
+                if (old == null) {
+                    return;
+                }
+                if (old.getBarcodes() != null) {
+                    old.getBarcodes().forEach(code -> byBarcode.remove(code, old));
+                }
+                if (old.getSku() != null) {
+                    bySku.remove(old.getSku(), old);
+                }
+            }
+
+            @Override
+            public Set<String> itemIds() {
+                return new HashSet<>(byItemId.keySet());
+            }
+        });
+    }
+
+    @Override
+    public ItemResponse findByBarcode(String code) {
+        catalog.sync();
+        ItemResponse item = null;
+        String barcode = Barcodes.normalize(code);
+        if (barcode != null) {
+            item = byBarcode.get(barcode);
+        }
+        if (item == null) {
+            String sku = Barcodes.normalizeSku(code);
+            item = sku != null ? bySku.get(sku) : null;
+        }
+        if (item == null) {
+            misses.increment();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No item with barcode or SKU " + code);
+        }
+        hits.increment();
+        return item;
+    }
+
+    // Indexed codes and how many scans were resolved
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("items", byItemId.size());
+        stats.put("barcodes", byBarcode.size());
+        stats.put("skus", bySku.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        catalog.sync();
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * CatalogChangeServiceImpl.java
+ *
+ * Catalog change log for delta sync: POS terminals keep a local copy of the catalog and ask
+ * for what changed since the last sequence number they saw, instead of downloading it all.
+ *
+ * Every item and category mutation records a change row in the same transaction; the row's
+ * identity is the sequence number. Only the latest change per entity is kept, so the log never
+ * grows beyond the catalog plus its tombstones, and a terminal syncing from 0 gets exactly the
+ * current catalog.
+ *
+ * Sequence numbers must become visible in order, or a terminal could read 7 while 6 is still
+ * uncommitted and skip 6 forever. Writes therefore go through write(), which runs one catalog
+ * mutation at a time. That lock is per instance; several instances writing the catalog would
+ * need a database lock instead.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.CatalogCache;
+import com.quodex.Invizo.entity.CatalogChangeEntity;
+import com.quodex.Invizo.entity.CatalogChangeEntity.ChangeType;
+import com.quodex.Invizo.entity.CatalogChangeEntity.EntityType;
+import com.quodex.Invizo.io.CatalogChangesResponse;
+import com.quodex.Invizo.io.CategoryResponse;
+import com.quodex.Invizo.io.ItemResponse;
+import com.quodex.Invizo.repository.CatalogChangeRepository;
+import com.quodex.Invizo.service.CatalogChangeService;
+import com.quodex.Invizo.service.CategoryService;
+import com.quodex.Invizo.service.ItemService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Service
+public class CatalogChangeServiceImpl implements CatalogChangeService {
+
+    private static final int MAX_LIMIT = 5000;
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemService itemService;
+    private final CategoryService categoryService;
+    private final CatalogCache catalogCache;
+
+    // Orders catalog writes so sequence numbers commit in the order they were assigned
+    private final Object writeLock = new Object();
+
+    // The item and category services record their changes here, hence the lazy references back
+    public CatalogChangeServiceImpl(CatalogChangeRepository catalogChangeRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Lazy ItemService itemService,
+                                    @Lazy CategoryService categoryService,
+                                    CatalogCache catalogCache) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemService = itemService;
+        this.categoryService = categoryService;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    public <T> T write(Supplier<T> mutation) {
+        synchronized (writeLock) {
+            return transactionTemplate.execute(status -> mutation.get());
+        }
+    }
+
+    @Override
+    public void record(EntityType entityType, String entityId, ChangeType changeType) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Catalog changes must be recorded inside write()");
+        }
+        CatalogChangeEntity change = catalogChangeRepository.save(CatalogChangeEntity.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .changeType(changeType)
+                .build());
+        catalogChangeRepository.deleteSuperseded(entityType, entityId, change.getId());
+        invalidateOnCompletion(entityType, List.of(entityId), changeType);
+    }
+
+    @Override
+    public void recordAll(EntityType entityType, Collection<String> entityIds, ChangeType changeType) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Catalog changes must be recorded inside write()");
+        }
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        // Writes are serialized, so dropping the old rows first is the same as dropping them after
+        catalogChangeRepository.deleteByEntityIds(entityType, entityIds);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entityIds.size());
+        for (String entityId : entityIds) {
+            rows.add(new Object[]{entityType.name(), entityId, changeType.name(), now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO catalog_changes (entity_type, entity_id, change_type, changed_at) VALUES (?, ?, ?, ?)", rows);
+        invalidateOnCompletion(entityType, List.copyOf(entityIds), changeType);
+    }
+
+    // Cached lookups of the changed entities are dropped once readers can see the change
+    private void invalidateOnCompletion(EntityType entityType, Collection<String> entityIds, ChangeType changeType) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                catalogCache.invalidate(entityType, entityIds, changeType);
+            }
+        });
+    }
+
+    @Override
+    public CatalogChangesResponse getChanges(long since, int limit) {
+        if (since < 0 || limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must be 0 or more and limit between 1 and " + MAX_LIMIT);
+        }
+        long latestSequence = getLatestSequence();
+        if (since > latestSequence) {
+            // The terminal saw sequence numbers this database never issued, e.g. after a restore
+            return CatalogChangesResponse.builder()
+                    .since(since)
+                    .sequence(latestSequence)
+                    .hasMore(false)
+                    .resetRequired(true)
+                    .items(List.of())
+                    .categories(List.of())
+                    .deletedItemIds(List.of())
+                    .deletedCategoryIds(List.of())
+                    .build();
+        }
+
+        // One extra row tells whether another page follows
+        List<CatalogChangeEntity> changes = catalogChangeRepository.findByIdGreaterThanOrderByIdAsc(since, PageRequest.of(0, limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        Set<String> upsertedItems = new LinkedHashSet<>();
+        Set<String> upsertedCategories = new LinkedHashSet<>();
+        Set<String> deletedItems = new LinkedHashSet<>();
+        Set<String> deletedCategories = new LinkedHashSet<>();
+        for (CatalogChangeEntity change : changes) {
+            boolean item = change.getEntityType() == EntityType.ITEM;
+            if (change.getChangeType() == ChangeType.DELETE) {
+                (item ? deletedItems : deletedCategories).add(change.getEntityId());
+            } else {
+                (item ? upsertedItems : upsertedCategories).add(change.getEntityId());
+            }
+        }
+
+        // Current state of everything upserted; an entity deleted since then is reported as deleted,
+        // its tombstone follows in a later page anyway
+        List<ItemResponse> items = itemService.getItemsByIds(upsertedItems);
+        List<CategoryResponse> categories = categoryService.getCategoriesByIds(upsertedCategories);
+        items.forEach(found -> upsertedItems.remove(found.getItemId()));
+        categories.forEach(found -> upsertedCategories.remove(found.getCategoryId()));
+        deletedItems.addAll(upsertedItems);
+        deletedCategories.addAll(upsertedCategories);
+
+        return CatalogChangesResponse.builder()
+                .since(since)
+                .sequence(changes.isEmpty() ? since : changes.get(changes.size() - 1).getId())
+                .hasMore(hasMore)
+                .resetRequired(false)
+                .items(items)
+                .categories(categories)
+                .deletedItemIds(new ArrayList<>(deletedItems))
+                .deletedCategoryIds(new ArrayList<>(deletedCategories))
+                .build();
+    }
+
+    @Override
+    public long getLatestSequence() {
+        Long latest = catalogChangeRepository.findLatestSequence();
+        return latest != null ? latest : 0L;
+    }
+}
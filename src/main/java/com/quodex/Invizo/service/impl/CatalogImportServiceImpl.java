@@ -0,0 +1,649 @@
+/**
+ * CatalogImportServiceImpl.java
+ *
+ * Bulk catalog import (POST /admin/catalog/import) for onboarding a shop: a CSV of items plus an
+ * optional zip of the images it names, instead of hundreds of single POST /admin/items calls
+ * that each upload their image synchronously.
+ *
+ * The uploads are copied to temporary files and imported by one background worker, so the
+ * request returns at once and imports never run concurrently. The CSV is parsed as a stream and
+ * handled in chunks of CHUNK_SIZE rows; per chunk:
+ * - categories (by categoryId or name) are resolved with one query and remembered,
+ * - SKUs and barcodes are checked against the file and the database with two queries,
+ * - images are uploaded in parallel on a fixed pool of uploader threads,
+ * - items and barcodes are inserted with JDBC batches in one transaction that also records the
+ *   catalog changes, so the search index, barcode map and POS delta sync pick them up.
+ *
+ * A bad row is skipped and reported with its row number; it never fails the rest of the import.
+ * Progress and errors are kept in memory for the last MAX_JOBS imports.
+ *
+ * CSV columns, matched by header name in any order: name, price and category are required;
+ * description, sku, barcodes (separated by '|') and image (file name in the zip) are optional.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.entity.CatalogChangeEntity.ChangeType;
+import com.quodex.Invizo.entity.CatalogChangeEntity.EntityType;
+import com.quodex.Invizo.entity.CategoryEntity;
+import com.quodex.Invizo.io.CatalogImportError;
+import com.quodex.Invizo.io.CatalogImportResponse;
+import com.quodex.Invizo.repository.CategoryRepository;
+import com.quodex.Invizo.repository.ItemRepository;
+import com.quodex.Invizo.service.CatalogChangeService;
+import com.quodex.Invizo.service.CatalogImportService;
+import com.quodex.Invizo.service.FileUploadService;
+import com.quodex.Invizo.util.Barcodes;
+import com.quodex.Invizo.util.CsvReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_ROWS = 50_000;
+    private static final int MAX_ERRORS = 1000;
+    private static final int MAX_JOBS = 20;
+    private static final int MAX_BARCODES = 20;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final long MAX_IMAGE_BYTES = 10L * 1024 * 1024;
+
+    private final CategoryRepository categoryRepository;
+    private final ItemRepository itemRepository;
+    private final CatalogChangeService catalogChangeService;
+    private final FileUploadService fileUploadService;
+    private final ResourceVersions resourceVersions;
+    private final JdbcTemplate jdbcTemplate;
+
+    // One import at a time, in the order they were started
+    private final ExecutorService importer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Bounds the Cloudinary uploads in flight
+    private final ExecutorService uploader;
+
+    // Oldest first
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public CatalogImportServiceImpl(CategoryRepository categoryRepository,
+                                    ItemRepository itemRepository,
+                                    CatalogChangeService catalogChangeService,
+                                    FileUploadService fileUploadService,
+                                    ResourceVersions resourceVersions,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Value("${invizo.import.upload-threads:8}") int uploadThreads) {
+        this.categoryRepository = categoryRepository;
+        this.itemRepository = itemRepository;
+        this.catalogChangeService = catalogChangeService;
+        this.fileUploadService = fileUploadService;
+        this.resourceVersions = resourceVersions;
+        this.jdbcTemplate = jdbcTemplate;
+        AtomicInteger threads = new AtomicInteger();
+        this.uploader = Executors.newFixedThreadPool(uploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-import-upload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CatalogImportResponse startImport(MultipartFile csv, MultipartFile images) {
+        if (csv == null || csv.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A CSV file is required");
+        }
+        // The request's files are gone once it returns; the import works on copies
+        Path csvPath = null;
+        Path zipPath = null;
+        try {
+            csvPath = Files.createTempFile("catalog-import-", ".csv");
+            csv.transferTo(csvPath);
+            if (images != null && !images.isEmpty()) {
+                zipPath = Files.createTempFile("catalog-import-", ".zip");
+                images.transferTo(zipPath);
+            }
+        } catch (IOException e) {
+            deleteQuietly(csvPath);
+            deleteQuietly(zipPath);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not store the upload", e);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), csv.getOriginalFilename(), csv.getSize());
+        synchronized (jobs) {
+            jobs.put(job.importId, job);
+            // Forget the oldest finished imports
+            Iterator<Job> oldest = jobs.values().iterator();
+            while (jobs.size() > MAX_JOBS && oldest.hasNext()) {
+                if (oldest.next().finishedAt != null) {
+                    oldest.remove();
+                }
+            }
+        }
+        Path csvFile = csvPath;
+        Path zipFile = zipPath;
+        importer.submit(() -> run(job, csvFile, zipFile));
+        return job.toResponse(true);
+    }
+
+    @Override
+    public CatalogImportResponse getImport(String importId) {
+        Job job = jobs.get(importId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import Not Found");
+        }
+        return job.toResponse(true);
+    }
+
+    @Override
+    public List<CatalogImportResponse> getImports() {
+        List<Job> recent;
+        synchronized (jobs) {
+            recent = new ArrayList<>(jobs.values());
+        }
+        Collections.reverse(recent);
+        return recent.stream().map(job -> job.toResponse(false)).collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importer.shutdownNow();
+        uploader.shutdownNow();
+    }
+
+    private void run(Job job, Path csvPath, Path zipPath) {
+        job.startedAt = LocalDateTime.now();
+        job.status = "RUNNING";
+        try (InputStream in = new CountingInputStream(Files.newInputStream(csvPath), job.bytesRead);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             CsvReader csv = new CsvReader(reader);
+             ZipFile zip = zipPath != null ? new ZipFile(zipPath.toFile(), StandardCharsets.UTF_8) : null) {
+            Columns columns = Columns.of(csv.next());
+            Map<String, ZipEntry> images = zip != null ? images(zip) : Map.of();
+            Imports imports = new Imports(job, zip);
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            long rowNumber = 1;
+            List<String> fields;
+            while ((fields = csv.next()) != null) {
+                rowNumber++;
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                if (job.rowsRead.get() == MAX_ROWS) {
+                    job.message = "Only the first " + MAX_ROWS + " rows were read";
+                    break;
+                }
+                job.rowsRead.incrementAndGet();
+                Row row = parse(job, rowNumber, fields, columns, zip, images);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    imports.importChunk(chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imports.importChunk(chunk);
+            }
+            job.status = "COMPLETED";
+        } catch (Exception e) {
+            job.message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteQuietly(csvPath);
+            deleteQuietly(zipPath);
+        }
+    }
+
+    // Checks one CSV row on its own; null (and an error on the job) when it cannot be imported
+    private Row parse(Job job, long rowNumber, List<String> fields, Columns columns, ZipFile zip, Map<String, ZipEntry> images) {
+        String name = columns.get(fields, columns.name);
+        if (name == null) {
+            job.error(rowNumber, null, "name is required");
+            return null;
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            job.error(rowNumber, name, "name is longer than " + MAX_NAME_LENGTH + " characters");
+            return null;
+        }
+        BigDecimal price;
+        try {
+            price = new BigDecimal(Objects.requireNonNull(columns.get(fields, columns.price)));
+        } catch (NullPointerException | NumberFormatException e) {
+            job.error(rowNumber, name, "price must be a number");
+            return null;
+        }
+        if (price.signum() < 0) {
+            job.error(rowNumber, name, "price cannot be negative");
+            return null;
+        }
+        String category = columns.get(fields, columns.category);
+        if (category == null) {
+            job.error(rowNumber, name, "category is required");
+            return null;
+        }
+
+        String sku = Barcodes.normalizeSku(columns.get(fields, columns.sku));
+        if (sku != null && !Barcodes.isValidSku(sku)) {
+            job.error(rowNumber, name, "Invalid SKU: " + sku);
+            return null;
+        }
+        Set<String> barcodes = new LinkedHashSet<>();
+        String barcodeList = columns.get(fields, columns.barcodes);
+        if (barcodeList != null) {
+            for (String barcode : barcodeList.split("\\|")) {
+                String code = Barcodes.normalize(barcode);
+                if (code != null && !Barcodes.isValid(code)) {
+                    job.error(rowNumber, name, "Invalid barcode: " + barcode.strip());
+                    return null;
+                }
+                if (code != null) {
+                    barcodes.add(code);
+                }
+            }
+        }
+        if (barcodes.size() > MAX_BARCODES) {
+            job.error(rowNumber, name, "At most " + MAX_BARCODES + " barcodes per item");
+            return null;
+        }
+
+        ZipEntry image = null;
+        String imageName = columns.get(fields, columns.image);
+        if (imageName != null) {
+            if (zip == null) {
+                job.error(rowNumber, name, "Image " + imageName + " given but no image archive was uploaded");
+                return null;
+            }
+            image = images.get(baseName(imageName));
+            if (image == null) {
+                job.error(rowNumber, name, "Image " + imageName + " is not in the archive");
+                return null;
+            }
+            if (image.getSize() > MAX_IMAGE_BYTES) {
+                job.error(rowNumber, name, "Image " + imageName + " is larger than 10 MB");
+                return null;
+            }
+        }
+        return new Row(rowNumber, UUID.randomUUID().toString(), name, columns.get(fields, columns.description),
+                price, category, sku, barcodes, image);
+    }
+
+    /**
+     * Chunk processing for one import, with what it remembers between chunks.
+     */
+    private final class Imports {
+        private final Job job;
+        private final ZipFile zip;
+        // Resolved category keys (categoryId, or lower-cased name); null for names shared by several
+        private final Map<String, Optional<CategoryEntity>> categories = new HashMap<>();
+        // SKUs and barcodes claimed by earlier rows of this file
+        private final Set<String> codesInFile = new HashSet<>();
+
+        Imports(Job job, ZipFile zip) {
+            this.job = job;
+            this.zip = zip;
+        }
+
+        void importChunk(List<Row> chunk) throws InterruptedException {
+            List<Row> rows = uploadImages(checkCodes(resolveCategories(chunk)));
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                catalogChangeService.write(() -> {
+                    insert(rows);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                String message = "Could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for (Row row : rows) {
+                    job.error(row.number, row.name, message);
+                    if (row.imgUrl != null) {
+                        fileUploadService.deleteFile(row.imgUrl);
+                    }
+                }
+                return;
+            }
+            job.imported.addAndGet(rows.size());
+            // New items, and the item counts of their categories
+            resourceVersions.bump(ResourceVersions.Family.ITEMS, ResourceVersions.Family.CATEGORIES);
+        }
+
+        // One query for the keys this import has not seen yet
+        private List<Row> resolveCategories(List<Row> chunk) {
+            Set<String> keys = new HashSet<>();
+            for (Row row : chunk) {
+                if (!categories.containsKey(row.categoryKey) && !categories.containsKey(row.categoryKey.toLowerCase())) {
+                    keys.add(row.categoryKey);
+                }
+            }
+            if (!keys.isEmpty()) {
+                Set<String> lowerKeys = keys.stream().map(String::toLowerCase).collect(Collectors.toSet());
+                Map<String, List<CategoryEntity>> byName = new HashMap<>();
+                for (CategoryEntity category : categoryRepository.findByCategoryIdOrNameIn(keys, lowerKeys)) {
+                    if (keys.contains(category.getCategoryId())) {
+                        categories.put(category.getCategoryId(), Optional.of(category));
+                    }
+                    if (category.getName() != null && lowerKeys.contains(category.getName().toLowerCase())) {
+                        byName.computeIfAbsent(category.getName().toLowerCase(), name -> new ArrayList<>()).add(category);
+                    }
+                }
+                byName.forEach((name, matches) -> categories.put(name,
+                        matches.size() == 1 ? Optional.of(matches.get(0)) : Optional.empty()));
+            }
+
+            List<Row> resolved = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                Optional<CategoryEntity> category = categories.get(row.categoryKey);
+                if (category == null) {
+                    category = categories.get(row.categoryKey.toLowerCase());
+                }
+                if (category == null) {
+                    job.error(row.number, row.name, "Unknown category: " + row.categoryKey);
+                } else if (category.isEmpty()) {
+                    job.error(row.number, row.name, "Several categories are named " + row.categoryKey + "; use the categoryId");
+                } else {
+                    row.category = category.get();
+                    resolved.add(row);
+                }
+            }
+            return resolved;
+        }
+
+        // A code may appear once in the file and must not belong to an existing item
+        private List<Row> checkCodes(List<Row> rows) {
+            Set<String> codes = new HashSet<>();
+            rows.forEach(row -> codes.addAll(row.codes()));
+            Set<String> taken = new HashSet<>();
+            if (!codes.isEmpty()) {
+                taken.addAll(itemRepository.findSkusIn(codes));
+                taken.addAll(itemRepository.findBarcodesIn(codes));
+            }
+            List<Row> checked = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                Optional<String> clash = row.codes().stream()
+                        .filter(code -> taken.contains(code) || codesInFile.contains(code))
+                        .findFirst();
+                if (clash.isPresent()) {
+                    job.error(row.number, row.name, "Barcode or SKU " + clash.get()
+                            + (taken.contains(clash.get()) ? " already used by another item" : " appears more than once in the file"));
+                } else {
+                    codesInFile.addAll(row.codes());
+                    checked.add(row);
+                }
+            }
+            return checked;
+        }
+
+        // All images of the chunk in parallel on the uploader pool
+        private List<Row> uploadImages(List<Row> rows) throws InterruptedException {
+            Map<Row, Future<String>> uploads = new LinkedHashMap<>();
+            for (Row row : rows) {
+                if (row.image != null) {
+                    uploads.put(row, uploader.submit(() -> {
+                        try (InputStream image = zip.getInputStream(row.image)) {
+                            return fileUploadService.uploadFile(image.readAllBytes());
+                        }
+                    }));
+                }
+            }
+            List<Row> uploaded = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                Future<String> upload = uploads.get(row);
+                if (upload == null) {
+                    uploaded.add(row);
+                    continue;
+                }
+                try {
+                    row.imgUrl = upload.get();
+                    job.imagesUploaded.incrementAndGet();
+                    uploaded.add(row);
+                } catch (ExecutionException e) {
+                    job.error(row.number, row.name, "Image upload failed: " + e.getCause().getMessage());
+                }
+            }
+            return uploaded;
+        }
+
+        private void insert(List<Row> rows) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> items = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                items.add(new Object[]{row.itemId, row.name, row.description, row.price, row.imgUrl, row.sku,
+                        row.category.getId(), now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (item_id, name, description, price, img_url, sku, category_id, "
+                    + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", items);
+
+            List<String> itemIds = rows.stream().map(row -> row.itemId).collect(Collectors.toList());
+            if (rows.stream().anyMatch(row -> !row.barcodes.isEmpty())) {
+                // Barcodes reference the generated item keys
+                Map<String, Long> keys = new HashMap<>();
+                for (Object[] pair : itemRepository.findIdsByItemIdIn(itemIds)) {
+                    keys.put((String) pair[0], (Long) pair[1]);
+                }
+                List<Object[]> barcodes = new ArrayList<>();
+                for (Row row : rows) {
+                    for (String code : row.barcodes) {
+                        barcodes.add(new Object[]{keys.get(row.itemId), code});
+                    }
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO item_barcodes (item_id, code) VALUES (?, ?)", barcodes);
+            }
+
+            catalogChangeService.recordAll(EntityType.ITEM, itemIds, ChangeType.UPSERT);
+            catalogChangeService.recordAll(EntityType.CATEGORY,
+                    rows.stream().map(row -> row.category.getCategoryId()).collect(Collectors.toCollection(LinkedHashSet::new)),
+                    ChangeType.UPSERT);
+        }
+    }
+
+    // Archive entries by lower-cased file name, ignoring folders inside the zip
+    private static Map<String, ZipEntry> images(ZipFile zip) {
+        Map<String, ZipEntry> images = new HashMap<>();
+        zip.stream()
+                .filter(entry -> !entry.isDirectory() && !entry.getName().startsWith("__MACOSX/"))
+                .forEach(entry -> images.putIfAbsent(baseName(entry.getName()), entry));
+        return images;
+    }
+
+    private static String baseName(String path) {
+        String name = path.strip().replace('\\', '/');
+        return name.substring(name.lastIndexOf('/') + 1).toLowerCase();
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // A temp file left behind is cleaned up with the temp directory
+            }
+        }
+    }
+
+    // Column positions from the header row; -1 for optional columns that are missing
+    private record Columns(int name, int description, int price, int category, int sku, int barcodes, int image) {
+
+        static Columns of(List<String> header) {
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV is empty");
+            }
+            List<String> names = header.stream().map(column -> column.strip().toLowerCase()).collect(Collectors.toList());
+            for (String required : List.of("name", "price", "category")) {
+                if (!names.contains(required)) {
+                    throw new IllegalArgumentException("The CSV header has no " + required + " column");
+                }
+            }
+            return new Columns(names.indexOf("name"), names.indexOf("description"), names.indexOf("price"),
+                    names.indexOf("category"), names.indexOf("sku"), names.indexOf("barcodes"), names.indexOf("image"));
+        }
+
+        // Trimmed value, or null when the column is missing or the cell is blank
+        String get(List<String> fields, int column) {
+            if (column < 0 || column >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(column).strip();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private static final class Row {
+        final long number;
+        final String itemId;
+        final String name;
+        final String description;
+        final BigDecimal price;
+        final String categoryKey;
+        final String sku;
+        final Set<String> barcodes;
+        final ZipEntry image;
+        CategoryEntity category;
+        String imgUrl;
+
+        Row(long number, String itemId, String name, String description, BigDecimal price, String categoryKey,
+            String sku, Set<String> barcodes, ZipEntry image) {
+            this.number = number;
+            this.itemId = itemId;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.categoryKey = categoryKey;
+            this.sku = sku;
+            this.barcodes = barcodes;
+            this.image = image;
+        }
+
+        Set<String> codes() {
+            if (sku == null) {
+                return barcodes;
+            }
+            Set<String> codes = new HashSet<>(barcodes);
+            codes.add(sku);
+            return codes;
+        }
+    }
+
+    private static final class Job {
+        final String importId;
+        final String fileName;
+        final long size;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong imagesUploaded = new AtomicLong();
+        volatile String status = "QUEUED";
+        volatile String message;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        // Guarded by this
+        final List<CatalogImportError> errors = new ArrayList<>();
+
+        Job(String importId, String fileName, long size) {
+            this.importId = importId;
+            this.fileName = fileName;
+            this.size = size;
+        }
+
+        void error(long row, String name, String message) {
+            failed.incrementAndGet();
+            synchronized (this) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(CatalogImportError.builder().row(row).name(name).message(message).build());
+                }
+            }
+        }
+
+        CatalogImportResponse toResponse(boolean withErrors) {
+            List<CatalogImportError> errorList = null;
+            if (withErrors) {
+                synchronized (this) {
+                    errorList = new ArrayList<>(errors);
+                }
+                // Collected stage by stage within a chunk; report them in file order
+                errorList.sort(Comparator.comparing(CatalogImportError::getRow));
+            }
+            double progress = finishedAt != null ? 1.0 : size > 0 ? Math.min(1.0, (double) bytesRead.get() / size) : 0.0;
+            return CatalogImportResponse.builder()
+                    .importId(importId)
+                    .status(status)
+                    .fileName(fileName)
+                    .progress(Math.round(progress * 1000) / 1000.0)
+                    .rowsRead(rowsRead.get())
+                    .imported(imported.get())
+                    .failed(failed.get())
+                    .imagesUploaded(imagesUploaded.get())
+                    .message(message)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .errors(errorList)
+                    .errorsTruncated(failed.get() > MAX_ERRORS)
+                    .build();
+        }
+    }
+
+    // Counts the bytes read from the CSV, for progress
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
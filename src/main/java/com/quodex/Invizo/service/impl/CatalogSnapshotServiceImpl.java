@@ -0,0 +1,108 @@
+/**
+ * CatalogSnapshotServiceImpl.java
+ *
+ * Serves /items and /categories from ready-to-send bytes instead of loading, mapping and
+ * serializing the whole catalog on every POS screen load.
+ *
+ * Each family keeps one CatalogSnapshot tagged with the ResourceVersions version it was built
+ * from. Admin mutations bump that version; the next request then finds the snapshot outdated
+ * and rebuilds it once (other requests for the same family wait for that rebuild rather than
+ * starting their own). Rebuilding on the first read instead of on every bump means a burst of
+ * edits, such as a catalog import, costs one rebuild.
+ *
+ * As everywhere with ResourceVersions, the version is read before the data is loaded, so a
+ * snapshot is never tagged newer than its contents.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quodex.Invizo.cache.CatalogSnapshot;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.service.CatalogSnapshotService;
+import com.quodex.Invizo.service.CategoryService;
+import com.quodex.Invizo.service.ItemService;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CatalogSnapshotServiceImpl implements CatalogSnapshotService {
+
+    private final ItemService itemService;
+    private final CategoryService categoryService;
+    private final ResourceVersions resourceVersions;
+    private final ObjectMapper objectMapper;
+
+    private final Map<ResourceVersions.Family, Holder> holders = new EnumMap<>(ResourceVersions.Family.class);
+
+    public CatalogSnapshotServiceImpl(ItemService itemService,
+                                      CategoryService categoryService,
+                                      ResourceVersions resourceVersions,
+                                      ObjectMapper objectMapper) {
+        this.itemService = itemService;
+        this.categoryService = categoryService;
+        this.resourceVersions = resourceVersions;
+        this.objectMapper = objectMapper;
+        holders.put(ResourceVersions.Family.ITEMS, new Holder());
+        holders.put(ResourceVersions.Family.CATEGORIES, new Holder());
+    }
+
+    @Override
+    public CatalogSnapshot getSnapshot(ResourceVersions.Family family) {
+        Holder holder = holders.get(family);
+        if (holder == null) {
+            throw new IllegalArgumentException("No catalog snapshot for " + family);
+        }
+        CatalogSnapshot snapshot = holder.snapshot;
+        if (snapshot != null && snapshot.etag().equals(resourceVersions.etag(family))) {
+            return snapshot;
+        }
+        synchronized (holder) {
+            // Someone else may have rebuilt it while we waited
+            String etag = resourceVersions.etag(family);
+            snapshot = holder.snapshot;
+            if (snapshot == null || !snapshot.etag().equals(etag)) {
+                snapshot = CatalogSnapshot.of(etag, serialize(family));
+                holder.snapshot = snapshot;
+                holder.builds.incrementAndGet();
+            }
+            return snapshot;
+        }
+    }
+
+    // Per family: ETag, size of the plain and gzip bodies, when it was built and how often
+    @Override
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        holders.forEach((family, holder) -> {
+            CatalogSnapshot snapshot = holder.snapshot;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("etag", snapshot != null ? snapshot.etag() : null);
+            entry.put("jsonBytes", snapshot != null ? snapshot.json().length : 0);
+            entry.put("gzipBytes", snapshot != null ? snapshot.gzip().length : 0);
+            entry.put("builtAt", snapshot != null ? snapshot.builtAt() : null);
+            entry.put("builds", holder.builds.get());
+            stats.put(family.name().toLowerCase(), entry);
+        });
+        return stats;
+    }
+
+    private byte[] serialize(ResourceVersions.Family family) {
+        Object body = family == ResourceVersions.Family.ITEMS ? itemService.getItems() : categoryService.getCategories();
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + family, e);
+        }
+    }
+
+    private static final class Holder {
+        volatile CatalogSnapshot snapshot;
+        final AtomicLong builds = new AtomicLong();
+    }
+}
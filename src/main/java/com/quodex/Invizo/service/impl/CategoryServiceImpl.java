@@ -1,16 +1,23 @@
 package com.quodex.Invizo.service.impl;
 
+import com.quodex.Invizo.cache.CatalogCache;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.entity.CatalogChangeEntity.ChangeType;
+import com.quodex.Invizo.entity.CatalogChangeEntity.EntityType;
 import com.quodex.Invizo.entity.CategoryEntity;
 import com.quodex.Invizo.io.CategoryRequest;
 import com.quodex.Invizo.io.CategoryResponse;
 import com.quodex.Invizo.repository.CategoryRepository;
-import com.quodex.Invizo.repository.ItemRepository;
+import com.quodex.Invizo.service.CatalogChangeService;
 import com.quodex.Invizo.service.CategoryService;
 import com.quodex.Invizo.service.FileUploadService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -23,7 +30,9 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
 
     private final FileUploadService fileUploadService;
-    private final ItemRepository itemRepository;
+    private final ResourceVersions resourceVersions;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogCache catalogCache;
 
     @Override
     public CategoryResponse addCategory(CategoryRequest request, MultipartFile file) {
@@ -31,9 +40,15 @@ public class CategoryServiceImpl implements CategoryService {
         // Convert request to entity and save to DB
         CategoryEntity newCategory = convertToEntity(request);
         newCategory.setImgUrl(imgUrl);
-        newCategory = categoryRepository.save(newCategory);
-        // Convert saved entity to response DTO
-        return convertToResponse(newCategory);
+        CategoryEntity category = newCategory;
+        newCategory = catalogChangeService.write(() -> {
+            CategoryEntity saved = categoryRepository.save(category);
+            catalogChangeService.record(EntityType.CATEGORY, saved.getCategoryId(), ChangeType.UPSERT);
+            return saved;
+        });
+        resourceVersions.bump(ResourceVersions.Family.CATEGORIES);
+        // Convert saved entity to response DTO; a new category has no items yet
+        return convertToResponse(newCategory, 0);
     }
 
 
@@ -41,31 +56,57 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public List<CategoryResponse> getCategories() {
-        return categoryRepository.findAll() // Fetch all category entities from the database
+        return categoryRepository.findAllWithItemCount() // Fetch all categories with their item counts in one query
                 .stream()
-                .map(categoryEntity -> convertToResponse(categoryEntity)) // Convert each entity to response DTO
+                .map(row -> convertToResponse((CategoryEntity) row[0], ((Number) row[1]).intValue())) // Convert each entity to response DTO
                 .collect(Collectors.toList()); // Collect and return as a list
     }
 
     @Override
     public void deleteCategory(String categoryId) {
-        CategoryEntity existingCategory = categoryRepository.findByCategoryId(categoryId)
+        Object[] row = categoryRepository.findByCategoryIdWithItemCount(categoryId).stream()
+                .findFirst()
                 .orElseThrow(() -> new RuntimeException("Category Not Found"));
+        CategoryEntity existingCategory = (CategoryEntity) row[0];
+        if (((Number) row[1]).intValue() > 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Category still has items; move or delete them first");
+        }
+        catalogChangeService.write(() -> {
+            // Items restrict the delete (an item added since the check fails it here), so no item tombstones are due
+            categoryRepository.delete(existingCategory);
+            catalogChangeService.record(EntityType.CATEGORY, existingCategory.getCategoryId(), ChangeType.DELETE);
+            return null;
+        });
+        // Only once the row is gone, so a failed delete keeps its image
         fileUploadService.deleteFile(existingCategory.getImgUrl());
-        categoryRepository.delete(existingCategory);
+        // Items carry their category name
+        resourceVersions.bump(ResourceVersions.Family.CATEGORIES, ResourceVersions.Family.ITEMS);
     }
 
     @Override
     public CategoryResponse getCategoryById(String categoryId) {
-        CategoryEntity existingCategory = categoryRepository.findByCategoryId(categoryId)
-                .orElseThrow(() -> new RuntimeException("Category Not Found"));
-        return convertToResponse(existingCategory);
+        return catalogCache.categories().get(categoryId, id -> {
+            Object[] row = categoryRepository.findByCategoryIdWithItemCount(id).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Category Not Found"));
+            return convertToResponse((CategoryEntity) row[0], ((Number) row[1]).intValue());
+        });
+    }
+
+    @Override
+    public List<CategoryResponse> getCategoriesByIds(Collection<String> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return List.of();
+        }
+        return categoryRepository.findByCategoryIdInWithItemCount(categoryIds)
+                .stream()
+                .map(row -> convertToResponse((CategoryEntity) row[0], ((Number) row[1]).intValue()))
+                .collect(Collectors.toList());
     }
 
 
     // Converts entity to response DTO
-    private CategoryResponse convertToResponse(CategoryEntity newCategory) {
-        Integer totalItems = itemRepository.countByCategoryId(newCategory.getId());
+    private CategoryResponse convertToResponse(CategoryEntity newCategory, Integer totalItems) {
         return CategoryResponse.builder()
                 .categoryId(newCategory.getCategoryId())
                 .name(newCategory.getName())
@@ -0,0 +1,56 @@
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.ReadThroughCache;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.CustomerOrderSummary;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.service.CustomerService;
+import com.quodex.Invizo.util.MobileNumbers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+
+@Service
+public class CustomerServiceImpl implements CustomerService {
+
+    // How many of a customer's latest bills the history screen shows
+    private static final int RECENT_ORDERS = 20;
+
+    private final OrderRepository orderRepository;
+
+    // Recent order summaries per normalized mobile number; dropped whenever that customer's orders change.
+    // A lookup that raced such a change is not cached, so a pre-commit history cannot outlive the eviction
+    private final ReadThroughCache<String, List<CustomerOrderSummary>> recentOrders;
+
+    public CustomerServiceImpl(OrderRepository orderRepository,
+                               @Value("${invizo.customers.cache-size:2000}") int cacheSize,
+                               @Value("${invizo.customers.cache-ttl-minutes:30}") long cacheTtlMinutes) {
+        this.orderRepository = orderRepository;
+        this.recentOrders = new ReadThroughCache<>(cacheSize, Duration.ofMinutes(cacheTtlMinutes));
+    }
+
+    @Override
+    public List<CustomerOrderSummary> getRecentOrders(String mobileNumber) {
+        String mobile = MobileNumbers.normalize(mobileNumber);
+        if (mobile == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid mobile number");
+        }
+        return recentOrders.get(mobile, key ->
+                List.copyOf(orderRepository.findRecentSummariesByMobileNumber(key, PageRequest.of(0, RECENT_ORDERS))));
+    }
+
+    // Any write to a customer's order invalidates their cached history (runs after the write commits)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        String mobile = MobileNumbers.normalize(event.getOrder().getMobileNumber());
+        if (mobile != null) {
+            recentOrders.invalidate(List.of(mobile));
+        }
+    }
+}
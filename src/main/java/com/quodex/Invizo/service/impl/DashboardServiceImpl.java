@@ -0,0 +1,216 @@
+/**
+ * DashboardServiceImpl.java
+ *
+ * Serves GET /dashboard from memory instead of running three queries on every poll.
+ *
+ * Today's sales (in paise) and order count are kept in striped counters (LongAdder), and the
+ * most recent orders in a small ring buffer. Both are updated incrementally from OrderEvents
+ * (created, payment completed, refunded, deleted).
+ *
+ * The in-memory figures are reconciled against the database periodically and when the day
+ * rolls over at midnight, so any drift (e.g. orders written by another instance) is corrected.
+ *
+ * Every change bumps the DASHBOARD version used as the ETag of GET /dashboard. The bump happens
+ * here, after the figures changed, rather than where orders are written, so a poll can never
+ * see the new tag together with the old figures.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.DashboardResponse;
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.service.DashboardService;
+import com.quodex.Invizo.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+@RequiredArgsConstructor
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int RECENT_ORDERS = 5;
+
+    private final OrderService orderService;
+    private final ResourceVersions resourceVersions;
+
+    private final LongAdder todaySalesPaise = new LongAdder();
+    private final LongAdder todayOrderCount = new LongAdder();
+    // Newest order last; guarded by its own monitor
+    private final OrderResponse[] recentOrders = new OrderResponse[RECENT_ORDERS];
+    private int recentHead = 0;
+    private volatile LocalDate today = LocalDate.now();
+
+    // Event updates share the read lock; a reconcile takes the write lock, reloads and replaces everything
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    @Override
+    public DashboardResponse getDashboard() {
+        if (!LocalDate.now().equals(today)) {
+            // First poll after midnight, before the scheduled rollover has run
+            reconcile();
+        }
+        return new DashboardResponse(
+                todaySalesPaise.sum() / 100.0,
+                todayOrderCount.sum(),
+                recentOrders()
+        );
+    }
+
+    /**
+     * Replaces the in-memory figures with what the database says right now.
+     */
+    @Override
+    public void reconcile() {
+        // The read happens under the write lock: an event applied between the read and the swap
+        // would be wiped out, and one applied before the read would be counted twice.
+        // Event listeners wait for the (two statement) read; GET /dashboard does not.
+        reconcileLock.writeLock().lock();
+        try {
+            LocalDate date = LocalDate.now();
+            // Two statements, see OrderServiceImpl.loadDashboard
+            DashboardResponse loaded = orderService.loadDashboard(date);
+            Double sales = loaded.getTodaySales();
+            Long count = loaded.getTodayOrderCount();
+            List<OrderResponse> recent = loaded.getRecentOrders();
+
+            today = date;
+            todaySalesPaise.reset();
+            todaySalesPaise.add(toPaise(sales));
+            todayOrderCount.reset();
+            todayOrderCount.add(count != null ? count : 0);
+            synchronized (recentOrders) {
+                Arrays.fill(recentOrders, null);
+                recentHead = 0;
+                // Repository returns newest first; the ring keeps newest last
+                for (int i = recent.size() - 1; i >= 0; i--) {
+                    pushRecent(recent.get(i));
+                }
+            }
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+        resourceVersions.bump(ResourceVersions.Family.DASHBOARD);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${invizo.dashboard.reconcile-interval-ms:300000}",
+            initialDelayString = "${invizo.dashboard.reconcile-interval-ms:300000}")
+    public void reconcilePeriodically() {
+        reconcile();
+    }
+
+    // Midnight rollover: start the new day from the database
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollOver() {
+        reconcile();
+    }
+
+    // Ahead of other listeners (e.g. the dashboard stream) that read the updated figures
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        OrderResponse order = event.getOrder();
+        reconcileLock.readLock().lock();
+        try {
+            boolean placedToday = order.getCreatedAt() != null && order.getCreatedAt().toLocalDate().equals(today);
+            switch (event.getType()) {
+                case CREATED -> {
+                    if (placedToday) {
+                        todaySalesPaise.add(toPaise(order.getGrandTotal()));
+                        todayOrderCount.increment();
+                    }
+                    synchronized (recentOrders) {
+                        pushRecent(order);
+                    }
+                }
+                case PAYMENT_COMPLETED -> replaceRecent(order);
+                case REFUNDED -> {
+                    if (placedToday) {
+                        todaySalesPaise.add(-toPaise(event.getRefund().getAmount()));
+                    }
+                    replaceRecent(order);
+                }
+                case DELETED -> {
+                    if (placedToday) {
+                        // Voided orders never have refunds
+                        todaySalesPaise.add(-toPaise(order.getGrandTotal()));
+                        todayOrderCount.decrement();
+                    }
+                }
+            }
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+        // Only now does GET /dashboard show the change
+        resourceVersions.bump(ResourceVersions.Family.DASHBOARD);
+        if (event.getType() == OrderEvent.Type.DELETED && isRecent(order.getOrderId())) {
+            // A recent order disappeared; refill the ring from the database
+            reconcile();
+        }
+    }
+
+    // Caller holds the recentOrders monitor
+    private void pushRecent(OrderResponse order) {
+        recentOrders[recentHead] = order;
+        recentHead = (recentHead + 1) % RECENT_ORDERS;
+    }
+
+    private void replaceRecent(OrderResponse order) {
+        synchronized (recentOrders) {
+            for (int i = 0; i < RECENT_ORDERS; i++) {
+                if (recentOrders[i] != null && recentOrders[i].getOrderId().equals(order.getOrderId())) {
+                    recentOrders[i] = order;
+                }
+            }
+        }
+    }
+
+    private boolean isRecent(String orderId) {
+        synchronized (recentOrders) {
+            for (OrderResponse order : recentOrders) {
+                if (order != null && order.getOrderId().equals(orderId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Newest first, like findTop5RecentOrdersNative
+    private List<OrderResponse> recentOrders() {
+        List<OrderResponse> orders = new ArrayList<>(RECENT_ORDERS);
+        synchronized (recentOrders) {
+            for (int i = 1; i <= RECENT_ORDERS; i++) {
+                OrderResponse order = recentOrders[(recentHead - i + RECENT_ORDERS) % RECENT_ORDERS];
+                if (order != null) {
+                    orders.add(order);
+                }
+            }
+        }
+        return orders;
+    }
+
+    private long toPaise(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * DashboardStreamServiceImpl.java
+ *
+ * Pushes dashboard changes to open screens over Server-Sent Events (GET /dashboard/stream),
+ * so load grows with order activity rather than with the number of screens polling.
+ *
+ *  How it works:
+ * - Every committed OrderEvent becomes one compact DashboardDelta, fanned out to all subscribers.
+ * - Each subscriber has a small bounded buffer. If a client falls so far behind that its buffer
+ *   fills up, the pending deltas are dropped and replaced by a single SNAPSHOT of the current
+ *   dashboard, built when it is actually sent, so slow clients catch up in one message.
+ * - Sending happens on virtual threads that only exist while a subscriber has something to send.
+ *   An idle connection is just an open async request and holds no thread at all.
+ * - A heartbeat comment every 30 seconds detects connections that went away silently.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.DashboardDelta;
+import com.quodex.Invizo.io.DashboardResponse;
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.service.DashboardService;
+import com.quodex.Invizo.service.DashboardStreamService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class DashboardStreamServiceImpl implements DashboardStreamService {
+
+    private final DashboardService dashboardService;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    // One short-lived virtual thread per subscriber with pending messages
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardStreamServiceImpl(DashboardService dashboardService,
+                                      @Value("${invizo.dashboard.stream-buffer-size:32}") int bufferSize,
+                                      @Value("${invizo.dashboard.stream-max-subscribers:500}") int maxSubscribers,
+                                      @Value("${invizo.dashboard.stream-timeout-ms:1800000}") long timeoutMillis) {
+        this.dashboardService = dashboardService;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens a stream that starts with a SNAPSHOT and then carries deltas.
+     * Clients (EventSource) reconnect by themselves when the stream times out.
+     */
+    @Override
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many dashboard streams");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        subscriber.requestSnapshot();
+        schedule(subscriber);
+        return emitter;
+    }
+
+    // Runs after DashboardServiceImpl has applied the same event, so the totals are current
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        DashboardDelta delta = toDelta(event);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(delta);
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(fixedRate = 30000)
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Sends everything pending for one subscriber, then lets its virtual thread end
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Object message = subscriber.poll();
+            if (message == null) {
+                subscriber.draining.set(false);
+                // Something may have been queued between poll() and clearing the flag
+                if (subscriber.hasPending() && subscriber.draining.compareAndSet(false, true)) {
+                    continue;
+                }
+                return;
+            }
+            try {
+                if (message == Subscriber.HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    DashboardDelta delta = message == Subscriber.SNAPSHOT ? snapshot() : (DashboardDelta) message;
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(delta.getSequence()))
+                            .name(delta.getType().name())
+                            .data(delta, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed)
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private DashboardDelta snapshot() {
+        DashboardResponse dashboard = dashboardService.getDashboard();
+        return DashboardDelta.builder()
+                .type(DashboardDelta.Type.SNAPSHOT)
+                .sequence(sequence.get())
+                .todaySales(dashboard.getTodaySales())
+                .todayOrderCount(dashboard.getTodayOrderCount())
+                .snapshot(dashboard)
+                .build();
+    }
+
+    private DashboardDelta toDelta(OrderEvent event) {
+        OrderResponse order = event.getOrder();
+        DashboardResponse dashboard = dashboardService.getDashboard();
+        DashboardDelta.Type type = switch (event.getType()) {
+            case CREATED -> DashboardDelta.Type.ORDER_CREATED;
+            case PAYMENT_COMPLETED -> DashboardDelta.Type.PAYMENT_COMPLETED;
+            case REFUNDED -> DashboardDelta.Type.ORDER_REFUNDED;
+            case DELETED -> DashboardDelta.Type.ORDER_VOIDED;
+        };
+        return DashboardDelta.builder()
+                .type(type)
+                .sequence(sequence.incrementAndGet())
+                .orderId(order.getOrderId())
+                .customerName(order.getCustomerName())
+                .grandTotal(order.getGrandTotal())
+                .refundedAmount(order.getRefundedAmount())
+                .paymentMethod(order.getPaymentMethod())
+                .paymentStatus(order.getPaymentDetails() != null ? order.getPaymentDetails().getStatus() : null)
+                .createdAt(order.getCreatedAt())
+                .todaySales(dashboard.getTodaySales())
+                .todayOrderCount(dashboard.getTodayOrderCount())
+                .build();
+    }
+
+    private final class Subscriber {
+        static final Object SNAPSHOT = new Object();
+        static final Object HEARTBEAT = new Object();
+
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Guarded by this
+        private final ArrayDeque<DashboardDelta> pending = new ArrayDeque<>();
+        private boolean snapshotDue;
+        private boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void enqueue(DashboardDelta delta) {
+            if (snapshotDue) {
+                // The coming snapshot already includes this change
+                return;
+            }
+            if (pending.size() >= bufferSize) {
+                // Too slow: replace the backlog with one snapshot
+                pending.clear();
+                snapshotDue = true;
+                return;
+            }
+            pending.add(delta);
+        }
+
+        synchronized void requestSnapshot() {
+            pending.clear();
+            snapshotDue = true;
+        }
+
+        synchronized void requestHeartbeat() {
+            // Only needed when the connection has nothing else to say
+            if (pending.isEmpty() && !snapshotDue) {
+                heartbeatDue = true;
+            }
+        }
+
+        synchronized Object poll() {
+            if (snapshotDue) {
+                snapshotDue = false;
+                heartbeatDue = false;
+                return SNAPSHOT;
+            }
+            DashboardDelta delta = pending.poll();
+            if (delta != null) {
+                heartbeatDue = false;
+                return delta;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                return HEARTBEAT;
+            }
+            return null;
+        }
+
+        synchronized boolean hasPending() {
+            return snapshotDue || heartbeatDue || !pending.isEmpty();
+        }
+    }
+}
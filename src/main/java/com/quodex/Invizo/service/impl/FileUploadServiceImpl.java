@@ -31,13 +31,27 @@ public class FileUploadServiceImpl implements FileUploadService {
      */
     @Override
     public String uploadFile(MultipartFile file) {
+        try {
+            return uploadFile(file.getBytes());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Cloudinary upload failed", e);
+        }
+    }
+
+    /**
+     * Uploads image bytes to Cloudinary, e.g. an image taken from an import archive
+     * @param bytes Image content
+     * @return Public URL of the uploaded image
+     */
+    @Override
+    public String uploadFile(byte[] bytes) {
         try {
             // Generate a unique file name using UUID
             String fileName = UUID.randomUUID().toString();
 
             // Upload the file to Cloudinary
             Map uploadResult = cloudinary.uploader().upload(
-                    file.getBytes(),
+                    bytes,
                     ObjectUtils.asMap(
                             "public_id", uploadFolder + "/" + fileName,
                             "resource_type", "image"
@@ -0,0 +1,148 @@
+/**
+ * ItemSearchServiceImpl.java
+ *
+ * Search-as-you-type for the till (GET /items/search?q=) from an in-memory ItemSearchIndex,
+ * instead of the frontend downloading and filtering the whole /items list.
+ *
+ * The index follows the catalog incrementally through a CatalogFollower: upserted items replace
+ * their documents, tombstones remove them.
+ *
+ * Popularity is units sold with exponential decay: the last few half-lives are replayed on
+ * startup, every created order adds its units and all values are decayed once a day.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.CatalogFollower;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.ItemResponse;
+import com.quodex.Invizo.io.ItemSearchResponse;
+import com.quodex.Invizo.io.OrderItemResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.search.ItemSearchIndex;
+import com.quodex.Invizo.service.CatalogChangeService;
+import com.quodex.Invizo.service.ItemSearchService;
+import com.quodex.Invizo.service.ItemService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class ItemSearchServiceImpl implements ItemSearchService {
+
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // Replay this many half-lives of sales on startup; older units would weigh under 1/16
+    private static final int REPLAY_HALF_LIVES = 4;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double halfLifeDays;
+    private final ItemSearchIndex<ItemResponse> index = new ItemSearchIndex<>();
+    private final CatalogFollower catalog;
+
+    public ItemSearchServiceImpl(ItemService itemService,
+                                 CatalogChangeService catalogChangeService,
+                                 ResourceVersions resourceVersions,
+                                 OrderRepository orderRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${invizo.search.popularity-half-life-days:30}") double halfLifeDays) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.halfLifeDays = halfLifeDays;
+        this.catalog = new CatalogFollower(itemService, catalogChangeService, resourceVersions, new CatalogFollower.View() {
+            @Override
+            public void put(ItemResponse item) {
+                index.put(item.getItemId(), item.getName(), item.getCategoryName(), item.getDescription(), item);
+            }
+
+            @Override
+            public void remove(String itemId) {
+                index.remove(itemId);
+            }
+
+            @Override
+            public Set<String> itemIds() {
+                return index.ids();
+            }
+        });
+    }
+
+    @Override
+    public ItemSearchResponse search(String query, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (query == null || query.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q is required and at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        catalog.sync();
+
+        long start = System.nanoTime();
+        int[] total = new int[1];
+        List<ItemResponse> items = index.search(query, limit, total).stream()
+                .map(ItemSearchIndex.Hit::payload)
+                .collect(Collectors.toList());
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        return ItemSearchResponse.builder()
+                .query(query)
+                .total(total[0])
+                .items(items)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        catalog.sync();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minusHours(Math.round(REPLAY_HALF_LIVES * halfLifeDays * 24));
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = orderRepository.streamItemLines(from, now)) {
+                // Each line counts as much as it would have after decaying daily since it was sold
+                rows.forEach(row -> {
+                    if (row[3] != null) {
+                        double ageDays = Duration.between((LocalDateTime) row[0], now).toDays();
+                        index.addPopularity((String) row[1], ((Number) row[3]).doubleValue() * decayFactor(ageDays));
+                    }
+                });
+            }
+        });
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void decayPopularity() {
+        index.decayPopularity(decayFactor(1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (event.getType() != OrderEvent.Type.CREATED || event.getOrder().getItems() == null) {
+            return;
+        }
+        for (OrderItemResponse item : event.getOrder().getItems()) {
+            if (item.getQuantity() != null) {
+                index.addPopularity(item.getItemId(), item.getQuantity());
+            }
+        }
+    }
+
+    private double decayFactor(double days) {
+        return Math.pow(0.5, days / halfLifeDays);
+    }
+}
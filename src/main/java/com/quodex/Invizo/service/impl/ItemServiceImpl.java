@@ -1,41 +1,68 @@
 package com.quodex.Invizo.service.impl;
 
+import com.quodex.Invizo.cache.CatalogCache;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.entity.CatalogChangeEntity.ChangeType;
+import com.quodex.Invizo.entity.CatalogChangeEntity.EntityType;
 import com.quodex.Invizo.entity.CategoryEntity;
 import com.quodex.Invizo.entity.ItemEntity;
+import com.quodex.Invizo.io.ItemCodesRequest;
 import com.quodex.Invizo.io.ItemRequest;
 import com.quodex.Invizo.io.ItemResponse;
 import com.quodex.Invizo.repository.CategoryRepository;
 import com.quodex.Invizo.repository.ItemRepository;
+import com.quodex.Invizo.service.CatalogChangeService;
 import com.quodex.Invizo.service.FileUploadService;
 import com.quodex.Invizo.service.ItemService;
+import com.quodex.Invizo.util.Barcodes;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
-    
+
+    private static final int MAX_BARCODES = 20;
+
     private final ItemRepository itemRepository;
     private final FileUploadService fileUploadService;
     private final CategoryRepository categoryRepository;
-    
+    private final ResourceVersions resourceVersions;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogCache catalogCache;
+
     @Override
     public ItemResponse addItem(ItemRequest request, MultipartFile file) {
-        String imgUrl = fileUploadService.uploadFile(file);
-        // Convert request to entity and save to DB
+        // Convert request to entity and check its codes before uploading anything
         ItemEntity newItem = convertToEntity(request);
-        CategoryEntity category = categoryRepository.findByCategoryId(request.getCategoryId())
-                .orElseThrow(() -> new RuntimeException("Category Not Found"));
+        applyCodes(newItem, request.getSku(), request.getBarcodes());
+        String imgUrl = fileUploadService.uploadFile(file);
+        CategoryEntity category = catalogCache.categoryEntities().get(request.getCategoryId(), categoryId ->
+                categoryRepository.findByCategoryId(categoryId)
+                        .orElseThrow(() -> new RuntimeException("Category Not Found")));
         newItem.setCategory(category);
         newItem.setImgUrl(imgUrl);
-        newItem = itemRepository.save(newItem);
+        ItemEntity item = newItem;
+        newItem = catalogChangeService.write(() -> {
+            ItemEntity saved = itemRepository.save(item);
+            // Terminals get the new item and the category's new item count
+            catalogChangeService.record(EntityType.ITEM, saved.getItemId(), ChangeType.UPSERT);
+            catalogChangeService.record(EntityType.CATEGORY, category.getCategoryId(), ChangeType.UPSERT);
+            return saved;
+        });
+        // Item lists and category item counts changed
+        resourceVersions.bump(ResourceVersions.Family.ITEMS, ResourceVersions.Family.CATEGORIES);
         // Convert saved entity to response DTO
         return convertToResponse(newItem);
     }
@@ -50,9 +77,18 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemResponse getItemById(String itemId) {
-        ItemEntity item = itemRepository.findByItemId(itemId)
-                .orElseThrow(() -> new RuntimeException("Item Not Found"));
-        return convertToResponse(item);
+        return catalogCache.items().get(itemId, id -> convertToResponse(itemRepository.findByItemId(id)
+                .orElseThrow(() -> new RuntimeException("Item Not Found"))));
+    }
+
+    @Override
+    public List<ItemResponse> getItemsByIds(Collection<String> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findByItemIdIn(itemIds)
+                .stream().map(this::convertToResponse)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -61,7 +97,14 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new RuntimeException("Item Not Found"));
         boolean isFileDeleted = fileUploadService.deleteFile(item.getImgUrl());
         if (isFileDeleted) {
-            itemRepository.delete(item);
+            catalogChangeService.write(() -> {
+                itemRepository.delete(item);
+                // Tombstone, so terminals drop the item; its category lost one item
+                catalogChangeService.record(EntityType.ITEM, item.getItemId(), ChangeType.DELETE);
+                catalogChangeService.record(EntityType.CATEGORY, item.getCategory().getCategoryId(), ChangeType.UPSERT);
+                return null;
+            });
+            resourceVersions.bump(ResourceVersions.Family.ITEMS, ResourceVersions.Family.CATEGORIES);
         } else {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to Delete the Item");
         }
@@ -69,6 +112,58 @@ public class ItemServiceImpl implements ItemService {
     }
 
 
+    @Override
+    public ItemResponse updateCodes(String itemId, ItemCodesRequest request) {
+        ItemEntity item = itemRepository.findByItemId(itemId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item Not Found"));
+        applyCodes(item, request.getSku(), request.getBarcodes());
+        ItemEntity updated = catalogChangeService.write(() -> {
+            ItemEntity saved = itemRepository.save(item);
+            catalogChangeService.record(EntityType.ITEM, itemId, ChangeType.UPSERT);
+            return saved;
+        });
+        resourceVersions.bump(ResourceVersions.Family.ITEMS);
+        return convertToResponse(updated);
+    }
+
+    // Sets the normalized SKU and barcodes after checking them and that no other item uses them
+    private void applyCodes(ItemEntity item, String sku, List<String> barcodes) {
+        String normalizedSku = Barcodes.normalizeSku(sku);
+        if (normalizedSku != null && !Barcodes.isValidSku(normalizedSku)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid SKU: " + sku);
+        }
+        Set<String> codes = new LinkedHashSet<>();
+        if (barcodes != null) {
+            for (String barcode : barcodes) {
+                String code = Barcodes.normalize(barcode);
+                if (code != null && !Barcodes.isValid(code)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid barcode: " + barcode);
+                }
+                if (code != null) {
+                    codes.add(code);
+                }
+            }
+        }
+        if (codes.size() > MAX_BARCODES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BARCODES + " barcodes per item");
+        }
+
+        // A scan must resolve to one item, so a code may not be another item's SKU or barcode either
+        Set<String> all = new LinkedHashSet<>(codes);
+        if (normalizedSku != null) {
+            all.add(normalizedSku);
+        }
+        if (!all.isEmpty()) {
+            List<String> owners = new ArrayList<>(itemRepository.findItemIdsBySkuIn(all));
+            owners.addAll(itemRepository.findItemIdsByBarcodeIn(all));
+            if (owners.stream().anyMatch(owner -> !owner.equals(item.getItemId()))) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Barcode or SKU already used by another item");
+            }
+        }
+        item.setSku(normalizedSku);
+        item.setBarcodes(codes);
+    }
+
     private ItemResponse convertToResponse(ItemEntity newItem) {
 
         return ItemResponse.builder()
@@ -78,6 +173,8 @@ public class ItemServiceImpl implements ItemService {
                 .price(newItem.getPrice())
                 .categoryId(newItem.getCategory().getCategoryId())
                 .categoryName(newItem.getCategory().getName())
+                .sku(newItem.getSku())
+                .barcodes(newItem.getBarcodes() != null ? new ArrayList<>(newItem.getBarcodes()) : List.of())
 
                 .imgUrl(newItem.getImgUrl())
                 .createdAt(newItem.getCreatedAt())
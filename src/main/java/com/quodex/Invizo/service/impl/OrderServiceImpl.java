@@ -12,6 +12,8 @@
  * - Verify Razorpay payment authenticity using HMAC SHA256
  * - Delete an order by ID
  * - Fetch latest orders for admin dashboard or order listing
+ * - Keep recently created orders in a small cache so receipt reprints and payment
+ *   verification don't need a database round trip
  *
  *  Razorpay Integration:
  * If the user pays online, the payment verification step ensures the
@@ -27,28 +29,59 @@
 
 package com.quodex.Invizo.service.impl;
 
+import com.quodex.Invizo.cache.LruTtlCache;
 import com.quodex.Invizo.entity.OrderEntity;
 import com.quodex.Invizo.entity.OrderItemEntity;
+import com.quodex.Invizo.entity.OrderVoidEntity;
+import com.quodex.Invizo.event.OrderEvent;
 import com.quodex.Invizo.io.*;
 import com.quodex.Invizo.repository.OrderItemRepository;
 import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.repository.OrderVoidRepository;
+import com.quodex.Invizo.repository.RefundRepository;
 import com.quodex.Invizo.service.OrderService;
+import com.quodex.Invizo.service.ShiftService;
+import com.quodex.Invizo.service.StockService;
+import com.quodex.Invizo.util.CurrentUser;
 import com.quodex.Invizo.util.PaymentMethod;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.awt.print.Pageable;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    // Matches the LIMIT 5 / OFFSET 4 of the dashboard queries in OrderRepository
+    private static final int RECENT_ORDERS = 5;
+
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShiftService shiftService;
+    private final OrderVoidRepository orderVoidRepository;
+    private final StockService stockService;
+    private final RefundRepository refundRepository;
+
+    // Recently created orders by orderId; every order mutation writes through to it once committed
+    private final LruTtlCache<String, OrderResponse> hotOrders = new LruTtlCache<>(1000, Duration.ofHours(12));
+    // Bumped by every committed change to a cached order, so getOrder never caches a copy read before it. Guarded by hotOrders
+    private long hotOrdersGeneration;
 
     @Value("${razorpay.key.secret}")
     private String razorpayKeySecret;
@@ -60,10 +93,15 @@ public class OrderServiceImpl implements OrderService {
      * @return OrderResponse DTO representing the saved order
      */
     @Override
+    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
         // Convert request DTO to OrderEntity object
         OrderEntity newOrder = convertToOrderEntity(request);
 
+        // Take the sold units off the stock first; fails the whole order if any item ran out
+        List<StockResponse> lowStock = stockService.reserve(
+                quantities(request.getCartItems(), item -> item.getItemId(), item -> item.getQuantity()));
+
         // Set payment status depending on payment method
         PaymentDetails paymentDetails = new PaymentDetails();
         paymentDetails.setStatus(newOrder.getPaymentMethod() == PaymentMethod.CASH ?
@@ -81,16 +119,37 @@ public class OrderServiceImpl implements OrderService {
         // Save the new order to the database
         newOrder = orderRepository.save(newOrder);
 
-        // Convert saved order to response DTO and return
-        return convertToResponse(newOrder);
+        // Convert saved order to response DTO, let listeners know (this service caches it on commit), and return
+        OrderResponse response = convertToResponse(newOrder);
+        eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.CREATED, response));
+        // Low-stock warnings are for the till that made the sale only
+        return lowStock.isEmpty() ? response : response.toBuilder().lowStock(lowStock).build();
     }
 
     /**
-     * Converts an OrderEntity to an OrderResponse for output
+     * Adds up the units per item over order lines, skipping lines without item or quantity
+     * @param lines cart or order lines
+     * @return units per itemId
+     */
+    private static <T> Map<String, Integer> quantities(List<T> lines, Function<T, String> itemId, Function<T, Integer> quantity) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (lines != null) {
+            for (T line : lines) {
+                Integer units = quantity.apply(line);
+                if (itemId.apply(line) != null && units != null && units > 0) {
+                    quantities.merge(itemId.apply(line), units, Integer::sum);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Converts an OrderEntity to an OrderResponse for output; also used by RefundServiceImpl
      * @param newOrder the OrderEntity to convert
      * @return OrderResponse DTO
      */
-    private OrderResponse convertToResponse(OrderEntity newOrder) {
+    static OrderResponse convertToResponse(OrderEntity newOrder) {
         return OrderResponse.builder()
                 .orderId(newOrder.getOrderId())
                 .customerName(newOrder.getCustomerName())
@@ -98,12 +157,15 @@ public class OrderServiceImpl implements OrderService {
                 .subtotal(newOrder.getSubtotal())
                 .tax(newOrder.getTax())
                 .grandTotal(newOrder.getGrandTotal())
+                .refundedAmount(newOrder.getRefundedAmount())
                 .paymentMethod(newOrder.getPaymentMethod())
                 .items(newOrder.getItems().stream()
-                        .map(this::convertToItemResponse)
+                        .map(OrderServiceImpl::convertToItemResponse)
                         .collect(Collectors.toList()))
                 .paymentDetails(newOrder.getPaymentDetails())
                 .createdAt(newOrder.getCreatedAt())
+                .createdBy(newOrder.getCreatedBy())
+                .shiftId(newOrder.getShiftId())
                 .build();
     }
 
@@ -112,12 +174,13 @@ public class OrderServiceImpl implements OrderService {
      * @param orderItemEntity the item entity to convert
      * @return OrderItemResponse DTO
      */
-    private OrderItemResponse convertToItemResponse(OrderItemEntity orderItemEntity) {
+    private static OrderItemResponse convertToItemResponse(OrderItemEntity orderItemEntity) {
         return OrderItemResponse.builder()
                 .itemId(orderItemEntity.getItemId())
                 .name(orderItemEntity.getName())
                 .price(orderItemEntity.getPrice())
                 .quantity(orderItemEntity.getQuantity())
+                .refundedQuantity(orderItemEntity.getRefundedQuantity())
                 .build();
     }
 
@@ -132,6 +195,7 @@ public class OrderServiceImpl implements OrderService {
                 .name(orderItemRequest.getName())
                 .price(orderItemRequest.getPrice())
                 .quantity(orderItemRequest.getQuantity())
+                .refundedQuantity(0)
                 .build();
     }
 
@@ -141,6 +205,8 @@ public class OrderServiceImpl implements OrderService {
      * @return OrderEntity
      */
     private OrderEntity convertToOrderEntity(OrderRequest request) {
+        // Attribute the order to whoever is logged in at the till, and to their open shift
+        String cashier = CurrentUser.email();
         return OrderEntity.builder()
 
                 .customerName(request.getCustomerName())
@@ -148,7 +214,10 @@ public class OrderServiceImpl implements OrderService {
                 .subtotal(request.getSubtotal())
                 .tax(request.getTax())
                 .grandTotal(request.getGrandTotal())
+                .refundedAmount(0.0)
                 .paymentMethod(PaymentMethod.valueOf(request.getPaymentMethod())) // Enum conversion
+                .createdBy(cashier)
+                .shiftId(cashier != null ? shiftService.findOpenShiftId(cashier) : null)
                 .build();
     }
 
@@ -157,13 +226,83 @@ public class OrderServiceImpl implements OrderService {
      * @param orderId the unique ID of the order to delete
      */
     @Override
+    @Transactional
     public void deleteOrder(String orderId) {
-        // Find the order; if not found, throw exception
-        OrderEntity orderEntity = orderRepository.findByOrderId(orderId)
+        // Find and lock the order, so a refund cannot be issued while it is being voided
+        OrderEntity orderEntity = orderRepository.findByOrderIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order Not Found"));
 
-        // Delete the order from the database
+        // Refund documents point at the order and must stay for audit; refund the rest instead
+        if (refundRepository.existsByOrderOrderId(orderId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order has refunds and cannot be voided; refund the remaining lines instead");
+        }
+
+        // Delete the order from the database, keeping a void record for the closing reports
+        OrderResponse response = convertToResponse(orderEntity);
+        orderVoidRepository.save(OrderVoidEntity.builder()
+                .orderId(orderEntity.getOrderId())
+                .paymentMethod(orderEntity.getPaymentMethod())
+                .grandTotal(orderEntity.getGrandTotal())
+                .orderCreatedAt(orderEntity.getCreatedAt())
+                .voidedBy(CurrentUser.email())
+                .build());
         orderRepository.delete(orderEntity);
+        // The sale never happened: its units are back on the shelf
+        stockService.release(quantities(orderEntity.getItems(), item -> item.getItemId(), item -> item.getQuantity()));
+        eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.DELETED, response));
+    }
+
+    /**
+     * Fetches a single order, from the hot-order cache when it was created recently
+     * @param orderId the unique ID of the order
+     * @return OrderResponse DTO
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public OrderResponse getOrder(String orderId) {
+        long generation;
+        synchronized (hotOrders) {
+            OrderResponse cached = hotOrders.get(orderId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = hotOrdersGeneration;
+        }
+        OrderResponse response = convertToResponse(orderRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("Order Not Found")));
+        synchronized (hotOrders) {
+            // A delete or refund committed while reading; the copy may predate it
+            if (generation == hotOrdersGeneration) {
+                hotOrders.put(orderId, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Keeps cached orders in step with committed changes: new orders go in, voided ones come out,
+     * and refunds (written by RefundService) replace the cached copy. A rolled-back order never gets in.
+     * @param event the order event published after the change commits
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        String orderId = event.getOrder().getOrderId();
+        synchronized (hotOrders) {
+            switch (event.getType()) {
+                case CREATED -> hotOrders.put(orderId, event.getOrder());
+                case DELETED -> {
+                    hotOrdersGeneration++;
+                    hotOrders.remove(orderId);
+                }
+                case REFUNDED -> {
+                    hotOrdersGeneration++;
+                    if (hotOrders.get(orderId) != null) {
+                        hotOrders.put(orderId, event.getOrder());
+                    }
+                }
+                case PAYMENT_COMPLETED -> { }
+            }
+        }
     }
 
     /**
@@ -171,10 +310,11 @@ public class OrderServiceImpl implements OrderService {
      * @return List of OrderResponse DTOs
      */
     @Override
+    @Transactional(readOnly = true)
     public List<OrderResponse> getLatestOrders() {
         return orderRepository.findAllByOrderByCreatedAtDesc()
                 .stream()
-                .map(this::convertToResponse)
+                .map(OrderServiceImpl::convertToResponse)
                 .collect(Collectors.toList());
     }
 
@@ -187,11 +327,7 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public OrderResponse verifyPayment(PaymentVerificationRequest request) {
-        // 1. Find the order in the database by its order ID
-        OrderEntity existingOrder = orderRepository.findByOrderId(request.getOrderId())
-                .orElseThrow(() -> new RuntimeException("Order Not Found"));
-
-        // 2. Verify Razorpay signature to ensure the payment is valid and secure
+        // 1. Verify Razorpay signature to ensure the payment is valid and secure
         if (!verifyRazorpaySignature(
                 request.getRazorpayOrderId(),
                 request.getRazorpayPaymentId(),
@@ -199,6 +335,35 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("Payment Verification Failed");
         }
 
+        // 2. Recently created orders are in the cache: update the row directly, no read needed
+        OrderResponse cached = hotOrders.get(request.getOrderId());
+        if (cached != null) {
+            int updated = orderRepository.markPaymentCompleted(
+                    request.getOrderId(),
+                    request.getRazorpayOrderId(),
+                    request.getRazorpayPaymentId(),
+                    request.getRazorpaySignature());
+            if (updated == 0) {
+                hotOrders.remove(request.getOrderId());
+                throw new RuntimeException("Order Not Found");
+            }
+            OrderResponse response = cached.toBuilder()
+                    .paymentDetails(PaymentDetails.builder()
+                            .razorpayOrderId(request.getRazorpayOrderId())
+                            .razorpayPaymentId(request.getRazorpayPaymentId())
+                            .razorpaySignature(request.getRazorpaySignature())
+                            .status(PaymentDetails.PaymentStatus.COMPLETED)
+                            .build())
+                    .build();
+            hotOrders.put(response.getOrderId(), response);
+            eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.PAYMENT_COMPLETED, response));
+            return response;
+        }
+
+        // Otherwise find the order in the database by its order ID
+        OrderEntity existingOrder = orderRepository.findByOrderId(request.getOrderId())
+                .orElseThrow(() -> new RuntimeException("Order Not Found"));
+
         // 3. Update the payment details in the order
         PaymentDetails paymentDetails = existingOrder.getPaymentDetails();
         paymentDetails.setRazorpayOrderId(request.getRazorpayOrderId());
@@ -209,8 +374,11 @@ public class OrderServiceImpl implements OrderService {
         // 4. Save updated order to the database
         existingOrder = orderRepository.save(existingOrder);
 
-        // 5. Return the updated order response
-        return convertToResponse(existingOrder);
+        // 5. Let listeners know and return the updated order response
+        OrderResponse response = convertToResponse(existingOrder);
+        hotOrders.put(response.getOrderId(), response);
+        eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.PAYMENT_COMPLETED, response));
+        return response;
     }
 
     @Override
@@ -228,11 +396,36 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true) // items are loaded lazily, also when called from scheduled jobs
     public List<OrderResponse> findRecentOrders() {
         return orderRepository.findTop5RecentOrdersNative()
                 .stream()
-                .map(this::convertToResponse)
+                .map(OrderServiceImpl::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads everything the dashboard shows in two statements: totals and count (plus the cut-off
+     * for the recent orders), then the recent orders with their items fetched in one join.
+     * The separate sumSalesByDate / countByOrderDate / findRecentOrders calls need three statements
+     * plus one lazy item load per recent order.
+     * @param date the day whose sales and order count are shown
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardResponse loadDashboard(LocalDate date) {
+        Object[] totals = orderRepository.findDashboardTotals(date.atStartOfDay(), date.plusDays(1).atStartOfDay()).get(0);
+        Double sales = totals[0] != null ? ((Number) totals[0]).doubleValue() : 0.0;
+        Long count = totals[1] != null ? ((Number) totals[1]).longValue() : 0L;
+        // Fewer than RECENT_ORDERS orders in total: all of them are recent
+        LocalDateTime since = totals[2] != null ? (LocalDateTime) totals[2] : LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        List<OrderResponse> recentOrders = orderRepository.findRecentWithItems(since)
+                .stream()
+                .limit(RECENT_ORDERS) // orders sharing the cut-off timestamp can add a few extra rows
+                .map(OrderServiceImpl::convertToResponse)
                 .collect(Collectors.toList());
+        return new DashboardResponse(sales, count, recentOrders);
     }
 
     /**
@@ -0,0 +1,203 @@
+/**
+ * OrderSummaryServiceImpl.java
+ *
+ * Maintains and queries the order_summary read model: one narrow, denormalized row per order
+ * (item count, totals, refunds, status, payment method) so list, search and dashboard screens
+ * can answer from a single indexed table instead of rebuilding OrderResponse from orders,
+ * order_items and payment details.
+ *
+ * The model is updated asynchronously from OrderEvents on a single background worker, which
+ * keeps updates for the same order in the order they happened. Reads are therefore eventually
+ * consistent, usually within milliseconds of the write.
+ *
+ * rebuild() recreates the whole table from the orders table, e.g. after a schema change or
+ * if the model ever drifts. It deletes and refills in one transaction, so readers keep seeing
+ * the old rows until the new ones commit, and a failed rebuild leaves the table as it was.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.entity.OrderEntity;
+import com.quodex.Invizo.entity.OrderSummaryEntity;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.io.OrderSummaryResponse;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.repository.OrderSummaryRepository;
+import com.quodex.Invizo.service.OrderSummaryService;
+import com.quodex.Invizo.util.MobileNumbers;
+import com.quodex.Invizo.util.PaymentMethod;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    // One worker thread: events (and rebuilds) are applied strictly one after another
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-summary-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public List<OrderSummaryResponse> listOrders(LocalDate from, LocalDate to, PaymentMethod paymentMethod,
+                                                 PaymentDetails.PaymentStatus status, int page, int size) {
+        return orderSummaryRepository.search(
+                        from.atStartOfDay(),
+                        to.plusDays(1).atStartOfDay(),
+                        paymentMethod,
+                        status,
+                        PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE)))
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<OrderSummaryResponse> searchOrders(String query, int page, int size) {
+        // Mobile numbers are stored normalized; anything that is not a number is treated as an order ID
+        String mobile = MobileNumbers.normalize(query);
+        String term = mobile != null && mobile.length() >= 10 ? mobile : query.trim();
+        return orderSummaryRepository.findByMobileNumberOrOrderId(term, PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE)))
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Recreates order_summary from the orders table.
+     * Runs on the same worker as event updates, so no update can interleave with it.
+     * @return number of orders written
+     */
+    @Override
+    public long rebuild() {
+        try {
+            Long written = worker.submit(() -> transactionTemplate.execute(status -> rebuildNow())).get();
+            return written != null ? written : 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Rebuild failed", e.getCause());
+        }
+    }
+
+    // Queue every committed order write for the background worker
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        worker.submit(() -> apply(event));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    private void apply(OrderEvent event) {
+        try {
+            if (event.getType() == OrderEvent.Type.DELETED) {
+                orderSummaryRepository.deleteById(event.getOrder().getOrderId());
+            } else {
+                orderSummaryRepository.save(convertToEntity(event.getOrder()));
+            }
+        } catch (RuntimeException e) {
+            // A failed update must not kill the worker; rebuild() repairs any drift
+            log.error("Unable to update order summary for {}", event.getOrder().getOrderId(), e);
+        }
+    }
+
+    // Caller runs this in a transaction
+    private long rebuildNow() {
+        orderSummaryRepository.deleteAllInBulk();
+        long written = 0;
+        int page = 0;
+        List<Object[]> rows;
+        do {
+            rows = orderRepository.findAllWithItemCount(PageRequest.of(page++, REBUILD_PAGE_SIZE));
+            List<OrderSummaryEntity> summaries = rows.stream()
+                    .map(row -> convertToEntity((OrderEntity) row[0], ((Number) row[1]).intValue()))
+                    .collect(Collectors.toList());
+            orderSummaryRepository.saveAll(summaries);
+            written += summaries.size();
+            // Keep the persistence context to one page of orders and summaries
+            entityManager.flush();
+            entityManager.clear();
+        } while (rows.size() == REBUILD_PAGE_SIZE);
+        return written;
+    }
+
+    private OrderSummaryEntity convertToEntity(OrderResponse order) {
+        return OrderSummaryEntity.builder()
+                .orderId(order.getOrderId())
+                .customerName(order.getCustomerName())
+                .mobileNumber(order.getMobileNumber())
+                .itemCount(order.getItems() != null ? order.getItems().size() : 0)
+                .subtotal(order.getSubtotal())
+                .tax(order.getTax())
+                .grandTotal(order.getGrandTotal())
+                .refundedAmount(order.getRefundedAmount())
+                .paymentMethod(order.getPaymentMethod())
+                .paymentStatus(order.getPaymentDetails() != null ? order.getPaymentDetails().getStatus() : null)
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+
+    private OrderSummaryEntity convertToEntity(OrderEntity order, int itemCount) {
+        return OrderSummaryEntity.builder()
+                .orderId(order.getOrderId())
+                .customerName(order.getCustomerName())
+                .mobileNumber(order.getMobileNumber())
+                .itemCount(itemCount)
+                .subtotal(order.getSubtotal())
+                .tax(order.getTax())
+                .grandTotal(order.getGrandTotal())
+                .refundedAmount(order.getRefundedAmount())
+                .paymentMethod(order.getPaymentMethod())
+                .paymentStatus(order.getPaymentDetails() != null ? order.getPaymentDetails().getStatus() : null)
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+
+    private OrderSummaryResponse convertToResponse(OrderSummaryEntity summary) {
+        return OrderSummaryResponse.builder()
+                .orderId(summary.getOrderId())
+                .customerName(summary.getCustomerName())
+                .mobileNumber(summary.getMobileNumber())
+                .itemCount(summary.getItemCount())
+                .subtotal(summary.getSubtotal())
+                .tax(summary.getTax())
+                .grandTotal(summary.getGrandTotal())
+                .refundedAmount(summary.getRefundedAmount())
+                .paymentMethod(summary.getPaymentMethod())
+                .paymentStatus(summary.getPaymentStatus())
+                .createdAt(summary.getCreatedAt())
+                .build();
+    }
+}
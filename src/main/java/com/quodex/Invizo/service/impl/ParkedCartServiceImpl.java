@@ -0,0 +1,218 @@
+/**
+ * ParkedCartServiceImpl.java
+ *
+ * Keeps bills a cashier has put on hold ("parked") while the customer fetches something.
+ *
+ * Parked carts live in a bounded in-memory LRU store with a TTL, keyed by cart ID and owned by
+ * the logged-in user and terminal, so parking a cart costs no database write in the common case.
+ * A cart only reaches the parked_carts table when it is pushed out of memory by newer carts,
+ * or when the application shuts down. Expired carts are simply dropped, from memory and from the
+ * table, by a periodic purge.
+ *
+ * Resuming a cart hands it straight to OrderService.createOrder.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quodex.Invizo.cache.LruTtlCache;
+import com.quodex.Invizo.entity.ParkedCartEntity;
+import com.quodex.Invizo.io.OrderRequest;
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.io.ParkCartRequest;
+import com.quodex.Invizo.io.ParkedCartResponse;
+import com.quodex.Invizo.repository.ParkedCartRepository;
+import com.quodex.Invizo.service.OrderService;
+import com.quodex.Invizo.service.ParkedCartService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class ParkedCartServiceImpl implements ParkedCartService {
+
+    private final ParkedCartRepository parkedCartRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    // In-memory parked carts keyed by cartId; carts evicted for space are spilled to the table
+    private final LruTtlCache<String, ParkedCart> parkedCarts;
+
+    public ParkedCartServiceImpl(ParkedCartRepository parkedCartRepository,
+                                 OrderService orderService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${invizo.carts.max-size:1000}") int maxSize,
+                                 @Value("${invizo.carts.ttl-minutes:240}") long ttlMinutes) {
+        this.parkedCartRepository = parkedCartRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.parkedCarts = new LruTtlCache<>(maxSize, ttl, (cartId, cart) -> spill(cart));
+    }
+
+    @Override
+    public ParkedCartResponse parkCart(String terminalId, ParkCartRequest request) {
+        if (request.getCart() == null || request.getCart().getCartItems() == null || request.getCart().getCartItems().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot park an empty cart");
+        }
+        ParkedCart cart = new ParkedCart(
+                UUID.randomUUID().toString(),
+                currentUser(),
+                terminalId,
+                request.getLabel(),
+                request.getCart(),
+                LocalDateTime.now()
+        );
+        parkedCarts.put(cart.cartId(), cart);
+        return convertToResponse(cart);
+    }
+
+    @Override
+    public List<ParkedCartResponse> getParkedCarts(String terminalId) {
+        String user = currentUser();
+        List<ParkedCart> carts = new ArrayList<>();
+        // Carts still in memory...
+        parkedCarts.values().stream()
+                .filter(cart -> cart.userEmail().equals(user) && cart.terminalId().equals(terminalId))
+                .forEach(carts::add);
+        // ...plus any that were spilled to the table
+        parkedCartRepository.findByUserEmailAndTerminalIdOrderByParkedAtAsc(user, terminalId)
+                .stream()
+                .map(this::convertToCart)
+                .forEach(carts::add);
+        return carts.stream()
+                .sorted(Comparator.comparing(ParkedCart::parkedAt))
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ParkedCartResponse getParkedCart(String cartId) {
+        return convertToResponse(findOwnCart(cartId));
+    }
+
+    /**
+     * Takes the cart off hold and places it as an order.
+     * If the order cannot be created the cart is parked again so nothing is lost.
+     */
+    @Override
+    public OrderResponse resumeCart(String cartId) {
+        ParkedCart cart = takeOwnCart(cartId);
+        try {
+            return orderService.createOrder(cart.cart());
+        } catch (RuntimeException e) {
+            parkedCarts.put(cart.cartId(), cart);
+            throw e;
+        }
+    }
+
+    @Override
+    public void discardCart(String cartId) {
+        takeOwnCart(cartId);
+    }
+
+    // Expired carts are otherwise only dropped from memory when looked up, and never from the table
+    @Scheduled(fixedDelayString = "${invizo.carts.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        parkedCarts.purgeExpired();
+        parkedCartRepository.deleteParkedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    // Spill everything still in memory so parked carts survive a restart
+    @PreDestroy
+    public void spillAll() {
+        parkedCarts.drain().values().forEach(this::spill);
+    }
+
+    private void spill(ParkedCart cart) {
+        try {
+            parkedCartRepository.save(ParkedCartEntity.builder()
+                    .cartId(cart.cartId())
+                    .userEmail(cart.userEmail())
+                    .terminalId(cart.terminalId())
+                    .label(cart.label())
+                    .payload(objectMapper.writeValueAsString(cart.cart()))
+                    .parkedAt(cart.parkedAt())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to store parked cart", e);
+        }
+    }
+
+    private ParkedCart findOwnCart(String cartId) {
+        ParkedCart cart = parkedCarts.get(cartId);
+        if (cart == null) {
+            cart = parkedCartRepository.findByCartId(cartId)
+                    .map(this::convertToCart)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parked Cart Not Found"));
+        }
+        checkOwner(cart);
+        return cart;
+    }
+
+    /**
+     * Removes the cart from memory, or from the table if it had been spilled.
+     * Only the caller that actually removed it gets it, so a double tap on resume cannot
+     * place the same cart twice; the other caller gets a 404.
+     */
+    private ParkedCart takeOwnCart(String cartId) {
+        ParkedCart cart = findOwnCart(cartId);
+        if (parkedCarts.remove(cartId) == null && parkedCartRepository.deleteByCartId(cartId) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Parked Cart Not Found");
+        }
+        return cart;
+    }
+
+    private void checkOwner(ParkedCart cart) {
+        if (!cart.userEmail().equals(currentUser())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Parked Cart Not Found");
+        }
+    }
+
+    private String currentUser() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private ParkedCart convertToCart(ParkedCartEntity entity) {
+        try {
+            return new ParkedCart(
+                    entity.getCartId(),
+                    entity.getUserEmail(),
+                    entity.getTerminalId(),
+                    entity.getLabel(),
+                    objectMapper.readValue(entity.getPayload(), OrderRequest.class),
+                    entity.getParkedAt()
+            );
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to read parked cart", e);
+        }
+    }
+
+    private ParkedCartResponse convertToResponse(ParkedCart cart) {
+        return ParkedCartResponse.builder()
+                .cartId(cart.cartId())
+                .terminalId(cart.terminalId())
+                .label(cart.label())
+                .cart(cart.cart())
+                .parkedAt(cart.parkedAt())
+                .build();
+    }
+
+    private record ParkedCart(String cartId, String userEmail, String terminalId, String label,
+                              OrderRequest cart, LocalDateTime parkedAt) {
+    }
+}
@@ -33,6 +33,7 @@ import com.quodex.Invizo.service.RazorpayService;
 import com.razorpay.Order;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
+import com.razorpay.Refund;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -76,6 +77,56 @@ public class RazorpayServiceImpl implements RazorpayService {
         return convertToResponse(order);
     }
 
+    /**
+     * Refunds (part of) a captured payment back to the customer, once per receipt.
+     * If a refund with this receipt already exists (an earlier attempt whose answer was lost),
+     * that refund is returned instead of paying out again.
+     *
+     * @param razorpayPaymentId The payment ID received during payment verification
+     * @param amount            The amount to refund in rupees (converted to paise for Razorpay)
+     * @param receipt           Our refund number; identifies the refund across retries
+     * @return The Razorpay refund ID
+     * @throws RazorpayException If the API call to Razorpay fails
+     */
+    @Override
+    public String refundPayment(String razorpayPaymentId, Double amount, String receipt) throws RazorpayException {
+        String existing = findRefund(razorpayPaymentId, receipt);
+        if (existing != null) {
+            return existing;
+        }
+        RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+
+        JSONObject refundRequest = new JSONObject();
+        refundRequest.put("amount", Math.round(amount * 100)); // Razorpay expects paise
+        refundRequest.put("speed", "normal");
+        refundRequest.put("receipt", receipt);
+
+        Refund refund = razorpayClient.payments.refund(razorpayPaymentId, refundRequest);
+        return refund.get("id");
+    }
+
+    /**
+     * Looks up the refund made against a payment for one of our receipts.
+     *
+     * @param razorpayPaymentId The payment that was refunded
+     * @param receipt           Our refund number
+     * @return The Razorpay refund ID, or null if no refund was made for this receipt
+     * @throws RazorpayException If the API call to Razorpay fails
+     */
+    @Override
+    public String findRefund(String razorpayPaymentId, String receipt) throws RazorpayException {
+        RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+
+        JSONObject query = new JSONObject();
+        query.put("count", 100); // Razorpay's maximum page; a payment is never refunded that often
+        for (Refund refund : razorpayClient.payments.fetchAllRefunds(razorpayPaymentId, query)) {
+            if (receipt.equals(refund.toJson().optString("receipt", null))) {
+                return refund.get("id");
+            }
+        }
+        return null;
+    }
+
     /**
      * Converts Razorpay's Order object into your app's response DTO.
      *
@@ -0,0 +1,332 @@
+/**
+ * RefundServiceImpl.java
+ *
+ * Records partial and full refunds against an existing order instead of deleting it.
+ *
+ * Each refund is stored as its own document (RefundEntity) linked to the order and to the
+ * order lines being returned, so the original bill stays intact for audit.
+ *
+ * Sales totals are never recomputed from scratch: the refund delta is added to the order's
+ * refundedAmount and to each line's refundedQuantity, and the sales queries net those out.
+ *
+ * UPI orders are refunded through Razorpay (RazorpayService); cash orders are refunded at the counter.
+ * A UPI refund is first committed as PENDING, together with the order totals it changes, and only
+ * then sent to Razorpay, so money can never go out without a refund record. Our refund number is
+ * the Razorpay receipt: a retry finds a refund Razorpay already made instead of paying twice.
+ * Refunds Razorpay did not confirm are retried in the background, and marked FAILED (with the
+ * order totals restored) only once Razorpay shows no refund for them after MAX_ATTEMPTS tries.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.entity.OrderEntity;
+import com.quodex.Invizo.entity.OrderItemEntity;
+import com.quodex.Invizo.entity.RefundEntity;
+import com.quodex.Invizo.entity.RefundItemEntity;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.*;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.repository.RefundRepository;
+import com.quodex.Invizo.service.RazorpayService;
+import com.quodex.Invizo.service.RefundService;
+import com.quodex.Invizo.service.ShiftService;
+import com.quodex.Invizo.util.CurrentUser;
+import com.quodex.Invizo.util.PaymentMethod;
+import com.quodex.Invizo.util.RefundStatus;
+import com.razorpay.RazorpayException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class RefundServiceImpl implements RefundService {
+
+    // Failed Razorpay calls before a pending refund is checked and, if Razorpay has none, failed
+    private static final int MAX_ATTEMPTS = 10;
+    // A refund still PENDING after this long lost its Razorpay call and is picked up by the retry job
+    private static final Duration RETRY_AFTER = Duration.ofMinutes(2);
+
+    private final OrderRepository orderRepository;
+    private final RefundRepository refundRepository;
+    private final RazorpayService razorpayService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShiftService shiftService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Refunds the requested lines of an order (or everything still refundable when no lines are given).
+     * @param orderId the order being refunded
+     * @param request the lines and quantities to return
+     * @return RefundResponse describing the stored refund document; PENDING if Razorpay did not confirm it yet
+     */
+    @Override
+    public RefundResponse createRefund(String orderId, RefundRequest request) {
+        RefundResponse response = transactionTemplate.execute(status -> recordRefund(orderId, request));
+        // UPI money only goes back once the refund record is committed
+        if (response.getStatus() == RefundStatus.PENDING) {
+            response = payOut(response.getRefundId(), false);
+        }
+        return response;
+    }
+
+    // UPI refunds whose Razorpay call failed, or whose answer was lost in a crash or restart
+    @Scheduled(fixedDelayString = "${invizo.refunds.retry-interval-ms:60000}")
+    public void retryPendingRefunds() {
+        for (String refundId : refundRepository.findPendingRefundIds(LocalDateTime.now().minus(RETRY_AFTER))) {
+            try {
+                payOut(refundId, true);
+            } catch (RuntimeException e) {
+                // Stays PENDING and is tried again on the next run
+            }
+        }
+    }
+
+    private RefundResponse recordRefund(String orderId, RefundRequest request) {
+        // 1. Lock the order so two tills cannot refund the same lines twice
+        OrderEntity order = orderRepository.findByOrderIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Order Not Found"));
+
+        PaymentDetails paymentDetails = order.getPaymentDetails();
+        if (paymentDetails == null || paymentDetails.getStatus() != PaymentDetails.PaymentStatus.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only paid orders can be refunded");
+        }
+
+        // 2. Work out which lines are returned and how many of each
+        List<RefundItemEntity> refundItems = request.getItems() == null || request.getItems().isEmpty()
+                ? remainingLines(order)
+                : requestedLines(order, request.getItems());
+        if (refundItems.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing left to refund");
+        }
+
+        // 3. Refund amount = returned line value scaled by the order's tax ratio (grandTotal / subtotal)
+        double lineValue = refundItems.stream().mapToDouble(i -> i.getPrice() * i.getQuantity()).sum();
+        double amount = round(lineValue * taxRatio(order));
+        double alreadyRefunded = order.getRefundedAmount() != null ? order.getRefundedAmount() : 0.0;
+        amount = Math.min(amount, round(order.getGrandTotal() - alreadyRefunded));
+
+        // 4. Apply the delta to the order totals instead of recomputing them; a pending refund holds its lines too
+        order.setRefundedAmount(round(alreadyRefunded + amount));
+        for (RefundItemEntity refundItem : refundItems) {
+            OrderItemEntity line = refundItem.getOrderItem();
+            line.setRefundedQuantity(refundedQuantity(line) + refundItem.getQuantity());
+        }
+        orderRepository.save(order);
+
+        // 5. Store the refund document, attributed to the refunding cashier's open shift.
+        //    Cash is handed back at the counter right away; UPI waits for Razorpay
+        String cashier = CurrentUser.email();
+        RefundEntity refund = RefundEntity.builder()
+                .order(order)
+                .amount(amount)
+                .reason(request.getReason())
+                .paymentMethod(order.getPaymentMethod())
+                .status(order.getPaymentMethod() == PaymentMethod.UPI ? RefundStatus.PENDING : RefundStatus.COMPLETED)
+                .attempts(0)
+                .items(refundItems)
+                .createdBy(cashier)
+                .shiftId(cashier != null ? shiftService.findOpenShiftId(cashier) : null)
+                .build();
+        refund = refundRepository.save(refund);
+
+        // 6. Publish completed refunds so totals kept elsewhere can apply the same delta
+        RefundResponse response = convertToResponse(refund, orderId);
+        if (refund.getStatus() == RefundStatus.COMPLETED) {
+            eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.REFUNDED, OrderServiceImpl.convertToResponse(order), response));
+        }
+        return response;
+    }
+
+    /**
+     * Sends a PENDING refund to Razorpay and completes it. Safe to repeat, since Razorpay is asked
+     * by receipt first. When Razorpay fails, the refund stays PENDING; after MAX_ATTEMPTS failures
+     * (only when retrying) it is marked FAILED if Razorpay has no refund for it.
+     */
+    private RefundResponse payOut(String refundId, boolean retrying) {
+        Payout payout = transactionTemplate.execute(status -> {
+            RefundEntity refund = refundRepository.findByRefundIdForUpdate(refundId)
+                    .orElseThrow(() -> new RuntimeException("Refund Not Found"));
+            return new Payout(refund.getOrder().getPaymentDetails().getRazorpayPaymentId(), refund.getAmount(),
+                    refund.getAttempts() != null ? refund.getAttempts() : 0);
+        });
+        try {
+            String razorpayRefundId = retrying && payout.attempts() >= MAX_ATTEMPTS
+                    ? razorpayService.findRefund(payout.razorpayPaymentId(), refundId)
+                    : razorpayService.refundPayment(payout.razorpayPaymentId(), payout.amount(), refundId);
+            return transactionTemplate.execute(status -> razorpayRefundId != null
+                    ? complete(refundId, razorpayRefundId)
+                    : fail(refundId));
+        } catch (RazorpayException e) {
+            return transactionTemplate.execute(status -> {
+                RefundEntity refund = refundRepository.findByRefundIdForUpdate(refundId)
+                        .orElseThrow(() -> new RuntimeException("Refund Not Found"));
+                refund.setAttempts((refund.getAttempts() != null ? refund.getAttempts() : 0) + 1);
+                return convertToResponse(refundRepository.save(refund), refund.getOrder().getOrderId());
+            });
+        }
+    }
+
+    private RefundResponse complete(String refundId, String razorpayRefundId) {
+        RefundEntity refund = refundRepository.findByRefundIdForUpdate(refundId)
+                .orElseThrow(() -> new RuntimeException("Refund Not Found"));
+        OrderEntity order = refund.getOrder();
+        if (refund.getStatus() != RefundStatus.PENDING) {
+            // Finished by an overlapping attempt
+            return convertToResponse(refund, order.getOrderId());
+        }
+        refund.setStatus(RefundStatus.COMPLETED);
+        refund.setRazorpayRefundId(razorpayRefundId);
+        RefundResponse response = convertToResponse(refundRepository.save(refund), order.getOrderId());
+        eventPublisher.publishEvent(new OrderEvent(OrderEvent.Type.REFUNDED, OrderServiceImpl.convertToResponse(order), response));
+        return response;
+    }
+
+    // Razorpay never made this refund: give its lines and amount back to the order
+    private RefundResponse fail(String refundId) {
+        RefundEntity refund = refundRepository.findByRefundIdForUpdate(refundId)
+                .orElseThrow(() -> new RuntimeException("Refund Not Found"));
+        if (refund.getStatus() != RefundStatus.PENDING) {
+            return convertToResponse(refund, refund.getOrder().getOrderId());
+        }
+        OrderEntity order = orderRepository.findByOrderIdForUpdate(refund.getOrder().getOrderId())
+                .orElseThrow(() -> new RuntimeException("Order Not Found"));
+        order.setRefundedAmount(round(order.getRefundedAmount() - refund.getAmount()));
+        for (RefundItemEntity refundItem : refund.getItems()) {
+            OrderItemEntity line = refundItem.getOrderItem();
+            line.setRefundedQuantity(refundedQuantity(line) - refundItem.getQuantity());
+        }
+        orderRepository.save(order);
+        refund.setStatus(RefundStatus.FAILED);
+        return convertToResponse(refundRepository.save(refund), order.getOrderId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RefundResponse> getRefunds(String orderId) {
+        return refundRepository.findByOrderOrderIdOrderByCreatedAtAsc(orderId)
+                .stream()
+                .map(refund -> convertToResponse(refund, orderId))
+                .collect(Collectors.toList());
+    }
+
+    // Every line with quantity that has not been refunded yet (full refund)
+    private List<RefundItemEntity> remainingLines(OrderEntity order) {
+        List<RefundItemEntity> lines = new ArrayList<>();
+        for (OrderItemEntity line : order.getItems()) {
+            int remaining = remainingQuantity(line);
+            if (remaining > 0) {
+                lines.add(convertToRefundItem(line, remaining));
+            }
+        }
+        return lines;
+    }
+
+    // Only the requested quantities, validated against what is still refundable (partial refund)
+    private List<RefundItemEntity> requestedLines(OrderEntity order, List<RefundItemRequest> requested) {
+        // Several requests for the same item add up
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (RefundItemRequest item : requested) {
+            if (item.getItemId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid refund quantity for item " + item.getItemId());
+            }
+            quantities.merge(item.getItemId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<RefundItemEntity> lines = new ArrayList<>();
+        for (Map.Entry<String, Integer> item : quantities.entrySet()) {
+            // An item can be on the bill more than once; take from its lines in bill order
+            int left = item.getValue();
+            boolean onOrder = false;
+            for (OrderItemEntity line : order.getItems()) {
+                if (left == 0) {
+                    break;
+                }
+                if (!item.getKey().equals(line.getItemId())) {
+                    continue;
+                }
+                onOrder = true;
+                int take = Math.min(left, remainingQuantity(line));
+                if (take > 0) {
+                    lines.add(convertToRefundItem(line, take));
+                    left -= take;
+                }
+            }
+            if (!onOrder) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item " + item.getKey() + " is not part of this order");
+            }
+            if (left > 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid refund quantity for item " + item.getKey());
+            }
+        }
+        return lines;
+    }
+
+    private int remainingQuantity(OrderItemEntity line) {
+        return (line.getQuantity() != null ? line.getQuantity() : 0) - refundedQuantity(line);
+    }
+
+    private int refundedQuantity(OrderItemEntity line) {
+        return line.getRefundedQuantity() != null ? line.getRefundedQuantity() : 0;
+    }
+
+    private double taxRatio(OrderEntity order) {
+        if (order.getSubtotal() == null || order.getSubtotal() <= 0) {
+            return 1.0;
+        }
+        return order.getGrandTotal() / order.getSubtotal();
+    }
+
+    private double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    private record Payout(String razorpayPaymentId, Double amount, int attempts) {
+    }
+
+    private RefundItemEntity convertToRefundItem(OrderItemEntity line, int quantity) {
+        return RefundItemEntity.builder()
+                .orderItem(line)
+                .itemId(line.getItemId())
+                .name(line.getName())
+                .price(line.getPrice())
+                .quantity(quantity)
+                .build();
+    }
+
+    private RefundResponse convertToResponse(RefundEntity refund, String orderId) {
+        return RefundResponse.builder()
+                .refundId(refund.getRefundId())
+                .orderId(orderId)
+                .amount(refund.getAmount())
+                .reason(refund.getReason())
+                .paymentMethod(refund.getPaymentMethod())
+                .razorpayRefundId(refund.getRazorpayRefundId())
+                .status(refund.getStatus())
+                .items(refund.getItems().stream()
+                        .map(item -> OrderItemResponse.builder()
+                                .itemId(item.getItemId())
+                                .name(item.getName())
+                                .price(item.getPrice())
+                                .quantity(item.getQuantity())
+                                .build())
+                        .collect(Collectors.toList()))
+                .createdAt(refund.getCreatedAt())
+                .createdBy(refund.getCreatedBy())
+                .shiftId(refund.getShiftId())
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * RelatedItemsServiceImpl.java
+ *
+ * "Customers also buy" suggestions for the POS (GET /items/{itemId}/related), answered from an
+ * in-memory ItemCoOccurrence matrix instead of self-joining order_items on every cart change.
+ *
+ * Every created order adds its basket to the matrix. Once a day all weights are multiplied by
+ * the decay factor for the configured half-life, so suggestions follow what sells together now
+ * (seasonal items, new menu) rather than all-time history. On startup the last few half-lives of
+ * orders are replayed in one streaming pass; anything older would have decayed away anyway.
+ *
+ * Refunds and voided orders are not subtracted.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.analytics.ItemCoOccurrence;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.OrderItemResponse;
+import com.quodex.Invizo.io.RelatedItemResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.service.RelatedItemsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class RelatedItemsServiceImpl implements RelatedItemsService {
+
+    // Replay this many half-lives on startup; older baskets would weigh under 1/16
+    private static final int REPLAY_HALF_LIVES = 4;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int neighbours;
+    private final double halfLifeDays;
+    private final ItemCoOccurrence matrix;
+
+    // Orders created from here on reach the matrix through events, never through the replay
+    private final LocalDateTime listeningSince = LocalDateTime.now();
+    // Events seen while the replay runs; null once it has finished. Guarded by matrix
+    private List<OrderEvent> pendingEvents = new ArrayList<>();
+
+    public RelatedItemsServiceImpl(OrderRepository orderRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${invizo.related.neighbours:20}") int neighbours,
+                                   @Value("${invizo.related.max-basket:50}") int maxBasket,
+                                   @Value("${invizo.related.half-life-days:30}") double halfLifeDays) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.neighbours = neighbours;
+        this.halfLifeDays = halfLifeDays;
+        this.matrix = new ItemCoOccurrence(neighbours, maxBasket);
+    }
+
+    @Override
+    public List<RelatedItemResponse> getRelatedItems(String itemId, int limit) {
+        if (limit <= 0 || limit > neighbours) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + neighbours);
+        }
+        return matrix.related(itemId, limit).stream()
+                .map(related -> RelatedItemResponse.builder()
+                        .itemId(related.itemId())
+                        .name(related.name())
+                        .score(Math.round(related.weight() * 100) / 100.0)
+                        .confidence(Math.round(related.confidence() * 1000) / 1000.0)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Rebuilds the matrix from recent orders, applying each day's decay as it goes
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime from = today.minusDays((long) Math.ceil(halfLifeDays * REPLAY_HALF_LIVES)).atStartOfDay();
+        matrix.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = orderRepository.streamBasketLines(from, listeningSince)) {
+                // Rows arrive grouped by order
+                Long orderId = null;
+                LocalDate day = null;
+                Map<String, String> basket = new LinkedHashMap<>();
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    if (!row[0].equals(orderId)) {
+                        matrix.addBasket(basket);
+                        basket = new LinkedHashMap<>();
+                        orderId = (Long) row[0];
+                    }
+                    // Orders come in id order, which is creation order, so days only move forward
+                    LocalDate rowDay = ((LocalDateTime) row[1]).toLocalDate();
+                    if (day != null && rowDay.isAfter(day)) {
+                        matrix.decay(decayFactor(ChronoUnit.DAYS.between(day, rowDay)));
+                    }
+                    day = rowDay;
+                    if (row[2] != null) {
+                        basket.put((String) row[2], (String) row[3]);
+                    }
+                }
+                matrix.addBasket(basket);
+                if (day != null && day.isBefore(today)) {
+                    matrix.decay(decayFactor(ChronoUnit.DAYS.between(day, today)));
+                }
+            }
+        });
+
+        // Baskets that sold during the replay go in after its decays, in the order they came
+        synchronized (matrix) {
+            pendingEvents.forEach(this::addOrder);
+            pendingEvents = null;
+        }
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void decayDaily() {
+        matrix.decay(decayFactor(1));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        synchronized (matrix) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        addOrder(event);
+    }
+
+    private void addOrder(OrderEvent event) {
+        if (event.getType() != OrderEvent.Type.CREATED || event.getOrder().getItems() == null) {
+            return;
+        }
+        Map<String, String> basket = new LinkedHashMap<>();
+        for (OrderItemResponse item : event.getOrder().getItems()) {
+            // Lines without an itemId have no place in the matrix
+            if (item.getItemId() != null) {
+                basket.put(item.getItemId(), item.getName());
+            }
+        }
+        matrix.addBasket(basket);
+    }
+
+    private double decayFactor(long days) {
+        return Math.pow(0.5, days / halfLifeDays);
+    }
+}
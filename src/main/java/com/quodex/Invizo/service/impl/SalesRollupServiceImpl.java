@@ -0,0 +1,343 @@
+/**
+ * SalesRollupServiceImpl.java
+ *
+ * Background aggregator that keeps hour- and day-grain sales rollups (sales_rollups) so that
+ * "sales by day for the last 90 days" style questions never rescan the raw orders table.
+ *
+ *  How it works:
+ * - Every run looks at orders created after the stored high-watermark (minus a small lateness
+ *   window for transactions that committed late) and re-aggregates each affected hour from scratch.
+ * - Refunds and deleted (voided) orders mark their hour dirty (sales_rollup_dirty_hours, so a restart
+ *   does not forget them), and it is re-aggregated on the next run even if it is far behind the watermark.
+ * - Re-aggregating a bucket deletes and rewrites its rows, so running it twice gives the same result.
+ * - Day rows are derived from that day's hour rows.
+ *
+ * Rollups for closed days (before today and behind the watermark) do not change any more, so
+ * reads for them are cached (invizo.rollups.closed-day-cache-size entries, least recently used
+ * first out); re-aggregating a day evicts it.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.cache.LruTtlCache;
+import com.quodex.Invizo.entity.RollupWatermarkEntity;
+import com.quodex.Invizo.entity.SalesRollupDirtyHourEntity;
+import com.quodex.Invizo.entity.SalesRollupEntity;
+import com.quodex.Invizo.entity.SalesRollupEntity.Dimension;
+import com.quodex.Invizo.entity.SalesRollupEntity.Grain;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.SalesRollupResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.repository.RollupWatermarkRepository;
+import com.quodex.Invizo.repository.SalesRollupDirtyHourRepository;
+import com.quodex.Invizo.repository.SalesRollupRepository;
+import com.quodex.Invizo.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final String WATERMARK_NAME = "sales_rollups";
+    private static final String UNCATEGORIZED = "uncategorized";
+    // Where the very first run starts when no watermark exists yet
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final SalesRollupDirtyHourRepository dirtyHourRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Dirty marks are written after the refund / void committed, so they need a transaction of their own
+    private final TransactionTemplate separateTransaction;
+    private final Duration lateness;
+
+    // Daily rollups of closed days, keyed by "day|dimension"
+    private final LruTtlCache<String, List<SalesRollupResponse>> closedDays;
+    // Bumped by every eviction, so a load that ran across a rewrite does not cache what it read. Guarded by closedDays
+    private long closedDaysGeneration;
+
+    public SalesRollupServiceImpl(OrderRepository orderRepository,
+                                  SalesRollupRepository salesRollupRepository,
+                                  RollupWatermarkRepository watermarkRepository,
+                                  SalesRollupDirtyHourRepository dirtyHourRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${invizo.rollups.lateness-seconds:300}") long latenessSeconds,
+                                  @Value("${invizo.rollups.closed-day-cache-size:2000}") int closedDayCacheSize) {
+        this.orderRepository = orderRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.dirtyHourRepository = dirtyHourRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lateness = Duration.ofSeconds(latenessSeconds);
+        // Closed days never change; the TTL only lets unused entries age out
+        this.closedDays = new LruTtlCache<>(closedDayCacheSize, Duration.ofDays(1));
+    }
+
+    /**
+     * Incremental run: re-aggregates hours with new orders since the watermark plus any dirty hours.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${invizo.rollups.interval-ms:60000}", initialDelayString = "${invizo.rollups.initial-delay-ms:30000}")
+    public synchronized void aggregate() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime watermark = getWatermark();
+        LocalDateTime scanFrom = watermark != null ? watermark.minus(lateness) : BEGINNING;
+
+        SortedSet<LocalDateTime> hours = new TreeSet<>(activeHours(scanFrom, now));
+        List<SalesRollupDirtyHourEntity> dirtyHours = dirtyHourRepository.findAll();
+        dirtyHours.forEach(dirty -> hours.add(dirty.getBucketStart()));
+        aggregateHours(hours);
+
+        watermarkRepository.save(new RollupWatermarkEntity(WATERMARK_NAME, now));
+        // Only after the hours were rewritten; hours marked again during the run stay dirty
+        dirtyHours.forEach(dirty -> dirtyHourRepository.deleteIfUnchanged(dirty.getBucketStart(), dirty.getMarkedAt()));
+    }
+
+    /**
+     * Rewrites every hour and day rollup in [from, to] from the raw orders. Safe to run repeatedly.
+     * @return number of hours re-aggregated
+     */
+    @Override
+    public synchronized int reaggregate(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        SortedSet<LocalDateTime> hours = new TreeSet<>(activeHours(start, end));
+        // Hours that had rollups but no longer have orders must be rewritten (emptied) too
+        salesRollupRepository.findAllInRange(Grain.HOUR, start, end)
+                .forEach(row -> hours.add(row.getBucketStart()));
+        aggregateHours(hours);
+        return hours.size();
+    }
+
+    @Override
+    public List<SalesRollupResponse> getDailyRollups(LocalDate from, LocalDate to, Dimension dimension) {
+        LocalDate closedBefore = closedBefore();
+        List<SalesRollupResponse> result = new ArrayList<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<SalesRollupResponse> cached = closedDays.get(cacheKey(day, dimension));
+            if (cached == null) {
+                missing.add(day);
+            }
+        }
+
+        // One query for all days that are not cached; closed days among them are cached for good
+        Map<LocalDate, List<SalesRollupResponse>> loaded = Map.of();
+        if (!missing.isEmpty()) {
+            long generation;
+            synchronized (closedDays) {
+                generation = closedDaysGeneration;
+            }
+            LocalDate first = missing.get(0);
+            LocalDate last = missing.get(missing.size() - 1);
+            loaded = salesRollupRepository.findRollups(Grain.DAY, dimension, first.atStartOfDay(), last.plusDays(1).atStartOfDay())
+                    .stream()
+                    .map(this::convertToResponse)
+                    .collect(Collectors.groupingBy(row -> row.getBucketStart().toLocalDate()));
+            synchronized (closedDays) {
+                // A day rewritten while reading may have been read before the rewrite; it is loaded again next time
+                if (generation == closedDaysGeneration) {
+                    for (LocalDate day : missing) {
+                        if (day.isBefore(closedBefore)) {
+                            closedDays.put(cacheKey(day, dimension), List.copyOf(loaded.getOrDefault(day, List.of())));
+                        }
+                    }
+                }
+            }
+        }
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            List<SalesRollupResponse> rows = closedDays.get(cacheKey(day, dimension));
+            result.addAll(rows != null ? rows : loaded.getOrDefault(day, List.of()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<SalesRollupResponse> getHourlyRollups(LocalDateTime from, LocalDateTime to, Dimension dimension) {
+        return salesRollupRepository.findRollups(Grain.HOUR, dimension, from, to)
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public LocalDateTime getWatermark() {
+        return watermarkRepository.findById(WATERMARK_NAME)
+                .map(RollupWatermarkEntity::getWatermark)
+                .orElse(null);
+    }
+
+    /**
+     * Hour rows before this point are complete; anything after it has to be read from orders.
+     * @return start of the first hour that is not fully aggregated, or null before the first run
+     */
+    @Override
+    public LocalDateTime getCoveredUntil() {
+        LocalDateTime watermark = getWatermark();
+        return watermark != null ? watermark.minus(lateness).truncatedTo(ChronoUnit.HOURS) : null;
+    }
+
+    // Refunds and voids change already-aggregated hours; queue them for the next run
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if ((event.getType() == OrderEvent.Type.REFUNDED || event.getType() == OrderEvent.Type.DELETED)
+                && event.getOrder().getCreatedAt() != null) {
+            SalesRollupDirtyHourEntity dirty = new SalesRollupDirtyHourEntity(
+                    event.getOrder().getCreatedAt().truncatedTo(ChronoUnit.HOURS), LocalDateTime.now());
+            separateTransaction.executeWithoutResult(status -> dirtyHourRepository.save(dirty));
+        }
+    }
+
+    private void aggregateHours(SortedSet<LocalDateTime> hours) {
+        Set<LocalDate> days = new TreeSet<>();
+        for (LocalDateTime hour : hours) {
+            transactionTemplate.executeWithoutResult(status -> aggregateHour(hour));
+            days.add(hour.toLocalDate());
+        }
+        for (LocalDate day : days) {
+            transactionTemplate.executeWithoutResult(status -> rollUpDay(day));
+            synchronized (closedDays) {
+                closedDaysGeneration++;
+                Arrays.stream(Dimension.values()).forEach(dimension -> closedDays.remove(cacheKey(day, dimension)));
+            }
+        }
+    }
+
+    // Rewrites all rows of one hour bucket from the raw orders
+    private void aggregateHour(LocalDateTime hour) {
+        LocalDateTime end = hour.plusHours(1);
+        salesRollupRepository.deleteBucket(Grain.HOUR, hour);
+
+        List<SalesRollupEntity> rows = new ArrayList<>();
+        long orderCount = 0;
+        long quantity = 0;
+        double gross = 0;
+        double refunded = 0;
+
+        for (Object[] row : orderRepository.aggregateByPaymentMethod(hour, end)) {
+            SalesRollupEntity rollup = rollup(Grain.HOUR, hour, Dimension.PAYMENT_METHOD, String.valueOf(row[0]), String.valueOf(row[0]),
+                    toLong(row[1]), null, toDouble(row[2]), toDouble(row[3]));
+            orderCount += rollup.getOrderCount();
+            gross += rollup.getGrossAmount();
+            refunded += rollup.getRefundedAmount();
+            rows.add(rollup);
+        }
+        for (Object[] row : orderRepository.aggregateByItem(hour, end)) {
+            SalesRollupEntity rollup = rollup(Grain.HOUR, hour, Dimension.ITEM, (String) row[0], (String) row[1],
+                    toLong(row[2]), toLong(row[3]), toDouble(row[4]), toDouble(row[5]));
+            quantity += rollup.getQuantity();
+            rows.add(rollup);
+        }
+        for (Object[] row : orderRepository.aggregateByCategory(hour, end)) {
+            String categoryId = row[0] != null ? (String) row[0] : UNCATEGORIZED;
+            String name = row[1] != null ? (String) row[1] : UNCATEGORIZED;
+            rows.add(rollup(Grain.HOUR, hour, Dimension.CATEGORY, categoryId, name,
+                    toLong(row[2]), toLong(row[3]), toDouble(row[4]), toDouble(row[5])));
+        }
+        if (orderCount > 0) {
+            rows.add(rollup(Grain.HOUR, hour, Dimension.TOTAL, "", null, orderCount, quantity, gross, refunded));
+        }
+        salesRollupRepository.saveAll(rows);
+    }
+
+    // Rewrites the day rows by summing that day's hour rows per (dimension, key)
+    private void rollUpDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        salesRollupRepository.deleteBucket(Grain.DAY, start);
+
+        Map<String, SalesRollupEntity> dayRows = new LinkedHashMap<>();
+        for (SalesRollupEntity hourRow : salesRollupRepository.findAllInRange(Grain.HOUR, start, start.plusDays(1))) {
+            String key = hourRow.getDimension() + "|" + hourRow.getDimensionKey();
+            SalesRollupEntity dayRow = dayRows.computeIfAbsent(key, k -> rollup(Grain.DAY, start, hourRow.getDimension(),
+                    hourRow.getDimensionKey(), hourRow.getDimensionLabel(), 0L,
+                    hourRow.getQuantity() != null ? 0L : null, 0.0, 0.0));
+            dayRow.setOrderCount(dayRow.getOrderCount() + hourRow.getOrderCount());
+            if (hourRow.getQuantity() != null) {
+                dayRow.setQuantity((dayRow.getQuantity() != null ? dayRow.getQuantity() : 0L) + hourRow.getQuantity());
+            }
+            dayRow.setGrossAmount(dayRow.getGrossAmount() + hourRow.getGrossAmount());
+            dayRow.setRefundedAmount(dayRow.getRefundedAmount() + hourRow.getRefundedAmount());
+        }
+        salesRollupRepository.saveAll(dayRows.values());
+    }
+
+    private List<LocalDateTime> activeHours(LocalDateTime from, LocalDateTime to) {
+        return orderRepository.findActiveHours(from, to).stream()
+                .map(row -> LocalDateTime.of(toInt(row[0]), toInt(row[1]), toInt(row[2]), toInt(row[3]), 0))
+                .collect(Collectors.toList());
+    }
+
+    // Days before this one are closed: in the past and fully behind the watermark
+    private LocalDate closedBefore() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime watermark = getWatermark();
+        if (watermark == null) {
+            return LocalDate.MIN;
+        }
+        LocalDate settled = watermark.minus(lateness).toLocalDate();
+        return settled.isBefore(today) ? settled : today;
+    }
+
+    private String cacheKey(LocalDate day, Dimension dimension) {
+        return day + "|" + dimension;
+    }
+
+    private SalesRollupEntity rollup(Grain grain, LocalDateTime bucketStart, Dimension dimension, String key, String label,
+                                     Long orderCount, Long quantity, Double gross, Double refunded) {
+        return SalesRollupEntity.builder()
+                .grain(grain)
+                .bucketStart(bucketStart)
+                .dimension(dimension)
+                .dimensionKey(key)
+                .dimensionLabel(label)
+                .orderCount(orderCount)
+                .quantity(quantity)
+                .grossAmount(gross)
+                .refundedAmount(refunded)
+                .build();
+    }
+
+    private SalesRollupResponse convertToResponse(SalesRollupEntity rollup) {
+        return SalesRollupResponse.builder()
+                .grain(rollup.getGrain())
+                .bucketStart(rollup.getBucketStart())
+                .dimension(rollup.getDimension())
+                .dimensionKey(rollup.getDimensionKey())
+                .dimensionLabel(rollup.getDimensionLabel())
+                .orderCount(rollup.getOrderCount())
+                .quantity(rollup.getQuantity())
+                .grossAmount(rollup.getGrossAmount())
+                .refundedAmount(rollup.getRefundedAmount())
+                .netAmount(rollup.getGrossAmount() - rollup.getRefundedAmount())
+                .build();
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+}
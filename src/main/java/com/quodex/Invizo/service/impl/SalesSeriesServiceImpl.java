@@ -0,0 +1,198 @@
+/**
+ * SalesSeriesServiceImpl.java
+ *
+ * Answers GET /dashboard/series: bucketed sales totals and counts (by hour, day or week),
+ * optionally grouped by payment method or category.
+ *
+ * Whatever the sales rollups already cover is read from them (day rows for whole days, hour rows
+ * for hourly buckets and for the partly covered day). Only the short tail after the rollup
+ * aggregator's watermark is read from the orders table, in a single streaming scan.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.entity.SalesRollupEntity.Dimension;
+import com.quodex.Invizo.io.SalesRollupResponse;
+import com.quodex.Invizo.io.SalesSeriesPoint;
+import com.quodex.Invizo.io.SalesSeriesResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.service.SalesRollupService;
+import com.quodex.Invizo.service.SalesSeriesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class SalesSeriesServiceImpl implements SalesSeriesService {
+
+    // Hourly series are limited so a single request cannot ask for years of hours
+    private static final long MAX_HOURLY_DAYS = 93;
+    private static final String UNCATEGORIZED = "uncategorized";
+
+    private final SalesRollupService salesRollupService;
+    private final OrderRepository orderRepository;
+
+    @Override
+    @Transactional(readOnly = true) // the fallback scan streams from the database
+    public SalesSeriesResponse getSeries(LocalDate from, LocalDate to, String bucket, String groupBy) {
+        Bucket size = parseBucket(bucket);
+        Dimension dimension = parseGroupBy(groupBy);
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must not be before 'from'");
+        }
+        if (size == Bucket.HOUR && ChronoUnit.DAYS.between(from, to) >= MAX_HOURLY_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Hourly series are limited to " + MAX_HOURLY_DAYS + " days");
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        LocalDateTime coveredUntil = salesRollupService.getCoveredUntil();
+        LocalDateTime split = coveredUntil == null ? start : max(start, min(end, coveredUntil));
+
+        Map<String, SalesSeriesPoint> points = new HashMap<>();
+
+        // 1. Pre-aggregated part: [start, split)
+        if (split.isAfter(start)) {
+            LocalDateTime hourlyFrom = start;
+            if (size != Bucket.HOUR) {
+                // Whole days come from day rows, the rest of a partly covered day from hour rows
+                LocalDate lastWholeDay = split.toLocalDate().minusDays(1);
+                if (!lastWholeDay.isBefore(from)) {
+                    salesRollupService.getDailyRollups(from, lastWholeDay, dimension)
+                            .forEach(row -> addRollup(points, size, row));
+                }
+                hourlyFrom = split.toLocalDate().atStartOfDay();
+            }
+            if (split.isAfter(hourlyFrom)) {
+                salesRollupService.getHourlyRollups(max(start, hourlyFrom), split, dimension)
+                        .forEach(row -> addRollup(points, size, row));
+            }
+        }
+
+        // 2. Not yet aggregated part: one streaming scan of [split, end)
+        if (end.isAfter(split)) {
+            if (dimension == Dimension.CATEGORY) {
+                scanCategories(points, size, split, end);
+            } else {
+                scanOrders(points, size, dimension, split, end);
+            }
+        }
+
+        List<SalesSeriesPoint> series = new ArrayList<>(points.values());
+        series.forEach(point -> point.setNetAmount(round(point.getGrossAmount() - point.getRefundedAmount())));
+        series.sort(Comparator.comparing(SalesSeriesPoint::getBucketStart)
+                .thenComparing(point -> point.getKey() != null ? point.getKey() : ""));
+
+        return SalesSeriesResponse.builder()
+                .from(from)
+                .to(to)
+                .bucket(size.name().toLowerCase())
+                .groupBy(groupBy)
+                .points(series)
+                .build();
+    }
+
+    private void addRollup(Map<String, SalesSeriesPoint> points, Bucket size, SalesRollupResponse row) {
+        String key = row.getDimension() == Dimension.TOTAL ? null : row.getDimensionKey();
+        add(points, size.start(row.getBucketStart()), key, row.getDimensionLabel(),
+                row.getOrderCount(), row.getGrossAmount(), row.getRefundedAmount());
+    }
+
+    private void scanOrders(Map<String, SalesSeriesPoint> points, Bucket size, Dimension dimension,
+                            LocalDateTime from, LocalDateTime to) {
+        try (Stream<Object[]> rows = orderRepository.streamOrderTotals(from, to)) {
+            rows.forEach(row -> {
+                String key = dimension == Dimension.PAYMENT_METHOD ? String.valueOf(row[1]) : null;
+                add(points, size.start((LocalDateTime) row[0]), key, key, 1L, toDouble(row[2]), toDouble(row[3]));
+            });
+        }
+    }
+
+    private void scanCategories(Map<String, SalesSeriesPoint> points, Bucket size, LocalDateTime from, LocalDateTime to) {
+        // An order counts once per bucket and category even if it has several lines in that category
+        Set<String> counted = new HashSet<>();
+        try (Stream<Object[]> rows = orderRepository.streamCategoryLines(from, to)) {
+            rows.forEach(row -> {
+                LocalDateTime bucketStart = size.start((LocalDateTime) row[0]);
+                String key = row[2] != null ? (String) row[2] : UNCATEGORIZED;
+                String label = row[3] != null ? (String) row[3] : UNCATEGORIZED;
+                long orders = counted.add(bucketStart + "|" + key + "|" + row[1]) ? 1L : 0L;
+                add(points, bucketStart, key, label, orders, toDouble(row[4]), toDouble(row[5]));
+            });
+        }
+    }
+
+    private void add(Map<String, SalesSeriesPoint> points, LocalDateTime bucketStart, String key, String label,
+                     Long orderCount, Double gross, Double refunded) {
+        SalesSeriesPoint point = points.computeIfAbsent(bucketStart + "|" + key, k -> SalesSeriesPoint.builder()
+                .bucketStart(bucketStart)
+                .key(key)
+                .label(label)
+                .orderCount(0L)
+                .grossAmount(0.0)
+                .refundedAmount(0.0)
+                .build());
+        point.setOrderCount(point.getOrderCount() + (orderCount != null ? orderCount : 0L));
+        point.setGrossAmount(point.getGrossAmount() + (gross != null ? gross : 0.0));
+        point.setRefundedAmount(point.getRefundedAmount() + (refunded != null ? refunded : 0.0));
+    }
+
+    private Bucket parseBucket(String bucket) {
+        try {
+            return Bucket.valueOf(bucket.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket must be hour, day or week");
+        }
+    }
+
+    private Dimension parseGroupBy(String groupBy) {
+        if (groupBy == null || groupBy.isBlank()) {
+            return Dimension.TOTAL;
+        }
+        return switch (groupBy) {
+            case "paymentMethod" -> Dimension.PAYMENT_METHOD;
+            case "category" -> Dimension.CATEGORY;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "groupBy must be paymentMethod or category");
+        };
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    private enum Bucket {
+        HOUR, DAY, WEEK;
+
+        // Start of the bucket a timestamp falls into (weeks start on Monday)
+        LocalDateTime start(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.toLocalDate().atStartOfDay();
+                case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            };
+        }
+    }
+}
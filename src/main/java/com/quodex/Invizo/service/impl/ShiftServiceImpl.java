@@ -0,0 +1,392 @@
+/**
+ * ShiftServiceImpl.java
+ *
+ * Cashier shifts for end-of-day cash reconciliation.
+ *
+ * A cashier opens a shift (with the float in the drawer); every order and refund they ring up
+ * while it is open carries its shiftId. The shift's totals (orders, cash and UPI taken, refunds
+ * paid out, voids) are kept as live counters in memory and updated from OrderEvents, so showing
+ * or closing a shift never has to add up its orders: closing just writes the counters to the
+ * shift row.
+ *
+ *  Counting rules:
+ * - Cash orders count as sales when created, UPI orders once their payment is verified.
+ * - Refunds count against the shift of whoever issued them, since that drawer paid them out.
+ * - A voided (deleted) order is taken back out of its shift's sales and counted as a void.
+ *
+ * After a restart, open shifts are restored from their orders and refunds (indexed by shift_id).
+ * Voided orders are gone by then, so void counters are also written to the shift row as they happen.
+ * Orders and refunds that arrive for a shift after it was closed (their transaction committed just
+ * after the close) are added to the closed row with an UPDATE. Late UPI confirmations and voids
+ * are not: the pending orders are no longer known by then.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.entity.ShiftEntity;
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.OrderResponse;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.io.RefundResponse;
+import com.quodex.Invizo.io.ShiftRequest;
+import com.quodex.Invizo.io.ShiftResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.repository.RefundRepository;
+import com.quodex.Invizo.repository.ShiftRepository;
+import com.quodex.Invizo.service.ShiftService;
+import com.quodex.Invizo.util.CurrentUser;
+import com.quodex.Invizo.util.PaymentMethod;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ShiftServiceImpl implements ShiftService {
+
+    private final ShiftRepository shiftRepository;
+    private final OrderRepository orderRepository;
+    private final RefundRepository refundRepository;
+
+    // Open shifts by shiftId, and the open shiftId of each cashier; both changed under this
+    private final Map<String, LiveShift> openShifts = new ConcurrentHashMap<>();
+    private final Map<String, String> openByCashier = new ConcurrentHashMap<>();
+
+    @Override
+    public ShiftResponse openShift(ShiftRequest request) {
+        String cashier = requireCashier();
+        synchronized (this) {
+            if (openByCashier.containsKey(cashier)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "A shift is already open for " + cashier);
+            }
+            ShiftEntity shift = shiftRepository.save(ShiftEntity.builder()
+                    .cashier(cashier)
+                    .openingCash(request != null && request.getOpeningCash() != null ? request.getOpeningCash() : 0.0)
+                    .orderCount(0L)
+                    .voidCount(0L)
+                    .voidAmount(0.0)
+                    .build());
+            LiveShift live = new LiveShift(shift);
+            openShifts.put(shift.getShiftId(), live);
+            openByCashier.put(cashier, shift.getShiftId());
+            return live.toResponse();
+        }
+    }
+
+    @Override
+    public ShiftResponse closeCurrentShift(ShiftRequest request) {
+        String shiftId = openByCashier.get(requireCashier());
+        if (shiftId == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No open shift");
+        }
+        return closeShift(shiftId, request);
+    }
+
+    /**
+     * Closes a shift by writing its live counters to the shift row: one row lookup and one
+     * update, however many orders the shift had. The live shift is dropped only once the row
+     * is saved, so a failed save leaves the shift open with its counters.
+     */
+    @Override
+    public ShiftResponse closeShift(String shiftId, ShiftRequest request) {
+        LiveShift live = openShifts.get(shiftId);
+        if (live == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No open shift " + shiftId);
+        }
+        ShiftEntity shift = shiftRepository.findByShiftId(shiftId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shift Not Found"));
+        Double countedCash = request != null ? request.getCountedCash() : null;
+        ShiftEntity saved;
+        // Events for this shift wait until the row is saved, then go to the closed row
+        synchronized (live) {
+            if (live.closed) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No open shift " + shiftId);
+            }
+            shift.setClosedAt(LocalDateTime.now());
+            shift.setCountedCash(countedCash);
+            shift.setOrderCount(live.orderCount);
+            shift.setCashSales(toRupees(live.cashSales));
+            shift.setUpiSales(toRupees(live.upiSales));
+            shift.setCashRefunds(toRupees(live.cashRefunds));
+            shift.setUpiRefunds(toRupees(live.upiRefunds));
+            shift.setVoidCount(live.voidCount);
+            shift.setVoidAmount(toRupees(live.voidAmount));
+            saved = shiftRepository.save(shift);
+            live.closed = true;
+        }
+        synchronized (this) {
+            openShifts.remove(shiftId, live);
+            openByCashier.remove(live.cashier, shiftId);
+        }
+        return convertToResponse(saved);
+    }
+
+    @Override
+    public ShiftResponse getCurrentShift() {
+        String shiftId = openByCashier.get(requireCashier());
+        LiveShift live = shiftId != null ? openShifts.get(shiftId) : null;
+        if (live == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No open shift");
+        }
+        return live.toResponse();
+    }
+
+    @Override
+    public ShiftResponse getShift(String shiftId) {
+        LiveShift live = openShifts.get(shiftId);
+        if (live != null) {
+            return live.toResponse();
+        }
+        return shiftRepository.findByShiftId(shiftId)
+                .map(this::convertToResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Shift Not Found"));
+    }
+
+    @Override
+    public List<ShiftResponse> getOpenShifts() {
+        return openShifts.values().stream()
+                .map(live -> live.toResponse())
+                .sorted(Comparator.comparing(ShiftResponse::getOpenedAt))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String findOpenShiftId(String cashier) {
+        return openByCashier.get(cashier);
+    }
+
+    // Restores the counters of shifts left open by the previous run
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        List<ShiftEntity> open = shiftRepository.findByClosedAtIsNull();
+        if (open.isEmpty()) {
+            return;
+        }
+        Map<String, LiveShift> restored = new HashMap<>();
+        for (ShiftEntity shift : open) {
+            restored.put(shift.getShiftId(), new LiveShift(shift));
+        }
+        List<String> shiftIds = new ArrayList<>(restored.keySet());
+        for (Object[] row : orderRepository.findShiftOrders(shiftIds)) {
+            restored.get((String) row[0]).addOrder((String) row[1], (PaymentMethod) row[2],
+                    toPaise((Double) row[3]), row[4] == PaymentDetails.PaymentStatus.COMPLETED);
+        }
+        for (Object[] row : refundRepository.sumByShift(shiftIds)) {
+            restored.get((String) row[0]).addRefund((PaymentMethod) row[1], toPaise(((Number) row[2]).doubleValue()));
+        }
+        synchronized (this) {
+            restored.forEach((shiftId, live) -> {
+                openShifts.put(shiftId, live);
+                openByCashier.put(live.cashier, shiftId);
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        OrderResponse order = event.getOrder();
+        switch (event.getType()) {
+            case CREATED -> {
+                LiveShift live = live(order.getShiftId());
+                long paise = toPaise(order.getGrandTotal());
+                if ((live == null || !live.addOrder(order.getOrderId(), order.getPaymentMethod(), paise, isPaid(order)))
+                        && order.getShiftId() != null) {
+                    // Closed meanwhile: count it into the closed row (a no-op while the shift is open elsewhere)
+                    boolean cash = order.getPaymentMethod() == PaymentMethod.CASH;
+                    shiftRepository.recordLateOrder(order.getShiftId(),
+                            cash ? toRupees(paise) : 0.0, !cash && isPaid(order) ? toRupees(paise) : 0.0);
+                }
+            }
+            case PAYMENT_COMPLETED -> {
+                LiveShift live = live(order.getShiftId());
+                if (live != null) {
+                    live.paymentCompleted(order.getOrderId());
+                }
+            }
+            case REFUNDED -> {
+                RefundResponse refund = event.getRefund();
+                if (refund == null || refund.getShiftId() == null) {
+                    return;
+                }
+                LiveShift live = live(refund.getShiftId());
+                long paise = toPaise(refund.getAmount());
+                if (live == null || !live.addRefund(refund.getPaymentMethod(), paise)) {
+                    boolean cash = refund.getPaymentMethod() == PaymentMethod.CASH;
+                    shiftRepository.recordLateRefund(refund.getShiftId(),
+                            cash ? toRupees(paise) : 0.0, cash ? 0.0 : toRupees(paise));
+                }
+            }
+            case DELETED -> {
+                LiveShift live = live(order.getShiftId());
+                if (live != null) {
+                    live.voidOrder(order);
+                }
+            }
+        }
+    }
+
+    private LiveShift live(String shiftId) {
+        return shiftId != null ? openShifts.get(shiftId) : null;
+    }
+
+    private String requireCashier() {
+        String cashier = CurrentUser.email();
+        if (cashier == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not logged in");
+        }
+        return cashier;
+    }
+
+    private ShiftResponse convertToResponse(ShiftEntity shift) {
+        double openingCash = shift.getOpeningCash() != null ? shift.getOpeningCash() : 0.0;
+        double expectedCash = round(openingCash + orZero(shift.getCashSales()) - orZero(shift.getCashRefunds()));
+        return ShiftResponse.builder()
+                .shiftId(shift.getShiftId())
+                .cashier(shift.getCashier())
+                .openedAt(shift.getOpenedAt())
+                .closedAt(shift.getClosedAt())
+                .open(shift.getClosedAt() == null)
+                .orderCount(shift.getOrderCount())
+                .cashSales(shift.getCashSales())
+                .upiSales(shift.getUpiSales())
+                .cashRefunds(shift.getCashRefunds())
+                .upiRefunds(shift.getUpiRefunds())
+                .voidCount(shift.getVoidCount())
+                .voidAmount(shift.getVoidAmount())
+                .openingCash(openingCash)
+                .expectedCash(expectedCash)
+                .countedCash(shift.getCountedCash())
+                .cashDifference(shift.getCountedCash() != null ? round(shift.getCountedCash() - expectedCash) : null)
+                .build();
+    }
+
+    private static boolean isPaid(OrderResponse order) {
+        return order.getPaymentDetails() != null
+                && order.getPaymentDetails().getStatus() == PaymentDetails.PaymentStatus.COMPLETED;
+    }
+
+    private static double orZero(Double amount) {
+        return amount != null ? amount : 0.0;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    private static long toPaise(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+
+    private static double toRupees(long paise) {
+        return paise / 100.0;
+    }
+
+    // Running totals of one open shift, in paise. Guarded by itself
+    private final class LiveShift {
+        final String shiftId;
+        final String cashier;
+        final LocalDateTime openedAt;
+        final long openingCash;
+        long orderCount;
+        long cashSales;
+        long upiSales;
+        long cashRefunds;
+        long upiRefunds;
+        long voidCount;
+        long voidAmount;
+        // UPI orders of this shift still waiting for payment, with their amount
+        final Map<String, Long> pendingUpi = new HashMap<>();
+        boolean closed;
+
+        LiveShift(ShiftEntity shift) {
+            this.shiftId = shift.getShiftId();
+            this.cashier = shift.getCashier();
+            this.openedAt = shift.getOpenedAt();
+            this.openingCash = toPaise(shift.getOpeningCash());
+            this.voidCount = shift.getVoidCount() != null ? shift.getVoidCount() : 0;
+            this.voidAmount = toPaise(shift.getVoidAmount());
+        }
+
+        // False once the shift is closed; the caller then updates the closed row
+        synchronized boolean addOrder(String orderId, PaymentMethod method, long paise, boolean paid) {
+            if (closed) {
+                return false;
+            }
+            orderCount++;
+            if (method == PaymentMethod.CASH) {
+                cashSales += paise;
+            } else if (paid) {
+                upiSales += paise;
+            } else {
+                pendingUpi.put(orderId, paise);
+            }
+            return true;
+        }
+
+        // Verification can be repeated; only the first one for a pending order counts
+        synchronized void paymentCompleted(String orderId) {
+            Long paise = pendingUpi.remove(orderId);
+            if (paise != null) {
+                upiSales += paise;
+            }
+        }
+
+        synchronized boolean addRefund(PaymentMethod method, long paise) {
+            if (closed) {
+                return false;
+            }
+            if (method == PaymentMethod.CASH) {
+                cashRefunds += paise;
+            } else {
+                upiRefunds += paise;
+            }
+            return true;
+        }
+
+        synchronized void voidOrder(OrderResponse order) {
+            if (closed) {
+                return;
+            }
+            // Only orders without refunds can be voided, so the whole total comes off
+            long total = toPaise(order.getGrandTotal());
+            orderCount--;
+            if (order.getPaymentMethod() == PaymentMethod.CASH) {
+                cashSales -= total;
+            } else if (pendingUpi.remove(order.getOrderId()) == null) {
+                upiSales -= total;
+            }
+            voidCount++;
+            voidAmount += total;
+            // The order row is gone, so a restart could not recount this void
+            shiftRepository.recordVoid(shiftId, toRupees(total));
+        }
+
+        synchronized ShiftResponse toResponse() {
+            long expectedCash = openingCash + cashSales - cashRefunds;
+            return ShiftResponse.builder()
+                    .shiftId(shiftId)
+                    .cashier(cashier)
+                    .openedAt(openedAt)
+                    .open(!closed)
+                    .orderCount(orderCount)
+                    .cashSales(toRupees(cashSales))
+                    .upiSales(toRupees(upiSales))
+                    .cashRefunds(toRupees(cashRefunds))
+                    .upiRefunds(toRupees(upiRefunds))
+                    .voidCount(voidCount)
+                    .voidAmount(toRupees(voidAmount))
+                    .openingCash(toRupees(openingCash))
+                    .expectedCash(toRupees(expectedCash))
+                    .build();
+        }
+    }
+}
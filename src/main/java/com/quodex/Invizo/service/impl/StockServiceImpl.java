@@ -0,0 +1,306 @@
+/**
+ * StockServiceImpl.java
+ *
+ * Quantity on hand per item, taken off as orders are created and put back when they are voided.
+ * Items with a null stockOnHand are not tracked and sell without limit, as before.
+ *
+ * Sales never read-modify-write the stock. Each sold line is one conditional UPDATE
+ * (stock_on_hand = stock_on_hand - n WHERE stock_on_hand >= n) in the order's transaction, so two
+ * tills can never both sell the last unit: the second update matches no row and the order fails
+ * with 409. Lines are applied in itemId order, so concurrent orders lock rows in the same order
+ * and cannot deadlock.
+ *
+ * That row lock is held until the order commits, which serializes every sale of a best seller.
+ * Items selling at least invizo.stock.hot-sales-per-minute units are therefore switched, once a
+ * minute, to a StripedAllotment: a block of units is moved out of the row in a short transaction
+ * of its own and sold from memory. If the order then rolls back, its units go back to the
+ * allotment. Refills need a second pooled connection briefly, at most one per hot item at a
+ * time and at most invizo.stock.max-concurrent-refills overall; a sale that finds them all in
+ * use takes its units from the row instead. Items that cool down, and all items on shutdown,
+ * return their units to the row.
+ *
+ * Which items are tracked is read once per order, so untracked lines cost no statement at all.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.inventory.StripedAllotment;
+import com.quodex.Invizo.io.StockRequest;
+import com.quodex.Invizo.io.StockResponse;
+import com.quodex.Invizo.repository.ItemRepository;
+import com.quodex.Invizo.service.StockService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Service
+public class StockServiceImpl implements StockService {
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Refills and returns of hot items commit on their own, whatever happens to the order
+    private final TransactionTemplate separateTransaction;
+    private final int hotSalesPerMinute;
+    private final int stripes;
+    private final int block;
+    // Bounds the extra connections held by refills at any one time
+    private final Semaphore refills;
+
+    private final Map<String, StripedAllotment> hotItems = new ConcurrentHashMap<>();
+    // Units sold per item since the last hot-item check
+    private final Map<String, LongAdder> recentSales = new ConcurrentHashMap<>();
+
+    public StockServiceImpl(ItemRepository itemRepository,
+                            TransactionTemplate transactionTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${invizo.stock.hot-sales-per-minute:60}") int hotSalesPerMinute,
+                            @Value("${invizo.stock.hot-stripes:8}") int stripes,
+                            @Value("${invizo.stock.hot-block:20}") int block,
+                            @Value("${invizo.stock.max-concurrent-refills:2}") int maxConcurrentRefills) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotSalesPerMinute = hotSalesPerMinute;
+        this.stripes = stripes;
+        this.block = block;
+        this.refills = new Semaphore(maxConcurrentRefills);
+    }
+
+    @Override
+    public List<StockResponse> reserve(Map<String, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock must be reserved inside the order's transaction");
+        }
+        // One read for the whole order: lines of untracked items need no update at all
+        Set<String> tracked = new HashSet<>();
+        List<String> cold = quantities.keySet().stream().filter(id -> !hotItems.containsKey(id)).toList();
+        if (!cold.isEmpty()) {
+            for (Object[] row : itemRepository.findStockLevels(cold)) {
+                if (row[2] != null) {
+                    tracked.add((String) row[0]);
+                }
+            }
+        }
+        List<String> sold = new ArrayList<>();
+        // Sorted, so concurrent orders lock item rows in the same order
+        for (Map.Entry<String, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            String itemId = line.getKey();
+            int quantity = line.getValue();
+            recentSales.computeIfAbsent(itemId, id -> new LongAdder()).add(quantity);
+
+            StripedAllotment allotment = hotItems.get(itemId);
+            if (allotment != null && allotment.reserve(quantity, wanted -> claim(itemId, wanted))) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            giveBack(itemId, allotment, quantity);
+                        }
+                    }
+                });
+                sold.add(itemId);
+                continue;
+            }
+            if (allotment == null && !tracked.contains(itemId)) {
+                continue;
+            }
+            if (itemRepository.decrementStock(itemId, quantity) == 1) {
+                sold.add(itemId);
+                continue;
+            }
+            // Not enough left (or tracking was switched off meanwhile)
+            StockResponse level = levels(List.of(itemId)).stream().findFirst().orElse(null);
+            if (level != null && level.getOnHand() != null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Only " + level.getOnHand() + " left of " + level.getName());
+            }
+        }
+        if (sold.isEmpty()) {
+            return List.of();
+        }
+        return levels(sold).stream().filter(StockResponse::getLow).collect(Collectors.toList());
+    }
+
+    @Override
+    public void release(Map<String, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock must be released inside the caller's transaction");
+        }
+        for (Map.Entry<String, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            String itemId = line.getKey();
+            int quantity = line.getValue();
+            StripedAllotment allotment = hotItems.get(itemId);
+            if (allotment == null) {
+                itemRepository.incrementStock(itemId, quantity);
+                continue;
+            }
+            // Memory cannot roll back, so hot items only get the units once the caller committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    giveBack(itemId, allotment, quantity);
+                }
+            });
+        }
+    }
+
+    @Override
+    public StockResponse setStock(String itemId, StockRequest request) {
+        if ((request.getOnHand() != null && request.getOnHand() < 0)
+                || (request.getLowStockThreshold() != null && request.getLowStockThreshold() < 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock levels cannot be negative");
+        }
+        // A stock take replaces whatever was allotted
+        StripedAllotment allotment = hotItems.remove(itemId);
+        if (allotment != null) {
+            allotment.retire();
+        }
+        Integer updated = transactionTemplate.execute(status ->
+                itemRepository.setStock(itemId, request.getOnHand(), request.getLowStockThreshold()));
+        if (updated == null || updated == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Item Not Found");
+        }
+        return getStock(itemId);
+    }
+
+    @Override
+    public StockResponse getStock(String itemId) {
+        return levels(List.of(itemId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item Not Found"));
+    }
+
+    @Override
+    public List<StockResponse> getLowStock() {
+        Set<String> hot = new HashSet<>(hotItems.keySet());
+        return itemRepository.findLowStockLevels(hot.isEmpty() ? List.of("") : hot).stream()
+                .map(this::convertToResponse)
+                .filter(StockResponse::getLow)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<StockResponse> getHotItems() {
+        return hotItems.isEmpty() ? List.of() : levels(new ArrayList<>(hotItems.keySet()));
+    }
+
+    // Switches items to and from the in-memory allotment path by their sales in the last minute
+    @Scheduled(fixedRate = 60_000)
+    public void updateHotItems() {
+        Map<String, Long> sold = new HashMap<>();
+        recentSales.forEach((itemId, units) -> sold.put(itemId, units.sumThenReset()));
+        recentSales.values().removeIf(units -> units.sum() == 0);
+
+        List<String> risen = sold.entrySet().stream()
+                .filter(entry -> entry.getValue() >= hotSalesPerMinute && !hotItems.containsKey(entry.getKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (!risen.isEmpty()) {
+            for (Object[] row : itemRepository.findStockLevels(risen)) {
+                // Untracked items have nothing to allot
+                if (row[2] != null) {
+                    hotItems.putIfAbsent((String) row[0], new StripedAllotment(stripes, block));
+                }
+            }
+        }
+        for (String itemId : new ArrayList<>(hotItems.keySet())) {
+            if (sold.getOrDefault(itemId, 0L) < hotSalesPerMinute / 2) {
+                retire(itemId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        new ArrayList<>(hotItems.keySet()).forEach(this::retire);
+    }
+
+    private void retire(String itemId) {
+        StripedAllotment allotment = hotItems.remove(itemId);
+        if (allotment != null) {
+            int units = allotment.retire();
+            if (units > 0) {
+                separateTransaction.executeWithoutResult(status -> itemRepository.incrementStock(itemId, units));
+            }
+        }
+    }
+
+    private void giveBack(String itemId, StripedAllotment allotment, int quantity) {
+        if (!allotment.giveBack(quantity)) {
+            // Retired meanwhile; its units went back to the row, these follow
+            separateTransaction.executeWithoutResult(status -> itemRepository.incrementStock(itemId, quantity));
+        }
+    }
+
+    // Moves up to wanted units from the item row into an allotment, committed at once.
+    // Claims nothing when the refill connections are all in use; the sale then falls back to the row
+    private int claim(String itemId, int wanted) {
+        if (!refills.tryAcquire()) {
+            return 0;
+        }
+        try {
+            return claimNow(itemId, wanted);
+        } finally {
+            refills.release();
+        }
+    }
+
+    private int claimNow(String itemId, int wanted) {
+        Integer claimed = separateTransaction.execute(status -> {
+            int want = wanted;
+            for (int attempt = 0; attempt < 3; attempt++) {
+                if (itemRepository.decrementStock(itemId, want) == 1) {
+                    return want;
+                }
+                List<Object[]> level = itemRepository.findStockLevels(List.of(itemId));
+                Integer left = level.isEmpty() ? null : (Integer) level.get(0)[2];
+                if (left == null || left <= 0) {
+                    return 0;
+                }
+                want = Math.min(want, left);
+            }
+            return 0;
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    private List<StockResponse> levels(Collection<String> itemIds) {
+        return itemRepository.findStockLevels(itemIds).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // From an (itemId, name, stockOnHand, lowStockThreshold) row, adding what is allotted in memory
+    private StockResponse convertToResponse(Object[] row) {
+        String itemId = (String) row[0];
+        Integer stockOnHand = (Integer) row[2];
+        Integer threshold = (Integer) row[3];
+        StripedAllotment allotment = hotItems.get(itemId);
+        int allotted = allotment != null ? allotment.available() : 0;
+        Integer onHand = stockOnHand != null ? stockOnHand + allotted : null;
+        return StockResponse.builder()
+                .itemId(itemId)
+                .name((String) row[1])
+                .onHand(onHand)
+                .lowStockThreshold(threshold)
+                .low(onHand != null && threshold != null && onHand <= threshold)
+                .hot(allotment != null)
+                .allotted(allotted)
+                .build();
+    }
+}
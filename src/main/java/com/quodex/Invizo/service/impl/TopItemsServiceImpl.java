@@ -0,0 +1,219 @@
+/**
+ * TopItemsServiceImpl.java
+ *
+ * "Top items today / this week" for the dashboard without grouping order_items on every poll.
+ *
+ * Every created order feeds one Space-Saving sketch per day (units sold per itemId). Sketches
+ * use a fixed number of counters, so memory stays constant however many distinct items sell,
+ * and days are merged on read for the weekly board. Each entry carries its error bound.
+ *
+ * The sketches only count sales as they happen: refunds and voided orders are not subtracted.
+ * On startup the current week is replayed from the database in one streaming pass.
+ * getExactTopItems() groups the orders table directly, to check the sketch's accuracy.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.quodex.Invizo.event.OrderEvent;
+import com.quodex.Invizo.io.OrderItemResponse;
+import com.quodex.Invizo.io.TopItemEntry;
+import com.quodex.Invizo.io.TopItemsResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.service.TopItemsService;
+import com.quodex.Invizo.sketch.SpaceSaving;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class TopItemsServiceImpl implements TopItemsService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+
+    // One sketch per day of the current week (Monday onwards)
+    private volatile ConcurrentMap<LocalDate, SpaceSaving<String>> dailySketches = new ConcurrentHashMap<>();
+
+    // Orders created from here on reach the sketches through events, never through the replay
+    private final LocalDateTime listeningSince = LocalDateTime.now();
+    private final Object replayLock = new Object();
+    // Events seen while the replay runs; null once it has finished. Guarded by replayLock
+    private List<OrderEvent> pendingEvents = new ArrayList<>();
+
+    public TopItemsServiceImpl(OrderRepository orderRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${invizo.top-items.sketch-capacity:200}") int capacity) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public TopItemsResponse getTopItems(String period, int limit) {
+        LocalDate from = periodStart(period);
+        LocalDate to = LocalDate.now();
+        int n = checkLimit(limit);
+
+        List<SpaceSaving<String>> days = new ArrayList<>();
+        dailySketches.forEach((day, sketch) -> {
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                days.add(sketch);
+            }
+        });
+        SpaceSaving<String> sketch = days.size() == 1 ? days.get(0) : SpaceSaving.merge(days, capacity);
+
+        List<SpaceSaving.Estimate<String>> ranked = sketch.top(n + 1);
+        // Upper bound for anything not on the board: the next counter, or the sketch minimum
+        long unlistedMax = ranked.size() > n ? ranked.get(n).count() : sketch.minCount();
+        List<TopItemEntry> items = ranked.stream()
+                .limit(n)
+                .map(estimate -> TopItemEntry.builder()
+                        .itemId(estimate.key())
+                        .name(estimate.label())
+                        .quantity(estimate.count())
+                        .maxError(estimate.error())
+                        .guaranteed(estimate.count() - estimate.error() >= unlistedMax)
+                        .build())
+                .collect(Collectors.toList());
+
+        return TopItemsResponse.builder()
+                .period(period)
+                .from(from)
+                .to(to)
+                .exact(false)
+                .totalQuantity(sketch.total())
+                .unlistedMaxQuantity(unlistedMax)
+                .items(items)
+                .build();
+    }
+
+    @Override
+    public TopItemsResponse getExactTopItems(String period, int limit) {
+        LocalDate from = periodStart(period);
+        LocalDate to = LocalDate.now();
+        int n = checkLimit(limit);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        List<TopItemEntry> items = orderRepository.findTopItemsByQuantity(start, end, PageRequest.of(0, n))
+                .stream()
+                .map(row -> TopItemEntry.builder()
+                        .itemId((String) row[0])
+                        .name((String) row[1])
+                        .quantity(((Number) row[2]).longValue())
+                        .maxError(0L)
+                        .guaranteed(true)
+                        .build())
+                .collect(Collectors.toList());
+        Long total = orderRepository.sumQuantity(start, end);
+
+        return TopItemsResponse.builder()
+                .period(period)
+                .from(from)
+                .to(to)
+                .exact(true)
+                .totalQuantity(total != null ? total : 0L)
+                .unlistedMaxQuantity(items.size() < n ? 0L : items.get(items.size() - 1).getQuantity())
+                .items(items)
+                .build();
+    }
+
+    // Replays the current week so the boards are complete after a restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        LocalDate weekStart = weekStart(LocalDate.now());
+        ConcurrentMap<LocalDate, SpaceSaving<String>> sketches = new ConcurrentHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = orderRepository.streamItemLines(weekStart.atStartOfDay(), listeningSince)) {
+                rows.forEach(row -> sketchFor(sketches, ((LocalDateTime) row[0]).toLocalDate())
+                        .offer((String) row[1], (String) row[2], row[3] != null ? ((Number) row[3]).longValue() : 0));
+            }
+        });
+
+        // Sales made during the replay go into the new sketches before they are published
+        synchronized (replayLock) {
+            pendingEvents.forEach(event -> offer(sketches, event));
+            dailySketches = sketches;
+            pendingEvents = null;
+        }
+    }
+
+    // Drops days that left the current week
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollOver() {
+        LocalDate weekStart = weekStart(LocalDate.now());
+        dailySketches.keySet().removeIf(day -> day.isBefore(weekStart));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        synchronized (replayLock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        offer(dailySketches, event);
+    }
+
+    private void offer(ConcurrentMap<LocalDate, SpaceSaving<String>> sketches, OrderEvent event) {
+        if (event.getType() != OrderEvent.Type.CREATED || event.getOrder().getItems() == null) {
+            return;
+        }
+        LocalDateTime createdAt = event.getOrder().getCreatedAt();
+        LocalDate day = createdAt != null ? createdAt.toLocalDate() : LocalDate.now();
+        if (day.isBefore(weekStart(LocalDate.now()))) {
+            return;
+        }
+        SpaceSaving<String> sketch = sketchFor(sketches, day);
+        for (OrderItemResponse item : event.getOrder().getItems()) {
+            if (item.getQuantity() != null) {
+                sketch.offer(item.getItemId(), item.getName(), item.getQuantity());
+            }
+        }
+    }
+
+    private SpaceSaving<String> sketchFor(ConcurrentMap<LocalDate, SpaceSaving<String>> sketches, LocalDate day) {
+        return sketches.computeIfAbsent(day, d -> new SpaceSaving<>(capacity));
+    }
+
+    private LocalDate periodStart(String period) {
+        LocalDate today = LocalDate.now();
+        return switch (period) {
+            case "today" -> today;
+            case "week" -> weekStart(today);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "period must be today or week");
+        };
+    }
+
+    private int checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
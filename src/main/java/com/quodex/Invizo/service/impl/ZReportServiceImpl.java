@@ -0,0 +1,256 @@
+/**
+ * ZReportServiceImpl.java
+ *
+ * End-of-day closing (Z) reports.
+ *
+ * Like a till's Z read, each report covers everything since the previous one: orders created in
+ * [end of previous report, now - grace). The first report starts at midnight of the day it runs.
+ * createdAt is stamped when a row is persisted, not when its transaction commits, so the period
+ * stops a grace interval (invizo.z-report.commit-grace-seconds) short of now: a sale still being
+ * committed at closing time lands in the next report instead of in none.
+ * A scheduler generates one at the configured closing time (invizo.z-report.closing-cron);
+ * admins can also close early with POST /admin/reports/z.
+ *
+ * The report is built in one streaming pass over the period's orders and their lines, keeping
+ * only running totals (per payment method, tax, one counter per item sold), plus two small
+ * grouped queries for refunds and voids issued in the period. The result is stored as JSON in an
+ * immutable z_reports row and always served from there, so a report never changes once printed.
+ */
+
+package com.quodex.Invizo.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quodex.Invizo.entity.ZReportEntity;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.io.ZReportItemLine;
+import com.quodex.Invizo.io.ZReportPaymentLine;
+import com.quodex.Invizo.io.ZReportResponse;
+import com.quodex.Invizo.repository.OrderRepository;
+import com.quodex.Invizo.repository.OrderVoidRepository;
+import com.quodex.Invizo.repository.RefundRepository;
+import com.quodex.Invizo.repository.ZReportRepository;
+import com.quodex.Invizo.service.ZReportService;
+import com.quodex.Invizo.util.PaymentMethod;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class ZReportServiceImpl implements ZReportService {
+
+    private final OrderRepository orderRepository;
+    private final RefundRepository refundRepository;
+    private final OrderVoidRepository orderVoidRepository;
+    private final ZReportRepository zReportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    // How long a transaction may run between stamping createdAt and committing
+    private final long commitGraceSeconds;
+
+    public ZReportServiceImpl(OrderRepository orderRepository,
+                              RefundRepository refundRepository,
+                              OrderVoidRepository orderVoidRepository,
+                              ZReportRepository zReportRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${invizo.z-report.commit-grace-seconds:120}") long commitGraceSeconds) {
+        this.orderRepository = orderRepository;
+        this.refundRepository = refundRepository;
+        this.orderVoidRepository = orderVoidRepository;
+        this.zReportRepository = zReportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.commitGraceSeconds = commitGraceSeconds;
+    }
+
+    @Scheduled(cron = "${invizo.z-report.closing-cron:0 0 23 * * *}")
+    public void generateAtClosingTime() {
+        generate();
+    }
+
+    // Synchronized so two closes cannot cover the same period
+    @Override
+    public synchronized ZReportResponse generate() {
+        // Whole seconds, so the stored boundary is exactly where the next report starts
+        LocalDateTime to = LocalDateTime.now().minusSeconds(commitGraceSeconds).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime from = zReportRepository.findTopByOrderByIdDesc()
+                .map(ZReportEntity::getPeriodTo)
+                .orElse(to.toLocalDate().atStartOfDay());
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The previous Z report already covers this period");
+        }
+
+        ZReportResponse report = transactionTemplate.execute(status -> aggregate(from, to));
+        ZReportEntity entity;
+        try {
+            entity = zReportRepository.save(ZReportEntity.builder()
+                    .periodFrom(from)
+                    .periodTo(to)
+                    .generatedAt(LocalDateTime.now())
+                    .payload(objectMapper.writeValueAsString(report))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Z report", e);
+        }
+        return convertToResponse(entity);
+    }
+
+    @Override
+    public ZReportResponse getReport(Long reportNumber) {
+        return zReportRepository.findById(reportNumber)
+                .map(this::convertToResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Z report Not Found"));
+    }
+
+    @Override
+    public List<ZReportResponse> getReports(LocalDate date) {
+        return zReportRepository.findByPeriodToGreaterThanEqualAndPeriodToLessThanOrderByIdAsc(
+                        date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private ZReportResponse aggregate(LocalDateTime from, LocalDateTime to) {
+        Totals totals = new Totals();
+        try (Stream<Object[]> rows = orderRepository.streamOrderLines(from, to)) {
+            // Rows arrive grouped by order: order columns repeat on every line
+            Long orderId = null;
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                if (!row[0].equals(orderId)) {
+                    orderId = (Long) row[0];
+                    totals.addOrder((String) row[1], (PaymentMethod) row[2],
+                            row[3] == PaymentDetails.PaymentStatus.COMPLETED, (Double) row[4], (Double) row[5]);
+                }
+                if (row[6] != null) {
+                    totals.addLine((String) row[6], (String) row[7], (Integer) row[8], (Double) row[9]);
+                }
+            }
+        }
+
+        List<ZReportPaymentLine> refunds = new ArrayList<>();
+        long refundedPaise = 0;
+        for (Object[] row : refundRepository.sumByPaymentMethod(from, to)) {
+            long paise = toPaise(((Number) row[2]).doubleValue());
+            refundedPaise += paise;
+            refunds.add(ZReportPaymentLine.builder()
+                    .paymentMethod((PaymentMethod) row[0])
+                    .count(((Number) row[1]).longValue())
+                    .amount(toRupees(paise))
+                    .build());
+        }
+        Object[] voids = orderVoidRepository.sumVoids(from, to).get(0);
+
+        return ZReportResponse.builder()
+                .from(from)
+                .to(to)
+                .orderCount(totals.orderCount)
+                .firstBillNumber(totals.firstBill)
+                .lastBillNumber(totals.lastBill)
+                .grossSales(toRupees(totals.grossPaise))
+                .taxCollected(toRupees(totals.taxPaise))
+                .payments(totals.payments())
+                .pendingOrders(totals.pendingOrders)
+                .pendingAmount(toRupees(totals.pendingPaise))
+                .refunds(refunds)
+                .netSales(toRupees(totals.grossPaise - refundedPaise))
+                .voidCount(((Number) voids[0]).longValue())
+                .voidAmount(voids[1] != null ? ((Number) voids[1]).doubleValue() : 0.0)
+                .items(totals.items())
+                .build();
+    }
+
+    private ZReportResponse convertToResponse(ZReportEntity entity) {
+        try {
+            ZReportResponse report = objectMapper.readValue(entity.getPayload(), ZReportResponse.class);
+            report.setReportNumber(entity.getId());
+            report.setGeneratedAt(entity.getGeneratedAt());
+            return report;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable Z report " + entity.getId(), e);
+        }
+    }
+
+    private static long toPaise(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+
+    private static double toRupees(long paise) {
+        return paise / 100.0;
+    }
+
+    // Running totals of the streaming pass; memory grows with the number of items sold, not orders
+    private static final class Totals {
+        long orderCount;
+        String firstBill;
+        String lastBill;
+        long grossPaise;
+        long taxPaise;
+        long pendingOrders;
+        long pendingPaise;
+        final Map<PaymentMethod, long[]> byMethod = new EnumMap<>(PaymentMethod.class);
+        // itemId -> {quantity, paise}
+        final Map<String, long[]> byItem = new HashMap<>();
+        final Map<String, String> itemNames = new HashMap<>();
+
+        void addOrder(String billNumber, PaymentMethod method, boolean paid, Double tax, Double grandTotal) {
+            orderCount++;
+            if (firstBill == null) {
+                firstBill = billNumber;
+            }
+            lastBill = billNumber;
+            long total = toPaise(grandTotal);
+            if (!paid) {
+                pendingOrders++;
+                pendingPaise += total;
+                return;
+            }
+            grossPaise += total;
+            taxPaise += toPaise(tax);
+            long[] counts = byMethod.computeIfAbsent(method, m -> new long[2]);
+            counts[0]++;
+            counts[1] += total;
+        }
+
+        void addLine(String itemId, String name, Integer quantity, Double price) {
+            int units = quantity != null ? quantity : 0;
+            long[] counts = byItem.computeIfAbsent(itemId, id -> new long[2]);
+            counts[0] += units;
+            counts[1] += toPaise((price != null ? price : 0.0) * units);
+            itemNames.put(itemId, name);
+        }
+
+        List<ZReportPaymentLine> payments() {
+            return byMethod.entrySet().stream()
+                    .map(e -> ZReportPaymentLine.builder()
+                            .paymentMethod(e.getKey())
+                            .count(e.getValue()[0])
+                            .amount(toRupees(e.getValue()[1]))
+                            .build())
+                    .collect(Collectors.toList());
+        }
+
+        List<ZReportItemLine> items() {
+            return byItem.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed())
+                    .map(e -> ZReportItemLine.builder()
+                            .itemId(e.getKey())
+                            .name(itemNames.get(e.getKey()))
+                            .quantity(e.getValue()[0])
+                            .amount(toRupees(e.getValue()[1]))
+                            .build())
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.quodex.Invizo.sketch;
+
+import com.quodex.Invizo.util.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch (Flajolet et al.) with 2^13 registers.
+ *
+ * Estimates have a standard error of about 1.15%, whatever the number of distinct values.
+ * Registers fit in 6 bits, so the serialized form is always 6 KB. Sketches merge by taking the
+ * register-wise maximum; a merged sketch estimates the distinct count of the combined input.
+ * Adding the same value twice never changes the sketch, so replaying input is harmless.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 13;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final int SERIALIZED_BYTES = REGISTERS * 6 / 8;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * @return true if the sketch changed (the value may be new)
+     */
+    public synchronized boolean add(String value) {
+        long hash = Hashing.hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first 1-bit in the remaining bits (a sentinel bit caps the run of zeros)
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public void merge(HyperLogLog other) {
+        // Copy first so two sketches merging into each other never hold both locks
+        byte[] theirs = other.snapshot();
+        synchronized (this) {
+            for (int i = 0; i < REGISTERS; i++) {
+                if (theirs[i] > registers[i]) {
+                    registers[i] = theirs[i];
+                }
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Small range: linear counting over the empty registers is more accurate
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // Standard error of estimate(), e.g. 0.0115 for 1.15%
+    public static double relativeError() {
+        return 1.04 / Math.sqrt(REGISTERS);
+    }
+
+    // Packs the registers at 6 bits each
+    public synchronized byte[] toBytes() {
+        byte[] packed = new byte[SERIALIZED_BYTES];
+        for (int i = 0, bit = 0; i < REGISTERS; i++, bit += 6) {
+            int value = registers[i];
+            int offset = bit >>> 3;
+            int shift = bit & 7;
+            packed[offset] |= (byte) (value << shift);
+            if (shift > 2) {
+                packed[offset + 1] |= (byte) (value >>> (8 - shift));
+            }
+        }
+        return packed;
+    }
+
+    public static HyperLogLog fromBytes(byte[] packed) {
+        if (packed.length != SERIALIZED_BYTES) {
+            throw new IllegalArgumentException("Expected " + SERIALIZED_BYTES + " bytes, got " + packed.length);
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 0, bit = 0; i < REGISTERS; i++, bit += 6) {
+            int offset = bit >>> 3;
+            int shift = bit & 7;
+            int value = (packed[offset] & 0xFF) >>> shift;
+            if (shift > 2) {
+                value |= (packed[offset + 1] & 0xFF) << (8 - shift);
+            }
+            registers[i] = (byte) (value & 0x3F);
+        }
+        return new HyperLogLog(registers);
+    }
+
+    private synchronized byte[] snapshot() {
+        return Arrays.copyOf(registers, REGISTERS);
+    }
+}
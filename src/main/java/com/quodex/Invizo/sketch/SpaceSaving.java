@@ -0,0 +1,155 @@
+package com.quodex.Invizo.sketch;
+
+import java.util.*;
+
+/**
+ * Space-Saving heavy-hitters sketch (Metwally et al.): tracks the approximate top keys of a
+ * weighted stream in a fixed number of counters.
+ *
+ * Every monitored key has a count that never underestimates its true weight and an error
+ * (how much of that count may belong to keys it replaced), so true weight lies in
+ * [count - error, count]. A key that is not monitored has a true weight of at most
+ * {@link #minCount()}.
+ *
+ * Sketches built over disjoint parts of a stream (e.g. one per day) can be merged; the merged
+ * sketch keeps the same guarantees over the combined stream.
+ */
+public class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    // Smallest count first; ties broken by insertion order so the set never collapses entries
+    private final TreeSet<Counter<K>> byCount = new TreeSet<>(
+            Comparator.<Counter<K>>comparingLong(c -> c.count).thenComparingLong(c -> c.seq));
+    private long total;
+    private long nextSeq;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds weight to a key. The label (e.g. an item name) is kept for display only.
+     */
+    public synchronized void offer(K key, String label, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += weight;
+            counter.label = label;
+            byCount.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter<>(key, label, weight, 0, nextSeq++);
+        } else {
+            // Replace the smallest counter; the new key inherits its count as error
+            Counter<K> smallest = byCount.pollFirst();
+            counters.remove(smallest.key);
+            counter = new Counter<>(key, label, smallest.count + weight, smallest.count, nextSeq++);
+        }
+        counters.put(key, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Combines sketches of disjoint streams into a new sketch with the given capacity.
+     * A key missing from a full sketch may still have had up to that sketch's minimum count,
+     * so that amount is added to both its count and its error.
+     */
+    public static <K> SpaceSaving<K> merge(Collection<SpaceSaving<K>> sketches, int capacity) {
+        Map<K, Counter<K>> combined = new HashMap<>();
+        long total = 0;
+        for (SpaceSaving<K> sketch : sketches) {
+            synchronized (sketch) {
+                total += sketch.total;
+                for (Counter<K> counter : sketch.counters.values()) {
+                    combined.computeIfAbsent(counter.key, key -> new Counter<>(key, counter.label, 0, 0, 0));
+                }
+            }
+        }
+        for (SpaceSaving<K> sketch : sketches) {
+            synchronized (sketch) {
+                long missing = sketch.minCount();
+                for (Counter<K> merged : combined.values()) {
+                    Counter<K> counter = sketch.counters.get(merged.key);
+                    if (counter != null) {
+                        merged.count += counter.count;
+                        merged.error += counter.error;
+                        merged.label = counter.label;
+                    } else {
+                        merged.count += missing;
+                        merged.error += missing;
+                    }
+                }
+            }
+        }
+
+        SpaceSaving<K> result = new SpaceSaving<>(capacity);
+        result.total = total;
+        combined.values().stream()
+                .sorted(Comparator.<Counter<K>>comparingLong(c -> c.count).reversed())
+                .limit(capacity)
+                .forEach(c -> {
+                    Counter<K> counter = new Counter<>(c.key, c.label, c.count, c.error, result.nextSeq++);
+                    result.counters.put(c.key, counter);
+                    result.byCount.add(counter);
+                });
+        return result;
+    }
+
+    /**
+     * The n keys with the highest counts, largest first. An estimate is marked guaranteed when
+     * its lower bound beats every key ranked below it, i.e. it is certainly in the true top n.
+     */
+    public synchronized List<Estimate<K>> top(int n) {
+        List<Counter<K>> ranked = new ArrayList<>(byCount.descendingSet());
+        int size = Math.min(n, ranked.size());
+        // Highest count any key outside the returned list could have
+        long threshold = size < ranked.size() ? ranked.get(size).count : minCount();
+
+        List<Estimate<K>> estimates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Counter<K> c = ranked.get(i);
+            estimates.add(new Estimate<>(c.key, c.label, c.count, c.error, c.count - c.error >= threshold));
+        }
+        return estimates;
+    }
+
+    // Upper bound on the weight of any key that is not monitored (0 while the sketch has free counters)
+    public synchronized long minCount() {
+        return counters.size() < capacity || byCount.isEmpty() ? 0 : byCount.first().count;
+    }
+
+    // Total weight offered so far; exact
+    public synchronized long total() {
+        return total;
+    }
+
+    public record Estimate<K>(K key, String label, long count, long error, boolean guaranteed) {
+    }
+
+    private static final class Counter<K> {
+        final K key;
+        String label;
+        long count;
+        long error;
+        final long seq;
+
+        Counter(K key, String label, long count, long error, long seq) {
+            this.key = key;
+            this.label = label;
+            this.count = count;
+            this.error = error;
+            this.seq = seq;
+        }
+    }
+}
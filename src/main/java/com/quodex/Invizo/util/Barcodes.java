@@ -0,0 +1,82 @@
+package com.quodex.Invizo.util;
+
+import java.util.regex.Pattern;
+
+// Normalizes and checks item barcodes (EAN-8, UPC-A, EAN-13, GTIN-14 or custom) and SKUs
+public final class Barcodes {
+
+    // Printable ASCII without spaces, as Code 128 labels carry
+    private static final Pattern ALLOWED = Pattern.compile("[\\x21-\\x7E]{1,64}");
+
+    private Barcodes() {
+    }
+
+    /**
+     * Removes whitespace, upper-cases letters and writes a 12-digit UPC-A as the equivalent
+     * 13-digit EAN ("036000291452" becomes "0036000291452"), since scanners report either form.
+     * @return the normalized code, or null when nothing usable was given
+     */
+    public static String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        String normalized = code.replaceAll("\\s", "").toUpperCase();
+        if (normalized.length() == 12 && isDigits(normalized)) {
+            normalized = "0" + normalized;
+        }
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * SKUs are only trimmed and upper-cased; they are free-form and never converted.
+     * @return the normalized SKU, or null when nothing usable was given
+     */
+    public static String normalizeSku(String sku) {
+        if (sku == null || sku.isBlank()) {
+            return null;
+        }
+        return sku.strip().toUpperCase();
+    }
+
+    /**
+     * Whether a normalized code can be stored: printable characters only, and an all-digit code of
+     * a GTIN length (8, 13 or 14) must carry the right check digit.
+     */
+    public static boolean isValid(String normalized) {
+        if (normalized == null || !ALLOWED.matcher(normalized).matches()) {
+            return false;
+        }
+        int length = normalized.length();
+        if ((length == 8 || length == 13 || length == 14) && isDigits(normalized)) {
+            return hasValidCheckDigit(normalized);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a normalized SKU can be stored: printable characters and length only. SKUs are not
+     * GTINs, so an all-digit SKU such as "10000001" carries no check digit.
+     */
+    public static boolean isValidSku(String normalized) {
+        return normalized != null && ALLOWED.matcher(normalized).matches();
+    }
+
+    // GS1 check digit: weights 3 and 1 alternate from the rightmost data digit
+    static boolean hasValidCheckDigit(String digits) {
+        int sum = 0;
+        int last = digits.length() - 1;
+        for (int i = last - 1, weight = 3; i >= 0; i--, weight = 4 - weight) {
+            sum += (digits.charAt(i) - '0') * weight;
+        }
+        return (10 - sum % 10) % 10 == digits.charAt(last) - '0';
+    }
+
+    private static boolean isDigits(String code) {
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) < '0' || code.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
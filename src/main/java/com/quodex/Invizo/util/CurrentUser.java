@@ -0,0 +1,22 @@
+package com.quodex.Invizo.util;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// The user behind the current request, as set by JwtRequestFilter
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    // Email of the authenticated user, or null outside an authenticated request (startup, schedulers)
+    public static String email() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,18 @@
+package com.quodex.Invizo.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generates bill / refund numbers like "ORD1718000000000" that never repeat within this application
+public final class DocumentNumbers {
+
+    // Last timestamp handed out; two documents created in the same millisecond get consecutive values
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private DocumentNumbers() {
+    }
+
+    public static String next(String prefix) {
+        long value = LAST.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        return prefix + value;
+    }
+}
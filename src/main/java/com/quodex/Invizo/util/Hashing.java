@@ -0,0 +1,25 @@
+package com.quodex.Invizo.util;
+
+import java.nio.charset.StandardCharsets;
+
+// Hash functions for in-memory sketches and indexes
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    // 64-bit FNV-1a followed by the MurmurHash3 finalizer, so every input bit affects every output bit
+    public static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,26 @@
+package com.quodex.Invizo.util;
+
+// Normalizes customer mobile numbers so the same customer always maps to the same key
+public final class MobileNumbers {
+
+    private MobileNumbers() {
+    }
+
+    /**
+     * Keeps digits only and strips the Indian country code / trunk prefix,
+     * e.g. "+91 98450-12345", "098450 12345" and "9845012345" all become "9845012345".
+     * @return the normalized number, or null when nothing usable was given
+     */
+    public static String normalize(String mobileNumber) {
+        if (mobileNumber == null) {
+            return null;
+        }
+        String digits = mobileNumber.replaceAll("\\D", "");
+        if (digits.length() == 12 && digits.startsWith("91")) {
+            digits = digits.substring(2);
+        } else if (digits.length() == 11 && digits.startsWith("0")) {
+            digits = digits.substring(1);
+        }
+        return digits.isEmpty() ? null : digits;
+    }
+}
@@ -0,0 +1,6 @@
+package com.quodex.Invizo.util;
+
+// PENDING until Razorpay confirmed the money went back; FAILED refunds were never paid out
+public enum RefundStatus {
+    PENDING, COMPLETED, FAILED
+}
@@ -0,0 +1,52 @@
+package com.quodex.Invizo.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemCoOccurrenceTests {
+
+    @Test
+    void ranksNeighboursByHowOftenTheyWereBoughtTogether() {
+        ItemCoOccurrence matrix = new ItemCoOccurrence(5, 10);
+        matrix.addBasket(basket("tea", "Tea", "bun", "Bun"));
+        matrix.addBasket(basket("tea", "Tea", "bun", "Bun", "cake", "Cake"));
+        matrix.addBasket(basket("tea", "Tea"));
+
+        List<ItemCoOccurrence.Related> related = matrix.related("tea", 5);
+
+        assertEquals(List.of("bun", "cake"), related.stream().map(ItemCoOccurrence.Related::itemId).toList());
+        assertEquals("Bun", related.get(0).name());
+        assertEquals(2.0 / 3, related.get(0).confidence(), 1e-9);
+    }
+
+    @Test
+    void ignoresLinesWithoutAnItemId() {
+        ItemCoOccurrence matrix = new ItemCoOccurrence(5, 10);
+        Map<String, String> basket = basket("tea", "Tea", "bun", "Bun");
+        // A free-text line, as order_items allows
+        basket.put(null, "Extra sugar");
+
+        matrix.addBasket(basket);
+
+        assertEquals(2, matrix.items());
+        assertEquals(List.of("bun"), matrix.related("tea", 5).stream().map(ItemCoOccurrence.Related::itemId).toList());
+
+        Map<String, String> onlyFreeText = new LinkedHashMap<>();
+        onlyFreeText.put(null, "Service charge");
+        matrix.addBasket(onlyFreeText);
+        assertEquals(2, matrix.items());
+    }
+
+    private static Map<String, String> basket(String... idsAndNames) {
+        Map<String, String> basket = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndNames.length; i += 2) {
+            basket.put(idsAndNames[i], idsAndNames[i + 1]);
+        }
+        return basket;
+    }
+}
@@ -0,0 +1,24 @@
+package com.quodex.Invizo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTests {
+
+    @Test
+    void gzipIsServedUnlessRefusedWithQZero() {
+        assertTrue(CatalogSnapshot.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CatalogSnapshot.acceptsGzip("br;q=1.0, *;q=0.5"));
+        assertFalse(CatalogSnapshot.acceptsGzip("gzip;q=0, identity"));
+        assertFalse(CatalogSnapshot.acceptsGzip("deflate"));
+        assertFalse(CatalogSnapshot.acceptsGzip(null));
+    }
+
+    @Test
+    void malformedQValueDoesNotRefuse() {
+        assertTrue(CatalogSnapshot.acceptsGzip("gzip;q=x"));
+        assertTrue(CatalogSnapshot.acceptsGzip("gzip;q="));
+    }
+}
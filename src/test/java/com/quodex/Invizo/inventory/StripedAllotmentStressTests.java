@@ -0,0 +1,244 @@
+package com.quodex.Invizo.inventory;
+
+import com.quodex.Invizo.cache.CatalogCache;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.entity.CategoryEntity;
+import com.quodex.Invizo.entity.ItemEntity;
+import com.quodex.Invizo.io.ItemCodesRequest;
+import com.quodex.Invizo.repository.CategoryRepository;
+import com.quodex.Invizo.repository.ItemRepository;
+import com.quodex.Invizo.service.CatalogChangeService;
+import com.quodex.Invizo.service.FileUploadService;
+import com.quodex.Invizo.service.impl.ItemServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many tills selling the same item at once, with stock for only part of the demand.
+ * The item row is simulated by an AtomicInteger changed only through a conditional decrement,
+ * like "UPDATE ... SET stock_on_hand = stock_on_hand - n WHERE stock_on_hand >= n". Whatever the
+ * interleaving, no unit may be sold twice or lost: sold + row + allotted == initial stock.
+ * The nested test runs the real conditional decrement on an embedded database, next to item
+ * edits that save the whole entity.
+ */
+class StripedAllotmentStressTests {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 5_000;
+    private static final int INITIAL_STOCK = 100_000;
+
+    @Test
+    void allotmentNeverOversellsOrLosesUnits() throws Exception {
+        Row row = new Row(INITIAL_STOCK);
+        StripedAllotment allotment = new StripedAllotment(8, 20);
+        AtomicLong sold = new AtomicLong();
+
+        run(quantity -> {
+            if (!allotment.reserve(quantity, row::claim)) {
+                return;
+            }
+            // Every tenth order rolls back and gives its units back
+            if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                assertTrue(allotment.giveBack(quantity));
+            } else {
+                sold.addAndGet(quantity);
+            }
+        });
+
+        int allotted = allotment.available();
+        assertTrue(row.stock.get() >= 0 && allotted >= 0);
+        assertEquals(INITIAL_STOCK, sold.get() + row.stock.get() + allotted);
+        // Demand exceeds stock, so everything but a remainder smaller than one sale got sold
+        assertTrue(row.stock.get() + allotted < 5);
+        // Refills touch the row once per block, not once per sale
+        assertTrue(row.updates.get() < sold.get() / 10);
+
+        int drained = allotment.retire();
+        row.stock.addAndGet(drained);
+        assertEquals(INITIAL_STOCK, sold.get() + row.stock.get());
+        assertTrue(!allotment.reserve(1, row::claim) && !allotment.giveBack(1));
+    }
+
+    @Test
+    void retiringWhileSellingLosesNothing() throws Exception {
+        Row row = new Row(INITIAL_STOCK);
+        StripedAllotment allotment = new StripedAllotment(8, 20);
+        AtomicLong sold = new AtomicLong();
+
+        // Like StockServiceImpl: once retired, sales go straight to the row
+        ExecutorService retirer = Executors.newSingleThreadExecutor();
+        Future<Integer> drained = retirer.submit(() -> {
+            Thread.sleep(20);
+            return allotment.retire();
+        });
+        run(quantity -> {
+            if (allotment.reserve(quantity, row::claim)) {
+                sold.addAndGet(quantity);
+            } else if (allotment.isRetired() && row.decrement(quantity)) {
+                sold.addAndGet(quantity);
+            }
+        });
+        row.stock.addAndGet(drained.get());
+        retirer.shutdown();
+
+        assertEquals(0, allotment.available());
+        assertEquals(INITIAL_STOCK, sold.get() + row.stock.get());
+    }
+
+    private interface Sale {
+        void sell(int quantity) throws Exception;
+    }
+
+    // THREADS tills each try ATTEMPTS_PER_THREAD sales of 1 to 4 units, all starting together
+    private void run(Sale sale) throws Exception {
+        ExecutorService tills = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(tills.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    sale.sell(1 + ThreadLocalRandom.current().nextInt(4));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        tills.shutdown();
+    }
+
+    // The item row: stock only changes through a conditional decrement
+    private static final class Row {
+        final AtomicInteger stock;
+        // Successful decrements; each one would hold the row lock until its transaction commits
+        final AtomicInteger updates = new AtomicInteger();
+
+        Row(int stock) {
+            this.stock = new AtomicInteger(stock);
+        }
+
+        boolean decrement(int quantity) {
+            int current;
+            while ((current = stock.get()) >= quantity) {
+                if (stock.compareAndSet(current, current - quantity)) {
+                    updates.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // What StockServiceImpl.claim does: all of it if there is enough, otherwise what is left
+        int claim(int wanted) {
+            while (true) {
+                if (decrement(wanted)) {
+                    return wanted;
+                }
+                int left = stock.get();
+                if (left <= 0) {
+                    return 0;
+                }
+                wanted = Math.min(wanted, left);
+            }
+        }
+    }
+
+    @Nested
+    @DataJpaTest
+    // The sales and edits commit on their own threads, so nothing may be left in a test transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class AgainstTheItemRow {
+
+        private static final int STOCK = 1_000;
+
+        @Autowired
+        private ItemRepository itemRepository;
+        @Autowired
+        private CategoryRepository categoryRepository;
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @AfterEach
+        void cleanUp() {
+            itemRepository.deleteAll();
+            categoryRepository.deleteAll();
+        }
+
+        @Test
+        void editingCodesWhileSellingLosesNoSale() throws Exception {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            CategoryEntity category = categoryRepository.save(CategoryEntity.builder().categoryId("drinks").name("Drinks").build());
+            ItemEntity item = itemRepository.save(ItemEntity.builder().itemId("tea").name("Tea")
+                    .price(BigDecimal.TEN).category(category).stockOnHand(STOCK).build());
+            ItemServiceImpl itemService = itemService(transaction);
+
+            AtomicLong sold = new AtomicLong();
+            ExecutorService editor = Executors.newSingleThreadExecutor();
+            Future<?> edits = editor.submit(() -> {
+                // Each edit loads the item, then saves all of it while sales commit in between
+                for (int i = 0; i < 100; i++) {
+                    itemService.updateCodes(item.getItemId(), new ItemCodesRequest("TEA-" + i, List.of()));
+                }
+                return null;
+            });
+            ExecutorService tills = Executors.newFixedThreadPool(4);
+            List<Future<?>> sales = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                sales.add(tills.submit(() -> {
+                    for (int i = 0; i < STOCK / 4; i++) {
+                        Integer updated = transaction.execute(status -> itemRepository.decrementStock(item.getItemId(), 1));
+                        if (updated != null && updated == 1) {
+                            sold.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> sale : sales) {
+                sale.get(60, TimeUnit.SECONDS);
+            }
+            edits.get(60, TimeUnit.SECONDS);
+            tills.shutdown();
+            editor.shutdown();
+
+            ItemEntity after = itemRepository.findByItemId(item.getItemId()).orElseThrow();
+            assertEquals("TEA-99", after.getSku());
+            assertEquals(STOCK, sold.get());
+            assertEquals(0, after.getStockOnHand());
+        }
+
+        // The real item service, with a catalog change log that only runs the write in a transaction
+        private ItemServiceImpl itemService(TransactionTemplate transaction) {
+            CatalogChangeService catalogChangeService = mock(CatalogChangeService.class);
+            when(catalogChangeService.write(any())).thenAnswer(invocation ->
+                    transaction.execute(status -> ((Supplier<?>) invocation.getArgument(0)).get()));
+            return new ItemServiceImpl(itemRepository, mock(FileUploadService.class), categoryRepository,
+                    new ResourceVersions(), catalogChangeService, mock(CatalogCache.class));
+        }
+    }
+}
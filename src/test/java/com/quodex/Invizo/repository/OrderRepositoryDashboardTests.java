@@ -0,0 +1,112 @@
+package com.quodex.Invizo.repository;
+
+import com.quodex.Invizo.entity.OrderEntity;
+import com.quodex.Invizo.entity.OrderItemEntity;
+import com.quodex.Invizo.io.PaymentDetails;
+import com.quodex.Invizo.util.PaymentMethod;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The two statements behind OrderServiceImpl.loadDashboard, run against an embedded database:
+ * today's totals with the cut-off of the five most recent orders, then those orders with their
+ * items fetched in the same statement.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderRepositoryDashboardTests {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate today = LocalDate.now();
+    // Newest first: six orders today, two yesterday
+    private final List<OrderEntity> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime noon = today.atTime(12, 0);
+        for (int i = 0; i < 6; i++) {
+            orders.add(persist(noon.minusMinutes(10L * i), 27.5, i == 2 ? 5.0 : 0.0));
+        }
+        orders.add(persist(noon.minusDays(1), 100.0, 0.0));
+        orders.add(persist(noon.minusDays(1).minusMinutes(10), 100.0, 0.0));
+        entityManager.clear();
+    }
+
+    @Test
+    void totalsCoverTodayOnlyAndCutOffAtTheFifthNewestOrder() {
+        Object[] totals = orderRepository.findDashboardTotals(today.atStartOfDay(), today.plusDays(1).atStartOfDay()).get(0);
+
+        // Net of the refund
+        assertEquals(6 * 27.5 - 5.0, ((Number) totals[0]).doubleValue(), 0.001);
+        assertEquals(6L, ((Number) totals[1]).longValue());
+        assertEquals(orders.get(4).getCreatedAt(), totals[2]);
+    }
+
+    @Test
+    void cutOffIsNullWithFewerThanFiveOrders() {
+        orderRepository.deleteAll(orderRepository.findAll().subList(0, 4));
+        entityManager.flush();
+
+        Object[] totals = orderRepository.findDashboardTotals(today.atStartOfDay(), today.plusDays(1).atStartOfDay()).get(0);
+
+        assertNull(totals[2]);
+    }
+
+    @Test
+    void recentOrdersComeNewestFirstWithTheirItemsInOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Object[] totals = orderRepository.findDashboardTotals(today.atStartOfDay(), today.plusDays(1).atStartOfDay()).get(0);
+        List<OrderEntity> recent = orderRepository.findRecentWithItems((LocalDateTime) totals[2]);
+
+        assertEquals(orders.subList(0, 5).stream().map(OrderEntity::getOrderId).toList(),
+                recent.stream().map(OrderEntity::getOrderId).toList());
+        for (OrderEntity order : recent) {
+            assertTrue(Hibernate.isInitialized(order.getItems()));
+            assertEquals(2, order.getItems().size());
+        }
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private OrderEntity persist(LocalDateTime createdAt, double grandTotal, double refunded) {
+        PaymentDetails paymentDetails = new PaymentDetails();
+        paymentDetails.setStatus(PaymentDetails.PaymentStatus.COMPLETED);
+        OrderEntity order = OrderEntity.builder()
+                .customerName("Customer")
+                .subtotal(grandTotal)
+                .tax(0.0)
+                .grandTotal(grandTotal)
+                .refundedAmount(refunded)
+                .paymentMethod(PaymentMethod.CASH)
+                .paymentDetails(paymentDetails)
+                .items(new ArrayList<>(List.of(
+                        OrderItemEntity.builder().itemId("tea").name("Tea").price(10.0).quantity(2).refundedQuantity(0).build(),
+                        OrderItemEntity.builder().itemId("bun").name("Bun").price(7.5).quantity(1).refundedQuantity(0).build())))
+                .build();
+        entityManager.persist(order);
+        // createdAt is stamped on persist; move the order to the time the test needs
+        order.setCreatedAt(createdAt);
+        entityManager.flush();
+        return order;
+    }
+}
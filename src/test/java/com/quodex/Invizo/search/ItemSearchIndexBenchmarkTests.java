@@ -0,0 +1,109 @@
+package com.quodex.Invizo.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency and match quality of ItemSearchIndex on a generated 50k-item catalog: prefixes,
+ * typos, multi-word queries and popularity ranking.
+ * The latency test is tagged "benchmark" and only runs with -Pbenchmark.
+ */
+class ItemSearchIndexBenchmarkTests {
+
+    private static final int ITEMS = 50_000;
+
+    private static final String[] STYLES = {"spicy", "classic", "smoked", "crispy", "masala", "tandoori", "garlic",
+            "cheese", "butter", "peri peri", "honey", "lemon", "mint", "pepper", "schezwan", "creamy", "roasted",
+            "grilled", "stuffed", "kesar", "malai", "achari", "hariyali", "mughlai", "chettinad"};
+    private static final String[] DISHES = {"chicken burger", "paneer tikka", "veg sandwich", "cold coffee",
+            "masala chai", "french fries", "chocolate shake", "mango lassi", "fish curry", "mutton biryani",
+            "egg roll", "aloo paratha", "dal makhani", "gulab jamun", "filter coffee", "veg momos", "pav bhaji",
+            "chole bhature", "idli sambar", "masala dosa", "hakka noodles", "fried rice", "spring roll",
+            "brownie sundae", "lime soda", "iced tea", "kulfi", "rasmalai", "samosa", "kachori"};
+    private static final String[] CATEGORIES = {"Burgers", "Starters", "Sandwiches", "Beverages", "Hot Drinks",
+            "Sides", "Shakes", "Main Course", "Rice", "Rolls", "Breads", "Desserts", "Chinese", "South Indian",
+            "Street Food"};
+    private static final String[] SIZES = {"small", "regular", "large", "jumbo", "half", "full", "combo", "family pack"};
+
+    private final ItemSearchIndex<String> index = catalog();
+
+    @Test
+    void findsPrefixesAndTyposAndRanksByPopularity() {
+        assertTopContains(index, "chicken burg", "chicken burger");
+        assertTopContains(index, "chiken burgr", "chicken burger");
+        assertTopContains(index, "paner tika", "paneer tikka");
+        assertTopContains(index, "biryni", "mutton biryani");
+        assertTopContains(index, "coffe", "coffee");
+        assertTopContains(index, "crème brûlée", null);
+        assertTrue(index.search("xyzzy", 10, null).isEmpty());
+
+        index.put("special", "Chicken Burger Deluxe", "Burgers", "Chef's special", "chicken burger deluxe");
+        index.addPopularity("special", 500);
+        assertEquals("special", index.search("chicken burger", 10, null).get(0).id());
+        index.remove("special");
+        assertFalse(index.search("deluxe", 10, null).stream().anyMatch(hit -> hit.id().equals("special")));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void searchesFiftyThousandItemsInUnderAMillisecond() {
+        String[] queries = {"c", "ch", "chi", "chicken", "chicken bur", "chiken burgr", "masala dosa large",
+                "cold cofee", "gulab", "paneer tikka jumbo", "schezwan fried rice", "mango lasi"};
+        for (String query : queries) {
+            int[] total = new int[1];
+            assertFalse(index.search(query, 10, total).isEmpty(), query);
+            assertTrue(total[0] > 0, query);
+            if (query.length() >= 3) {
+                double[] millis = measure(index, query);
+                double median = millis[millis.length / 2];
+                assertTrue(median < 1.0, query + ": median " + median + " ms");
+            }
+        }
+    }
+
+    private static ItemSearchIndex<String> catalog() {
+        ItemSearchIndex<String> index = new ItemSearchIndex<>();
+        Random random = new Random(42);
+        for (int i = 0; i < ITEMS; i++) {
+            String dish = DISHES[random.nextInt(DISHES.length)];
+            String name = STYLES[random.nextInt(STYLES.length)] + " " + dish + " " + SIZES[random.nextInt(SIZES.length)] + " " + i;
+            index.put("item-" + i, name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    "House made " + dish + ", served fresh", name);
+        }
+        assertEquals(ITEMS, index.size());
+        return index;
+    }
+
+    private static void assertTopContains(ItemSearchIndex<String> index, String query, String expected) {
+        List<ItemSearchIndex.Hit<String>> hits = index.search(query, 10, null);
+        if (expected == null) {
+            assertTrue(hits.isEmpty(), query);
+            return;
+        }
+        assertFalse(hits.isEmpty(), query);
+        assertTrue(hits.stream().allMatch(hit -> hit.payload().contains(expected)), query + " -> " + hits.get(0).payload());
+    }
+
+    // Sorted latencies in milliseconds, after a warm-up
+    private static double[] measure(ItemSearchIndex<String> index, String query) {
+        for (int i = 0; i < 200; i++) {
+            index.search(query, 10, null);
+        }
+        double[] millis = new double[500];
+        for (int i = 0; i < millis.length; i++) {
+            long start = System.nanoTime();
+            index.search(query, 10, null);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+}
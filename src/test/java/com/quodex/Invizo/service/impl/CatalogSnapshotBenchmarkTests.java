@@ -0,0 +1,161 @@
+package com.quodex.Invizo.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quodex.Invizo.cache.CatalogSnapshot;
+import com.quodex.Invizo.cache.ResourceVersions;
+import com.quodex.Invizo.entity.CategoryEntity;
+import com.quodex.Invizo.entity.ItemEntity;
+import com.quodex.Invizo.repository.ItemRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serving throughput of /items: the old path (load entities, map them to responses, serialize,
+ * optionally gzip per request) against writing the pre-built CatalogSnapshot bytes.
+ * The repository answers from memory, so the difference is CPU work only, not database time.
+ * The timing test is tagged "benchmark" and only runs with -Pbenchmark.
+ */
+class CatalogSnapshotBenchmarkTests {
+
+    private static final int ITEMS = 2000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ItemEntity> catalog = catalog();
+
+    private final ItemServiceImpl itemService =
+            new ItemServiceImpl(inMemoryRepository(), null, null, new ResourceVersions(), null, null);
+    private final CatalogSnapshotServiceImpl snapshots =
+            new CatalogSnapshotServiceImpl(itemService, null, new ResourceVersions(), objectMapper);
+
+    @Test
+    void snapshotHoldsTheSameBytesAsSerializingPerRequest() throws IOException {
+        CatalogSnapshot snapshot = snapshots.getSnapshot(ResourceVersions.Family.ITEMS);
+        byte[] perRequest = objectMapper.writeValueAsBytes(itemService.getItems());
+        assertArrayEquals(perRequest, snapshot.json());
+        assertArrayEquals(snapshot.json(), gunzip(snapshot.gzip()));
+
+        // Built once, then served as is
+        assertSame(snapshot, snapshots.getSnapshot(ResourceVersions.Family.ITEMS));
+        assertEquals(1L, snapshots.getStats().get("items").get("builds"));
+    }
+
+    @Tag("benchmark")
+    @Test
+    void snapshotServesFasterThanSerializingPerRequest() throws IOException {
+        double plainPerRequest = throughput(() -> {
+            sink.write(objectMapper.writeValueAsBytes(itemService.getItems()));
+        });
+        double gzipPerRequest = throughput(() -> {
+            try (OutputStream gzip = new GZIPOutputStream(sink)) {
+                gzip.write(objectMapper.writeValueAsBytes(itemService.getItems()));
+            }
+        });
+        double plainSnapshot = throughput(() -> sink.write(snapshots.getSnapshot(ResourceVersions.Family.ITEMS).json()));
+        double gzipSnapshot = throughput(() -> sink.write(snapshots.getSnapshot(ResourceVersions.Family.ITEMS).gzip()));
+
+        assertTrue(plainSnapshot > plainPerRequest * 10, plainSnapshot + " vs " + plainPerRequest + " req/s plain");
+        assertTrue(gzipSnapshot > gzipPerRequest * 10, gzipSnapshot + " vs " + gzipPerRequest + " req/s gzip");
+    }
+
+    // Copies everything through a 64 KB buffer, like a socket send buffer that is never read back
+    private final OutputStream sink = new OutputStream() {
+        private final byte[] buffer = new byte[64 * 1024];
+
+        @Override
+        public void write(int b) {
+            buffer[0] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                int chunk = Math.min(len, buffer.length);
+                System.arraycopy(b, off, buffer, 0, chunk);
+                off += chunk;
+                len -= chunk;
+            }
+        }
+    };
+
+    private interface Request {
+        void serve() throws IOException;
+    }
+
+    // Requests per second over about half a second, after a warm-up
+    private double throughput(Request request) throws IOException {
+        for (int i = 0; i < 50; i++) {
+            request.serve();
+        }
+        long start = System.nanoTime();
+        long deadline = start + 500_000_000L;
+        long served = 0;
+        long now;
+        do {
+            request.serve();
+            served++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return served * 1_000_000_000.0 / (now - start);
+    }
+
+    private ItemRepository inMemoryRepository() {
+        return (ItemRepository) Proxy.newProxyInstance(
+                ItemRepository.class.getClassLoader(),
+                new Class<?>[]{ItemRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> new ArrayList<>(catalog);
+                    case "toString" -> "InMemoryItemRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<ItemEntity> catalog() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int c = 0; c < 20; c++) {
+            categories.add(CategoryEntity.builder().id((long) c).categoryId(UUID.randomUUID().toString())
+                    .name("Category " + c).build());
+        }
+        List<ItemEntity> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(ItemEntity.builder()
+                    .id((long) i)
+                    .itemId(UUID.randomUUID().toString())
+                    .name("Item " + i)
+                    .description("House special number " + i + ", served hot")
+                    .price(BigDecimal.valueOf(20 + i % 300))
+                    .imgUrl("https://res.cloudinary.com/invizo/image/upload/v1/items/" + i + ".jpg")
+                    .category(categories.get(i % categories.size()))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return items;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.quodex.Invizo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarcodesTests {
+
+    @Test
+    void barcodesOfAGtinLengthMustCarryTheCheckDigit() {
+        assertTrue(Barcodes.isValid("4006381333931"));
+        assertTrue(Barcodes.isValid("96385074"));
+        assertFalse(Barcodes.isValid("4006381333932"));
+        assertFalse(Barcodes.isValid("10000001"));
+        // Other lengths and non-digit codes are custom labels
+        assertTrue(Barcodes.isValid("1000001"));
+        assertTrue(Barcodes.isValid("SHELF-A12"));
+        assertFalse(Barcodes.isValid("TWO WORDS"));
+    }
+
+    @Test
+    void skusAreCheckedForCharactersAndLengthOnly() {
+        assertTrue(Barcodes.isValidSku("10000001"));
+        assertTrue(Barcodes.isValidSku("4006381333932"));
+        assertTrue(Barcodes.isValidSku(Barcodes.normalizeSku(" tea-99 ")));
+        assertFalse(Barcodes.isValidSku("TWO WORDS"));
+        assertFalse(Barcodes.isValidSku("X".repeat(65)));
+        assertFalse(Barcodes.isValidSku(null));
+    }
+
+    @Test
+    void twelveDigitUpcIsStoredAsItsEan() {
+        assertEquals("0036000291452", Barcodes.normalize(" 036000291452 "));
+        assertEquals("TEA-99", Barcodes.normalizeSku(" tea-99 "));
+        assertNull(Barcodes.normalize("  "));
+    }
+}